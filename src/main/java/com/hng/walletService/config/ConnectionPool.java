@@ -0,0 +1,30 @@
+package com.hng.walletService.config;
+
+import java.util.Locale;
+
+/**
+ * The Hikari pools behind the application's DataSource. {@link ConnectionPoolRoutingDataSource}
+ * decides which one a connection is taken from.
+ */
+public enum ConnectionPool {
+
+    /**
+     * Read-write transactions: transfers, deposits, webhook settlements and key management.
+     */
+    LEDGER,
+
+    /**
+     * Read-only transactions and queries outside a transaction: balances, history, status lookups
+     * and authentication.
+     */
+    READ,
+
+    /**
+     * Scheduled work: deposit reconciliation, expiry sweeps and gauge refreshes.
+     */
+    JOBS;
+
+    public String propertyName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,38 @@
+package com.hng.walletService.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies {@link UseConnectionPool}. Ordered ahead of the transaction interceptor so the pool is
+ * selected before a transaction the method starts takes its connection.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ConnectionPoolAspect {
+
+    @Around("@annotation(com.hng.walletService.config.UseConnectionPool) "
+            + "|| @within(com.hng.walletService.config.UseConnectionPool)")
+    public Object onPool(ProceedingJoinPoint joinPoint) throws Throwable {
+        UseConnectionPool annotation = AnnotatedElementUtils.findMergedAnnotation(
+                ((MethodSignature) joinPoint.getSignature()).getMethod(), UseConnectionPool.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(
+                    joinPoint.getTarget().getClass(), UseConnectionPool.class);
+        }
+
+        ConnectionPool previous = ConnectionPoolRoutingDataSource.select(annotation.value());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ConnectionPoolRoutingDataSource.restore(previous);
+        }
+    }
+}
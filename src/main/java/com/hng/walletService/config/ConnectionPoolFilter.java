@@ -0,0 +1,42 @@
+package com.hng.walletService.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Runs every request that changes state on the ledger pool from the first filter on, so the user
+ * and API key lookups made while authenticating a transfer or deposit do not queue behind a burst
+ * of history reads on the read pool. Ordered ahead of the security filter chain.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ConnectionPoolFilter extends OncePerRequestFilter {
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (SAFE_METHODS.contains(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ConnectionPool previous = ConnectionPoolRoutingDataSource.select(ConnectionPool.LEDGER);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ConnectionPoolRoutingDataSource.restore(previous);
+        }
+    }
+}
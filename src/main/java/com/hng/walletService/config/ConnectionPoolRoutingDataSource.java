@@ -0,0 +1,83 @@
+package com.hng.walletService.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Picks the pool for each physical connection.
+ * <p>
+ * A pool selected explicitly, by {@link UseConnectionPool} or {@link ConnectionPoolFilter}, wins.
+ * Otherwise a read-write transaction goes to {@link ConnectionPool#LEDGER}, and a read-only
+ * transaction or a statement outside any transaction, which is how Spring Data runs derived
+ * finders, goes to {@link ConnectionPool#READ}. Transaction state is only known once the
+ * transaction has begun, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} that defers the choice
+ * to the first statement.
+ */
+public class ConnectionPoolRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<ConnectionPool> selected = new ThreadLocal<>();
+
+    public ConnectionPoolRoutingDataSource(Map<ConnectionPool, ? extends DataSource> pools) {
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(pools.get(ConnectionPool.LEDGER));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentPool();
+    }
+
+    public static ConnectionPool currentPool() {
+        ConnectionPool pool = selected.get();
+        if (pool != null) {
+            return pool;
+        }
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                ? ConnectionPool.LEDGER
+                : ConnectionPool.READ;
+    }
+
+    /**
+     * Selects {@code pool} for the current thread and returns the previous selection, to be handed
+     * back to {@link #restore}.
+     */
+    public static ConnectionPool select(ConnectionPool pool) {
+        ConnectionPool previous = selected.get();
+        selected.set(pool);
+        return previous;
+    }
+
+    public static void restore(ConnectionPool previous) {
+        if (previous == null) {
+            selected.remove();
+        } else {
+            selected.set(previous);
+        }
+    }
+
+    /**
+     * Carries the current thread's selection over to a task run on another thread.
+     */
+    public static Runnable onSelectedPool(Runnable task) {
+        ConnectionPool pool = selected.get();
+        if (pool == null) {
+            return task;
+        }
+        return () -> {
+            ConnectionPool previous = select(pool);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+}
@@ -0,0 +1,54 @@
+package com.hng.walletService.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.core.env.Environment;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One Hikari pool per {@link ConnectionPool}, all against the {@code spring.datasource}
+ * database.
+ * <p>
+ * Each pool starts from the {@code spring.datasource.hikari} settings and then applies
+ * {@code wallet.datasource.pools.<pool>.*}, which accepts any Hikari property, so a pool can be
+ * resized, given its own timeouts or pointed at a replica with {@code jdbc-url}. Pools are named
+ * {@code wallet-<pool>} and publish Hikari's {@code hikaricp.connections.*} meters, whose
+ * {@code pending} gauge and {@code timeout} counter show saturation.
+ */
+public class ConnectionPools implements AutoCloseable {
+
+    private final Map<ConnectionPool, HikariDataSource> pools = new EnumMap<>(ConnectionPool.class);
+
+    public ConnectionPools(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+        for (ConnectionPool pool : ConnectionPool.values()) {
+            HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .build();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+            binder.bind("wallet.datasource.pools." + pool.propertyName(), Bindable.ofInstance(dataSource));
+            dataSource.setPoolName("wallet-" + pool.propertyName());
+            dataSource.setMetricRegistry(meterRegistry);
+            pools.put(pool, dataSource);
+        }
+    }
+
+    public HikariDataSource get(ConnectionPool pool) {
+        return pools.get(pool);
+    }
+
+    public Map<ConnectionPool, HikariDataSource> all() {
+        return Collections.unmodifiableMap(pools);
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
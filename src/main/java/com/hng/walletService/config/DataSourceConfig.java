@@ -0,0 +1,39 @@
+package com.hng.walletService.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.flyway.autoconfigure.FlywayConfigurationCustomizer;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Replaces Boot's single pool with separate ledger, read and job pools behind one DataSource, so
+ * a flood of reads or a long reconciliation run cannot starve transfers and webhook settlements
+ * of connections.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    public ConnectionPools connectionPools(DataSourceProperties properties, Environment environment,
+                                           MeterRegistry meterRegistry) {
+        return new ConnectionPools(properties, environment, meterRegistry);
+    }
+
+    // Hibernate takes its connection when a transaction begins, before Spring has published the
+    // transaction's type; the lazy proxy holds off the pool choice until the first statement
+    @Bean
+    public DataSource dataSource(ConnectionPools connectionPools) {
+        return new LazyConnectionDataSourceProxy(new ConnectionPoolRoutingDataSource(connectionPools.all()));
+    }
+
+    // Migrations run outside any Spring transaction, which the routing would send to the read pool
+    @Bean
+    public FlywayConfigurationCustomizer flywayOnLedgerPool(ConnectionPools connectionPools) {
+        return configuration -> configuration.dataSource(connectionPools.get(ConnectionPool.LEDGER));
+    }
+}
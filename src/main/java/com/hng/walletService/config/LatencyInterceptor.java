@@ -0,0 +1,52 @@
+package com.hng.walletService.config;
+
+import com.hng.walletService.util.LatencyRecorder;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Feeds {@link LatencyRecorder} with the time spent in each controller method, keyed as
+ * {@code Controller#method}. Authentication runs in the security filters before this and is
+ * timed separately. SSE streams and long polls are timed from the first dispatch to the end of the
+ * async redispatch that completes them.
+ */
+@Component
+@RequiredArgsConstructor
+public class LatencyInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = LatencyInterceptor.class.getName() + ".start";
+
+    private final LatencyRecorder latencyRecorder;
+    private final Map<Method, String> names = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // An async redispatch keeps the start of the original request
+        if (handler instanceof HandlerMethod && request.getAttribute(START_ATTRIBUTE) == null) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (handler instanceof HandlerMethod handlerMethod
+                && request.getAttribute(START_ATTRIBUTE) instanceof Long start) {
+            latencyRecorder.record(name(handlerMethod), System.nanoTime() - start);
+        }
+    }
+
+    private String name(HandlerMethod handlerMethod) {
+        return names.computeIfAbsent(handlerMethod.getMethod(),
+                method -> handlerMethod.getBeanType().getSimpleName() + "#" + method.getName());
+    }
+}
@@ -0,0 +1,103 @@
+package com.hng.walletService.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker and bulkhead guarding outbound Paystack calls, so a degraded Paystack
+ * fails deposits fast instead of tying up servlet threads needed by transfers and reads.
+ */
+@Slf4j
+@Configuration
+public class PaystackResilienceConfig {
+
+    public static final String PAYSTACK = "paystack";
+
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(
+            @Value("${paystack.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${paystack.circuit-breaker.slow-call-duration:5s}") Duration slowCallDuration,
+            @Value("${paystack.circuit-breaker.window:30s}") Duration window,
+            @Value("${paystack.circuit-breaker.minimum-calls:10}") int minimumCalls,
+            @Value("${paystack.circuit-breaker.open-duration:30s}") Duration openDuration,
+            @Value("${paystack.circuit-breaker.half-open-calls:3}") int halfOpenCalls) {
+
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.TIME_BASED)
+                .slidingWindowSize((int) Math.max(1, window.toSeconds()))
+                .minimumNumberOfCalls(minimumCalls)
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(slowCallDuration)
+                .slowCallRateThreshold(failureRateThreshold)
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .recordException(PaystackResilienceConfig::isPaystackFailure)
+                .ignoreExceptions(BulkheadFullException.class)
+                .build();
+
+        return CircuitBreakerRegistry.of(config);
+    }
+
+    @Bean
+    public BulkheadRegistry bulkheadRegistry(
+            @Value("${paystack.bulkhead.max-concurrent-calls:20}") int maxConcurrentCalls,
+            @Value("${paystack.bulkhead.max-wait:0ms}") Duration maxWait) {
+
+        BulkheadConfig config = BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(maxWait)
+                .build();
+
+        return BulkheadRegistry.of(config);
+    }
+
+    @Bean
+    public CircuitBreaker paystackCircuitBreaker(CircuitBreakerRegistry circuitBreakerRegistry) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(PAYSTACK);
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("Paystack circuit breaker transition: {}", event.getStateTransition()));
+        return circuitBreaker;
+    }
+
+    @Bean
+    public Bulkhead paystackBulkhead(BulkheadRegistry bulkheadRegistry) {
+        return bulkheadRegistry.bulkhead(PAYSTACK);
+    }
+
+    @Bean
+    public TaggedCircuitBreakerMetrics paystackCircuitBreakerMetrics(CircuitBreakerRegistry circuitBreakerRegistry,
+                                                                     MeterRegistry meterRegistry) {
+        TaggedCircuitBreakerMetrics metrics = TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry);
+        metrics.bindTo(meterRegistry);
+        return metrics;
+    }
+
+    @Bean
+    public TaggedBulkheadMetrics paystackBulkheadMetrics(BulkheadRegistry bulkheadRegistry,
+                                                         MeterRegistry meterRegistry) {
+        TaggedBulkheadMetrics metrics = TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry);
+        metrics.bindTo(meterRegistry);
+        return metrics;
+    }
+
+    // Paystack rejecting a bad reference (4xx) says nothing about Paystack's health
+    static boolean isPaystackFailure(Throwable throwable) {
+        return !(throwable instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError());
+    }
+}
@@ -3,11 +3,22 @@ package com.hng.walletService.config;
 import com.hng.walletService.security.ApiKeyAuthenticationFilter;
 import com.hng.walletService.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.health.actuate.endpoint.HealthEndpoint;
+import org.springframework.boot.security.autoconfigure.actuate.web.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -20,6 +31,45 @@ public class SecurityConfig {
     private final ApiKeyAuthenticationFilter apiKeyAuthFilter;
     private final OAuth2SuccessHandler oAuth2SuccessHandler;
 
+    /**
+     * Actuator endpoints other than health carry latencies, pool sizes and wallet business metrics,
+     * so they answer only the operator account over HTTP Basic. This chain does not run the JWT and
+     * API key filters, so customer credentials get 401, and with no wallet.operator.password set
+     * nobody gets in.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain managementSecurityFilterChain(
+            HttpSecurity http,
+            @Value("${wallet.operator.username:operator}") String username,
+            @Value("${wallet.operator.password:}") String password) throws Exception {
+        PasswordEncoder passwordEncoder = PasswordEncoderFactories.createDelegatingPasswordEncoder();
+        InMemoryUserDetailsManager operators = new InMemoryUserDetailsManager();
+        if (!password.isBlank()) {
+            operators.createUser(User.withUsername(username)
+                    .password(passwordEncoder.encode(password))
+                    .roles("OPERATOR")
+                    .build());
+        }
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(operators);
+        provider.setPasswordEncoder(passwordEncoder);
+
+        http
+                .securityMatcher(EndpointRequest.toAnyEndpoint())
+                .csrf(csrf -> csrf.disable())
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                        .anyRequest().hasRole("OPERATOR")
+                )
+                .sessionManagement(session -> session
+                        .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                )
+                .authenticationManager(new ProviderManager(provider))
+                .httpBasic(Customizer.withDefaults());
+
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
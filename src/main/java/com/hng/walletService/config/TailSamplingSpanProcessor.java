@@ -0,0 +1,216 @@
+package com.hng.walletService.config;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Buffers the spans of each trace until its local root ends, then hands the whole trace to the
+ * exporting processor only if some span failed, the root took at least {@code slowThreshold},
+ * or the trace wins the {@code baselineProbability} draw. Head sampling has to record every
+ * trace for this to see them, so {@code management.tracing.sampling.probability} stays at 1.0.
+ * <p>
+ * At most {@code maxBufferedTraces} traces are held; beyond that, spans are decided one by one
+ * so an unfinished or leaked root can never grow the buffer without bound.
+ * <p>
+ * Spans can also end after their root: SSE and long-poll continuations, work handed to another
+ * thread. A kept trace therefore stays known for {@code maxTraceAge} after its root ends, and its
+ * late spans are exported as they end; late spans of a dropped trace are dropped unless they are
+ * slow or failed themselves. Every buffer older than {@code maxTraceAge}, which includes those of
+ * roots that never end on this node, is swept out at most once a second, exporting its spans only
+ * if one of them was slow or failed.
+ */
+public class TailSamplingSpanProcessor implements SpanProcessor {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final SpanProcessor delegate;
+    private final long slowThresholdNanos;
+    private final double baselineProbability;
+    private final int maxBufferedTraces;
+    private final long maxTraceAgeNanos;
+    private final LongSupplier nanoTime;
+    private final Map<String, TraceBuffer> traces = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep;
+
+    public TailSamplingSpanProcessor(SpanProcessor delegate, Duration slowThreshold, double baselineProbability,
+                                     int maxBufferedTraces, Duration maxTraceAge) {
+        this(delegate, slowThreshold, baselineProbability, maxBufferedTraces, maxTraceAge, System::nanoTime);
+    }
+
+    TailSamplingSpanProcessor(SpanProcessor delegate, Duration slowThreshold, double baselineProbability,
+                              int maxBufferedTraces, Duration maxTraceAge, LongSupplier nanoTime) {
+        this.delegate = delegate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.baselineProbability = baselineProbability;
+        this.maxBufferedTraces = maxBufferedTraces;
+        this.maxTraceAgeNanos = maxTraceAge.toNanos();
+        this.nanoTime = nanoTime;
+        this.nextSweep = new AtomicLong(nanoTime.getAsLong() + SWEEP_INTERVAL_NANOS);
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        long now = nanoTime.getAsLong();
+        sweep(now);
+        boolean interesting = isInteresting(span);
+        String traceId = span.getSpanContext().getTraceId();
+
+        if (isLocalRoot(span)) {
+            TraceBuffer buffer = traces.remove(traceId);
+            boolean keep = interesting
+                    || (buffer != null && buffer.isInteresting())
+                    || ThreadLocalRandom.current().nextDouble() < baselineProbability;
+            if (buffer != null) {
+                synchronized (buffer) {
+                    if (keep) {
+                        buffer.spans.forEach(delegate::onEnd);
+                    }
+                    buffer.decide(keep, now);
+                }
+            }
+            if (keep) {
+                delegate.onEnd(span);
+                // Remembered so the spans still running follow the trace out
+                if (traces.size() < maxBufferedTraces) {
+                    traces.compute(traceId, (id, current) -> {
+                        TraceBuffer kept = current != null ? current : new TraceBuffer(now);
+                        // A span that ended since the remove above started a new buffer
+                        synchronized (kept) {
+                            if (kept.decision == Decision.PENDING) {
+                                kept.spans.forEach(delegate::onEnd);
+                            }
+                            kept.decide(true, now);
+                        }
+                        return kept;
+                    });
+                }
+            }
+            return;
+        }
+
+        TraceBuffer buffer = traces.get(traceId);
+        if (buffer == null) {
+            if (traces.size() >= maxBufferedTraces) {
+                if (interesting) {
+                    delegate.onEnd(span);
+                }
+                return;
+            }
+            buffer = traces.computeIfAbsent(traceId, id -> new TraceBuffer(now));
+        }
+        synchronized (buffer) {
+            if (buffer.decision == Decision.KEPT || (buffer.decision == Decision.DROPPED && interesting)) {
+                delegate.onEnd(span);
+            } else if (buffer.decision == Decision.PENDING) {
+                buffer.spans.add(span);
+                buffer.interesting |= interesting;
+            }
+        }
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        traces.clear();
+        return delegate.shutdown();
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        return delegate.forceFlush();
+    }
+
+    // One thread at a time, at most once per SWEEP_INTERVAL_NANOS
+    private void sweep(long now) {
+        long due = nextSweep.get();
+        if (now - due < 0 || !nextSweep.compareAndSet(due, now + SWEEP_INTERVAL_NANOS)) {
+            return;
+        }
+        long cutoff = now - maxTraceAgeNanos;
+        traces.values().removeIf(buffer -> expire(buffer, cutoff));
+    }
+
+    private boolean expire(TraceBuffer buffer, long cutoff) {
+        synchronized (buffer) {
+            if (buffer.since - cutoff > 0) {
+                return false;
+            }
+            // The root never ended here, so there is nothing left to wait for
+            if (buffer.decision == Decision.PENDING && buffer.interesting) {
+                buffer.spans.forEach(delegate::onEnd);
+            }
+            buffer.decide(false, cutoff);
+            return true;
+        }
+    }
+
+    int bufferedTraces() {
+        return traces.size();
+    }
+
+    private boolean isInteresting(ReadableSpan span) {
+        return span.getLatencyNanos() >= slowThresholdNanos
+                || span.toSpanData().getStatus().getStatusCode() == StatusCode.ERROR;
+    }
+
+    private static boolean isLocalRoot(ReadableSpan span) {
+        SpanContext parent = span.getParentSpanContext();
+        return !parent.isValid() || parent.isRemote();
+    }
+
+    private enum Decision {
+        PENDING,
+        KEPT,
+        DROPPED
+    }
+
+    private static final class TraceBuffer {
+        private final List<ReadableSpan> spans = new ArrayList<>();
+        private boolean interesting;
+        private Decision decision = Decision.PENDING;
+        // Creation time while pending, decision time after
+        private long since;
+
+        private TraceBuffer(long since) {
+            this.since = since;
+        }
+
+        private synchronized boolean isInteresting() {
+            return interesting;
+        }
+
+        private synchronized void decide(boolean keep, long now) {
+            decision = keep ? Decision.KEPT : Decision.DROPPED;
+            since = now;
+            spans.clear();
+        }
+    }
+}
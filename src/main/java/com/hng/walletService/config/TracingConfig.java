@@ -0,0 +1,70 @@
+package com.hng.walletService.config;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.micrometer.tracing.opentelemetry.autoconfigure.SpanProcessors;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.time.Duration;
+
+/**
+ * Tracing setup on top of Boot's OpenTelemetry auto-configuration.
+ * <p>
+ * Security filters, services ({@code @Observed}) and outbound WebClient calls already produce
+ * observations. This adds one per repository method call, and routes finished spans through
+ * {@link TailSamplingSpanProcessor} before Boot's batch exporter.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    public SpanProcessors spanProcessors(
+            ObjectProvider<BatchSpanProcessor> otelSpanProcessor,
+            @Value("${tracing.tail-sampling.slow-threshold:500ms}") Duration slowThreshold,
+            @Value("${tracing.tail-sampling.baseline-probability:0.05}") double baselineProbability,
+            @Value("${tracing.tail-sampling.max-buffered-traces:10000}") int maxBufferedTraces,
+            @Value("${tracing.tail-sampling.max-trace-age:60s}") Duration maxTraceAge) {
+
+        BatchSpanProcessor exporting = otelSpanProcessor.getIfAvailable();
+        if (exporting == null) {
+            return SpanProcessors.of();
+        }
+        return SpanProcessors.of(new TailSamplingSpanProcessor(
+                exporting, slowThreshold, baselineProbability, maxBufferedTraces, maxTraceAge));
+    }
+
+    @Bean
+    public static BeanPostProcessor repositoryObservationPostProcessor(
+            ObjectProvider<ObservationRegistry> observationRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(repositoryObservation(
+                                    observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP),
+                                    repositoryInformation.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static MethodInterceptor repositoryObservation(ObservationRegistry registry, String repository) {
+        return invocation -> {
+            String method = invocation.getMethod().getName();
+            return Observation.createNotStarted("wallet.repository", registry)
+                    .contextualName(repository + "#" + method)
+                    .lowCardinalityKeyValue("repository", repository)
+                    .lowCardinalityKeyValue("method", method)
+                    .observeChecked(invocation::proceed);
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package com.hng.walletService.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the annotated method, or every public method of the annotated bean, on the given pool
+ * whatever the transaction type. A connection already held by an enclosing transaction is kept.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface UseConnectionPool {
+
+    ConnectionPool value();
+}
@@ -0,0 +1,54 @@
+package com.hng.walletService.config;
+
+import com.hng.walletService.model.enums.WalletTier;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-tier velocity limits under {@code wallet.velocity}, for example
+ * {@code wallet.velocity.tiers.standard.transfer.hour.amount=500000}. A limit left unset does not
+ * apply, so a tier with nothing configured is unlimited.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "wallet.velocity")
+public class VelocityLimitProperties {
+
+    private boolean enabled = true;
+
+    // Wallets whose recent activity is held in memory; the least recently used go beyond this
+    private int maxWallets = 10_000;
+
+    // How long a wallet's counters are trusted before they are reloaded from the ledger, which
+    // picks up what other nodes have let through in the meantime
+    private Duration refreshAfter = Duration.ofMinutes(5);
+
+    private Map<WalletTier, Tier> tiers = new EnumMap<>(WalletTier.class);
+
+    @Data
+    public static class Tier {
+        private Windows transfer = new Windows();
+        private Windows deposit = new Windows();
+        // Each line of a payout batch counts once here and not against the transfer limits
+        private Windows payout = new Windows();
+    }
+
+    @Data
+    public static class Windows {
+        private Limit minute = new Limit();
+        private Limit hour = new Limit();
+        private Limit day = new Limit();
+    }
+
+    @Data
+    public static class Limit {
+        private Integer count;
+        private BigDecimal amount;
+    }
+}
@@ -0,0 +1,27 @@
+package com.hng.walletService.controller;
+
+import com.hng.walletService.util.LatencyRecorder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.jmx.annotation.JmxEndpoint;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * JMX-only per-endpoint and per-Paystack-call percentiles for the current and previous recording
+ * interval on this node, raw and corrected for coordinated omission. Not exposed over HTTP, where
+ * any authenticated wallet user could reach it.
+ */
+@Component
+@RequiredArgsConstructor
+@JmxEndpoint(id = "latency")
+public class LatencyEndpoint {
+
+    private final LatencyRecorder latencyRecorder;
+
+    @ReadOperation
+    public Map<String, LatencyRecorder.LatencySummary> latency() {
+        return latencyRecorder.snapshot();
+    }
+}
@@ -0,0 +1,158 @@
+package com.hng.walletService.controller;
+
+import com.hng.walletService.exception.InvalidRequestException;
+import com.hng.walletService.exception.ResourceNotFoundException;
+import com.hng.walletService.model.dto.response.PayoutBatchResponse;
+import com.hng.walletService.model.entity.ApiKeyEntity;
+import com.hng.walletService.model.entity.UserEntity;
+import com.hng.walletService.service.ApiKeyService;
+import com.hng.walletService.service.CustomUserDetailsService;
+import com.hng.walletService.service.PayoutPipeline;
+import com.hng.walletService.service.PayoutService;
+import com.hng.walletService.util.AuthenticationUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+@Slf4j
+@RestController
+@RequestMapping("/wallet/payouts")
+@RequiredArgsConstructor
+@Tag(
+        name = "Payouts",
+        description = "Endpoints for bulk payouts from a CSV file"
+)
+@SecurityRequirement(name = "bearerAuth")
+public class PayoutController {
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private final PayoutService payoutService;
+    private final PayoutPipeline payoutPipeline;
+    private final ApiKeyService apiKeyService;
+    private final CustomUserDetailsService userDetailsService;
+    private final AuthenticationUtil authenticationUtil;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(
+            summary = "Upload a payout file",
+            description = """
+            Pays many wallets from the authenticated user's wallet. **file** is CSV with one payout
+            per line, `wallet_number,amount[,reference]`, optionally under a header line. The file
+            is accepted as a batch and paid out in the background: the whole valid total is taken
+            from the wallet first, or the batch fails if the wallet cannot cover it or its lines
+            would take the wallet over its transfer limits, and whatever cannot be paid is refunded
+            at the end. Follow it with `GET /wallet/payouts/{id}`.
+            Requires JWT authentication or an API key with **transfer** permission.
+            """
+    )
+    public ResponseEntity<PayoutBatchResponse> upload(@RequestParam("file") MultipartFile file,
+                                                      Authentication authentication,
+                                                      HttpServletRequest httpRequest) {
+        try {
+            ApiKeyEntity apiKey = (ApiKeyEntity) httpRequest.getAttribute("apiKey");
+            if (apiKey != null && !apiKeyService.hasPermission(apiKey, "transfer")) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+
+            String email = authenticationUtil.extractEmail(authentication);
+            UserEntity user = userDetailsService.getUserByEmail(email);
+            PayoutBatchResponse response;
+            try (InputStream in = file.getInputStream()) {
+                response = payoutService.upload(user, file.getOriginalFilename(), in);
+            }
+            payoutPipeline.submit(response.getId());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (InvalidRequestException e) {
+            log.error("Error uploading payout file: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Unexpected error uploading payout file: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/{id}")
+    @Operation(
+            summary = "Get payout progress",
+            description = """
+            Status of a payout batch with its counts of invalid, pending, paid and failed lines.
+            Requires JWT authentication or an API key with **read** permission.
+            """
+    )
+    public ResponseEntity<PayoutBatchResponse> getBatch(@PathVariable Long id,
+                                                        Authentication authentication,
+                                                        HttpServletRequest httpRequest) {
+        try {
+            ApiKeyEntity apiKey = (ApiKeyEntity) httpRequest.getAttribute("apiKey");
+            if (apiKey != null && !apiKeyService.hasPermission(apiKey, "read")) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+
+            String email = authenticationUtil.extractEmail(authentication);
+            UserEntity user = userDetailsService.getUserByEmail(email);
+            return ResponseEntity.ok(payoutService.getBatch(id, user));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("Unexpected error getting payout batch {}: {}", id, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/{id}/results")
+    @Operation(
+            summary = "Download payout results",
+            description = """
+            The outcome of every line of the file as CSV, in file order: its status, why it failed
+            and the reference of the transfer made. Requires JWT authentication or an API key with
+            **read** permission.
+            """
+    )
+    public ResponseEntity<StreamingResponseBody> getResults(@PathVariable Long id,
+                                                            Authentication authentication,
+                                                            HttpServletRequest httpRequest) {
+        try {
+            ApiKeyEntity apiKey = (ApiKeyEntity) httpRequest.getAttribute("apiKey");
+            if (apiKey != null && !apiKeyService.hasPermission(apiKey, "read")) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+
+            String email = authenticationUtil.extractEmail(authentication);
+            UserEntity user = userDetailsService.getUserByEmail(email);
+            // Checks the batch is the user's before the response starts
+            payoutService.getBatch(id, user);
+
+            StreamingResponseBody body = out -> {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                payoutService.writeResults(id, user, writer);
+            };
+            return ResponseEntity.ok()
+                    .contentType(TEXT_CSV)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"payout-" + id + "-results.csv\"")
+                    .body(body);
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("Unexpected error getting payout results {}: {}", id, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
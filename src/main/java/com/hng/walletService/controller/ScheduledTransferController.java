@@ -0,0 +1,132 @@
+package com.hng.walletService.controller;
+
+import com.hng.walletService.model.dto.request.ScheduledTransferRequest;
+import com.hng.walletService.model.dto.response.ApiResponse;
+import com.hng.walletService.model.dto.response.ScheduledTransferResponse;
+import com.hng.walletService.model.entity.ApiKeyEntity;
+import com.hng.walletService.model.entity.UserEntity;
+import com.hng.walletService.service.ApiKeyService;
+import com.hng.walletService.service.CustomUserDetailsService;
+import com.hng.walletService.service.ScheduledTransferService;
+import com.hng.walletService.util.AuthenticationUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/wallet/transfers/scheduled")
+@RequiredArgsConstructor
+@Tag(
+        name = "Scheduled Transfers",
+        description = "Endpoints for future-dated and recurring transfers"
+)
+@SecurityRequirement(name = "bearerAuth")
+public class ScheduledTransferController {
+
+    private final ScheduledTransferService scheduledTransferService;
+    private final ApiKeyService apiKeyService;
+    private final CustomUserDetailsService userDetailsService;
+    private final AuthenticationUtil authenticationUtil;
+
+    @PostMapping
+    @Operation(
+            summary = "Schedule a transfer",
+            description = """
+            Schedules a transfer from the authenticated user's wallet to run at **run_at**, once or
+            **daily**, **weekly** or **monthly** from then on. **occurrences** limits the number of
+            runs of a recurring transfer; without it the transfer repeats until cancelled. A run
+            that fails, for instance for lack of funds, is retried a few times with growing delays.
+            Requires JWT authentication or an API key with **transfer** permission.
+            """
+    )
+    public ResponseEntity<ScheduledTransferResponse> schedule(
+            @Valid @RequestBody ScheduledTransferRequest request,
+            Authentication authentication,
+            HttpServletRequest httpRequest) {
+        try {
+            ApiKeyEntity apiKey = (ApiKeyEntity) httpRequest.getAttribute("apiKey");
+            if (apiKey != null && !apiKeyService.hasPermission(apiKey, "transfer")) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+
+            String email = authenticationUtil.extractEmail(authentication);
+            UserEntity user = userDetailsService.getUserByEmail(email);
+            ScheduledTransferResponse response = scheduledTransferService.schedule(user, request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (RuntimeException e) {
+            log.error("Error scheduling transfer: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Unexpected error scheduling transfer: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping
+    @Operation(
+            summary = "List scheduled transfers",
+            description = """
+            Lists the authenticated user's scheduled transfers, newest first, with their status,
+            next run and the error of the last failed attempt.
+            Requires JWT authentication or an API key with **read** permission.
+            """
+    )
+    public ResponseEntity<List<ScheduledTransferResponse>> list(Authentication authentication,
+                                                                HttpServletRequest httpRequest) {
+        try {
+            ApiKeyEntity apiKey = (ApiKeyEntity) httpRequest.getAttribute("apiKey");
+            if (apiKey != null && !apiKeyService.hasPermission(apiKey, "read")) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+
+            String email = authenticationUtil.extractEmail(authentication);
+            UserEntity user = userDetailsService.getUserByEmail(email);
+            return ResponseEntity.ok(scheduledTransferService.getScheduledTransfers(user));
+        } catch (Exception e) {
+            log.error("Error listing scheduled transfers: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(
+            summary = "Cancel a scheduled transfer",
+            description = """
+            Stops a scheduled transfer; runs already made are not reversed.
+            Requires JWT authentication or an API key with **transfer** permission.
+            """
+    )
+    public ResponseEntity<ApiResponse<String>> cancel(@PathVariable Long id,
+                                                      Authentication authentication,
+                                                      HttpServletRequest httpRequest) {
+        try {
+            ApiKeyEntity apiKey = (ApiKeyEntity) httpRequest.getAttribute("apiKey");
+            if (apiKey != null && !apiKeyService.hasPermission(apiKey, "transfer")) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+
+            String email = authenticationUtil.extractEmail(authentication);
+            UserEntity user = userDetailsService.getUserByEmail(email);
+            scheduledTransferService.cancel(id, user);
+            return ResponseEntity.ok(ApiResponse.success("Scheduled transfer cancelled", "Cancelled"));
+        } catch (RuntimeException e) {
+            log.error("Error cancelling scheduled transfer {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Unexpected error cancelling scheduled transfer {}: {}", id, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("An unexpected error occurred"));
+        }
+    }
+}
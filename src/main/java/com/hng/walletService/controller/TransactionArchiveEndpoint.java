@@ -0,0 +1,45 @@
+package com.hng.walletService.controller;
+
+import com.hng.walletService.service.TransactionPartitionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.jmx.annotation.JmxEndpoint;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * JMX-only operations on archived transaction months: list them, load one into a
+ * {@code transactions_archive_YYYY_MM} table for ad-hoc queries, and drop that table again.
+ * Not exposed over HTTP, where any authenticated wallet user could reach it.
+ */
+@Component
+@RequiredArgsConstructor
+@JmxEndpoint(id = "transactionarchive")
+public class TransactionArchiveEndpoint {
+
+    private final TransactionPartitionService transactionPartitionService;
+
+    @ReadOperation
+    public List<String> archivedMonths() throws IOException {
+        return transactionPartitionService.archivedMonths().stream().map(YearMonth::toString).toList();
+    }
+
+    /**
+     * @param month {@code yyyy-MM}
+     */
+    @WriteOperation
+    public String restore(String month) {
+        long rows = transactionPartitionService.restore(YearMonth.parse(month));
+        return "Restored " + rows + " transactions from " + month;
+    }
+
+    @DeleteOperation
+    public void release(String month) {
+        transactionPartitionService.release(YearMonth.parse(month));
+    }
+}
@@ -1,7 +1,10 @@
 package com.hng.walletService.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.hng.walletService.model.dto.paystack.PaystackVerifyResponse;
+import com.hng.walletService.exception.InvalidRequestException;
+import com.hng.walletService.exception.PaymentVerificationException;
+import com.hng.walletService.exception.PaystackUnavailableException;
+import com.hng.walletService.exception.VelocityLimitExceededException;
 import com.hng.walletService.model.dto.paystack.PaystackWebhookPayload;
 import com.hng.walletService.model.dto.request.DepositRequest;
 import com.hng.walletService.model.dto.request.TransferRequest;
@@ -9,6 +12,7 @@ import com.hng.walletService.model.dto.response.*;
 import com.hng.walletService.model.entity.ApiKeyEntity;
 import com.hng.walletService.model.entity.UserEntity;
 import com.hng.walletService.model.entity.WalletEntity;
+import com.hng.walletService.model.enums.TransactionStatus;
 import com.hng.walletService.service.*;
 import com.hng.walletService.util.AuthenticationUtil;
 import jakarta.servlet.http.HttpServletRequest;
@@ -16,18 +20,30 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DurationFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.core.Authentication;
-import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.util.ContentCachingRequestWrapper;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -47,19 +63,38 @@ public class WalletController {
     private final WalletService walletService;
     private final TransactionService transactionService;
     private final PaystackService paystackService;
+    private final PaymentVerificationService paymentVerificationService;
     private final ApiKeyService apiKeyService;
     private final CustomUserDetailsService userDetailsService;
     private final AuthenticationUtil authenticationUtil;
+    private final WalletEventBus walletEventBus;
+    private final DepositStatusWaiters depositStatusWaiters;
+    private final WalletStatsService walletStatsService;
+
+    @Value("${wallet.events.heartbeat:PT15S}")
+    private Duration eventsHeartbeat = Duration.ofSeconds(15);
+
+    @Value("${wallet.events.max-duration:PT15M}")
+    private Duration eventsMaxDuration = Duration.ofMinutes(15);
+
+    @Value("${wallet.deposit.status.max-wait:PT30S}")
+    private Duration depositStatusMaxWait = Duration.ofSeconds(30);
 
     @Autowired
     private final ObjectMapper objectMapper;
 
+    // Per-user data: only the client may keep it, and it has to revalidate before reusing it
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+    private static final String PENDING = TransactionStatus.PENDING.name().toLowerCase();
+
     @PostMapping("/deposit")
     @Operation(
             summary = "Initiate deposit",
             description = """
             Initiates a deposit for the authenticated user. 
             Creates a Paystack payment link that the user can use to complete the deposit.
+            Answers 429 with Retry-After when the wallet has reached a deposit limit of its tier,
+            and 503 when Paystack is unavailable.
             Requires JWT authentication or an API key with **deposit** permission.
             """
     )
@@ -69,18 +104,7 @@ public class WalletController {
             HttpServletRequest httpRequest) {
 
         try {
-            // Safely read raw body via ContentCachingRequestWrapper
-            if (httpRequest instanceof ContentCachingRequestWrapper wrapper) {
-                String rawBody = new String(wrapper.getContentAsByteArray(), wrapper.getCharacterEncoding());
-                log.info("Raw body: {}", rawBody);
-            } else {
-                log.warn("Request not wrapped with ContentCachingRequestWrapper — raw body unavailable.");
-            }
-
-            log.info("Authentication {}", authentication);
-            log.info("Received deposit request: {}", request);
-            log.info("Amount value: {}", request.getAmount());
-            log.info("Amount class: {}", request.getAmount() != null ? request.getAmount().getClass() : "null");
+            log.debug("Received deposit request for amount {}", request.getAmount());
 
             ApiKeyEntity apiKey = (ApiKeyEntity) httpRequest.getAttribute("apiKey");
             if (apiKey != null && !apiKeyService.hasPermission(apiKey, "deposit")) {
@@ -95,6 +119,11 @@ public class WalletController {
 //            return ApiResponse.success("Deposit initiated successfully", response);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
 
+        } catch (PaystackUnavailableException e) {
+            // GlobalExceptionHandler answers 503 with the same body as verify-payment
+            throw e;
+        } catch (VelocityLimitExceededException e) {
+            return tooManyRequests(e);
         } catch (Exception e) {
             log.error("Error initiating deposit: {}", e.getMessage());
 //            return ApiResponse.error(e.getMessage());
@@ -112,25 +141,23 @@ public class WalletController {
             """
     )
     public ResponseEntity<Map<String, Object>> paystackWebhook(
-            @RequestBody String payload,
-            @RequestHeader(value = "x-paystack-signature", required = false) String signature,
-            HttpServletRequest request) {
+            @RequestBody byte[] payload,
+            @RequestHeader(value = "x-paystack-signature", required = false) String signature) {
         try {
-            String rawBody = StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8);
-
-            if (signature == null || !paystackService.verifyWebhookSignature(rawBody, signature)) {
+            // The body is bound once as raw bytes; the signature and the parser both work off this buffer
+            if (signature == null || !paystackService.verifyWebhookSignature(payload, signature)) {
                 log.error("Invalid webhook signature");
 //                return ApiResponse.error("Invalid signature");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("status", false));
             }
 
-            PaystackWebhookPayload webhookPayload = objectMapper.readValue(rawBody, PaystackWebhookPayload.class);
+            PaystackWebhookPayload webhookPayload = paystackService.parseWebhookPayload(payload);
 
-            if ("charge.success".equals(webhookPayload.getEvent())) {
+            if ("charge.success".equals(webhookPayload.getEvent()) && webhookPayload.getData() != null) {
                 String reference = webhookPayload.getData().getReference();
                 Long amountInKobo = webhookPayload.getData().getAmount();
-                BigDecimal amount = new BigDecimal(amountInKobo).divide(new BigDecimal("100"));
+                BigDecimal amount = BigDecimal.valueOf(amountInKobo, 2);
 
                 transactionService.processSuccessfulDeposit(reference, amount);
                 log.info("Webhook processed successfully for reference: {}", reference);
@@ -166,6 +193,48 @@ public class WalletController {
         }
     }
 
+    @GetMapping(value = "/deposit/{reference}/status", params = "wait")
+    @Operation(
+            summary = "Wait for deposit status",
+            description = """
+            Long-polling form of the deposit status check for clients that cannot stream
+            **/wallet/events**. While the deposit is pending the request is held for up to
+            **wait** (e.g. `30s`, capped by the server) and answered as soon as the deposit
+            succeeds or fails; if the wait runs out it returns the status at that point, still
+            pending. Answers 429 when the server is holding too many waiting requests.
+            """
+    )
+    public DeferredResult<ResponseEntity<DepositStatusResponse>> awaitDepositStatus(
+            @PathVariable String reference,
+            @RequestParam @DurationFormat(style = DurationFormat.Style.SIMPLE) Duration wait) {
+        Duration timeout = wait.compareTo(depositStatusMaxWait) > 0 ? depositStatusMaxWait : wait;
+        DeferredResult<ResponseEntity<DepositStatusResponse>> result = new DeferredResult<>(timeout.toMillis());
+        if (!timeout.isPositive()) {
+            // A zero async timeout would mean waiting forever
+            result.setResult(getDepositStatus(reference));
+            return result;
+        }
+
+        Optional<CompletableFuture<DepositStatusResponse>> waiter = depositStatusWaiters.register(reference);
+        if (waiter.isEmpty()) {
+            result.setResult(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build());
+            return result;
+        }
+        result.onCompletion(() -> depositStatusWaiters.remove(reference, waiter.get()));
+
+        // Read after registering, so a change committed in between either shows here or wakes the waiter
+        ResponseEntity<DepositStatusResponse> current = getDepositStatus(reference);
+        if (current.getBody() == null || !PENDING.equals(current.getBody().getStatus())) {
+            result.setResult(current);
+            return result;
+        }
+
+        waiter.get().thenAccept(status -> result.setResult(ResponseEntity.ok(status)));
+        // Read again rather than answering with the stale status: another node may have settled it
+        result.onTimeout(() -> result.setResult(getDepositStatus(reference)));
+        return result;
+    }
+
     @GetMapping("/balance")
     @Operation(
             summary = "Get wallet balance",
@@ -174,7 +243,8 @@ public class WalletController {
             Requires JWT authentication or an API key with **read** permission.
             """
     )
-    public ResponseEntity<BalanceResponse> getBalance(Authentication authentication, HttpServletRequest httpRequest) {
+    public ResponseEntity<BalanceResponse> getBalance(Authentication authentication, HttpServletRequest httpRequest,
+                                                      WebRequest webRequest) {
         try {
             ApiKeyEntity apiKey = (ApiKeyEntity) httpRequest.getAttribute("apiKey");
             if (apiKey != null && !apiKeyService.hasPermission(apiKey, "read")) {
@@ -186,13 +256,19 @@ public class WalletController {
             UserEntity user = userDetailsService.getUserByEmail(email);
             WalletEntity wallet = walletService.getWalletByUser(user);
 
+            // Every balance change bumps the wallet's optimistic-locking version
+            String etag = "\"" + wallet.getId() + "." + wallet.getVersion() + "\"";
+            if (webRequest.checkNotModified(etag)) {
+                return notModified();
+            }
+
             BalanceResponse response = BalanceResponse.builder()
                     .balance(wallet.getBalance())
                     .walletNumber(wallet.getWalletNumber())
                     .build();
 
 //            return ApiResponse.success(response);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(response);
         } catch (Exception e) {
             log.error("Error getting balance: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -200,12 +276,63 @@ public class WalletController {
         }
     }
 
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Stream wallet events",
+            description = """
+            Server-Sent Events stream of the authenticated user's wallet, replacing balance and
+            deposit status polling. Starts with a **balance** event holding the current balance,
+            then sends a **balance** event after every committed change and a **deposit** event
+            whenever one of the wallet's deposits changes status. Comment lines keep idle
+            connections open. The stream ends after a while and clients should reconnect.
+            Answers 429 when the user already has the maximum number of open streams.
+            Requires JWT authentication or an API key with **read** permission.
+            """
+    )
+    public ResponseEntity<Flux<ServerSentEvent<Object>>> events(Authentication authentication,
+                                                                HttpServletRequest httpRequest) {
+        ApiKeyEntity apiKey = (ApiKeyEntity) httpRequest.getAttribute("apiKey");
+        if (apiKey != null && !apiKeyService.hasPermission(apiKey, "read")) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        String email = authenticationUtil.extractEmail(authentication);
+        UserEntity user = userDetailsService.getUserByEmail(email);
+        WalletEntity wallet = walletService.getWalletByUser(user);
+        Optional<Flux<WalletEventBus.WalletEvent>> events = walletEventBus.subscribe(wallet.getId());
+        if (events.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+
+        // merge subscribes to the bus before reading the snapshot, so no change falls in between
+        Mono<ServerSentEvent<Object>> snapshot = Mono.fromCallable(() -> {
+            WalletEntity current = walletService.getWalletByUserId(user.getId());
+            return ServerSentEvent.<Object>builder(BalanceResponse.builder()
+                            .balance(current.getBalance())
+                            .walletNumber(current.getWalletNumber())
+                            .build())
+                    .event("balance")
+                    .build();
+        });
+        Flux<ServerSentEvent<Object>> changes = events.get()
+                .map(event -> ServerSentEvent.builder(event.data()).event(event.name()).build());
+        // A client too slow to take a keepalive just misses it rather than failing the stream
+        Flux<ServerSentEvent<Object>> heartbeats = Flux.interval(eventsHeartbeat)
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.builder().comment("keepalive").build());
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(Flux.merge(changes, snapshot, heartbeats).take(eventsMaxDuration));
+    }
+
     @PostMapping("/transfer")
     @Operation(
             summary = "Transfer funds",
             description = """
             Transfers funds from the authenticated user's wallet to another wallet.
             The recipient is identified by their wallet number.
+            Answers 429 with Retry-After when the wallet has reached a transfer limit of its tier.
             Requires JWT authentication or an API key with **transfer** permission.
             """
     )
@@ -225,6 +352,8 @@ public class WalletController {
             TransferResponse response = transactionService.transfer(user, request);
 //            return ApiResponse.success("Transfer completed successfully", response);
             return ResponseEntity.ok(response);
+        } catch (VelocityLimitExceededException e) {
+            return tooManyRequests(e);
         } catch (Exception e) {
             log.error("Error processing transfer: {}", e.getMessage());
 //            return ApiResponse.error(e.getMessage());
@@ -236,14 +365,22 @@ public class WalletController {
     @Operation(
             summary = "Get transaction history",
             description = """
-            Retrieves the complete transaction history for the authenticated user.
-            Returns all deposits, transfers, and other wallet transactions.
+            Retrieves the transaction history for the authenticated user, newest first.
+            Returns deposits, transfers, and other wallet transactions created between **from**
+            and **to** (inclusive ISO dates). **to** defaults to today and **from** to one history
+            window (a year by default) before it.
             Requires JWT authentication or an API key with **read** permission.
             """
     )
     public ResponseEntity<List<TransactionResponse>> getTransactions(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
             Authentication authentication,
-            HttpServletRequest httpRequest) {
+            HttpServletRequest httpRequest,
+            WebRequest webRequest) {
+        if (from != null && to != null && from.isAfter(to)) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
             ApiKeyEntity apiKey = (ApiKeyEntity) httpRequest.getAttribute("apiKey");
             if (apiKey != null && !apiKeyService.hasPermission(apiKey, "read")) {
@@ -253,9 +390,17 @@ public class WalletController {
 
             String email = authenticationUtil.extractEmail(authentication);
             UserEntity user = userDetailsService.getUserByEmail(email);
-            List<TransactionResponse> transactions = transactionService.getTransactionHistory(user);
+
+            // Weak, because Tomcat only compresses responses without a strong ETag and a long
+            // history is worth compressing; If-None-Match compares weakly either way
+            String etag = "W/\"" + transactionService.getTransactionHistoryTag(user, from, to) + "\"";
+            if (webRequest.checkNotModified(etag)) {
+                return notModified();
+            }
+
+            List<TransactionResponse> transactions = transactionService.getTransactionHistory(user, from, to);
 //            return ApiResponse.success(transactions);
-            return ResponseEntity.ok(transactions);
+            return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(transactions);
         } catch (Exception e) {
             log.error("Error getting transactions: {}", e.getMessage());
 //            return ApiResponse.error(e.getMessage());
@@ -263,6 +408,40 @@ public class WalletController {
         }
     }
 
+    @GetMapping("/stats")
+    @Operation(
+            summary = "Get wallet statistics",
+            description = """
+            Inflow, outflow, number of credits and debits, and opening and closing balance for the
+            authenticated user's wallet between **from** and **to** (inclusive ISO dates), in total
+            and for each day the wallet moved. **to** defaults to today and **from** to 30 days
+            before it; ranges are limited to a year.
+            Requires JWT authentication or an API key with **read** permission.
+            """
+    )
+    public ResponseEntity<WalletStatsResponse> getStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Authentication authentication,
+            HttpServletRequest httpRequest) {
+        try {
+            ApiKeyEntity apiKey = (ApiKeyEntity) httpRequest.getAttribute("apiKey");
+            if (apiKey != null && !apiKeyService.hasPermission(apiKey, "read")) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+
+            String email = authenticationUtil.extractEmail(authentication);
+            UserEntity user = userDetailsService.getUserByEmail(email);
+            return ResponseEntity.ok(walletStatsService.getStats(user, from, to));
+        } catch (InvalidRequestException e) {
+            log.error("Error getting wallet stats: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Unexpected error getting wallet stats: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/verify-payment")
     @Operation(
             summary = "Verify Paystack payment after redirect",
@@ -273,54 +452,35 @@ public class WalletController {
             This endpoint is typically called when the user is redirected back from Paystack.
             """
     )
-    public ApiResponse<DepositStatusResponse> verifyPayment(
+    public ResponseEntity<ApiResponse<DepositStatusResponse>> verifyPayment(
             @RequestParam("reference") String reference,
             @RequestParam(value = "trxref", required = false) String trxref
     ) {
         try {
             log.info("Received verify-payment callback: reference={}, trxref={}", reference, trxref);
 
-            // 1. Call Paystack verify API
-            PaystackVerifyResponse verifyResponse = paystackService.verifyTransaction(reference);
-
-            if (verifyResponse == null) {
-                log.error("Paystack verify returned null for reference {}", reference);
-                return ApiResponse.error("Failed to verify payment with Paystack");
-            }
-
-            PaystackVerifyResponse.PaystackVerifyData data = verifyResponse.getData();
-            if (data == null) {
-                log.error("Paystack verify response has no data for reference {}", reference);
-                return ApiResponse.error("Invalid Paystack verify response");
-            }
-
-            String paystackStatus = data.getStatus(); // inner "data.status"
-            log.info("Paystack verify status for {}: {}", reference, paystackStatus);
-
-            if ("success".equalsIgnoreCase(paystackStatus)) {
-                // 2. Convert amount from kobo → Naira
-                BigDecimal amount = BigDecimal
-                        .valueOf(data.getAmount())  // kobo
-                        .divide(new BigDecimal("100"));
-
-                // 3. Update your DB (transaction + wallet)
-                // Make sure this method is idempotent (no double credit)
-                transactionService.processSuccessfulDeposit(reference, amount);
-            } else {
-                log.warn("Payment not successful for reference {}. Paystack status={}", reference, paystackStatus);
-            }
-
-            // 4. Always return the current status from your DB
-            DepositStatusResponse statusResponse = transactionService.getDepositStatus(reference);
-            return ApiResponse.success("Payment status fetched successfully", statusResponse);
+            DepositStatusResponse statusResponse = paymentVerificationService.verifyPayment(reference);
+            return ResponseEntity.ok(ApiResponse.success("Payment status fetched successfully", statusResponse));
 
+        } catch (PaystackUnavailableException e) {
+            throw e;
+        } catch (PaymentVerificationException e) {
+            return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             log.error("Error verifying payment for reference {}: {}", reference, e.getMessage(), e);
-            return ApiResponse.error("An error occurred while verifying payment");
+            return ResponseEntity.ok(ApiResponse.error("An error occurred while verifying payment"));
         }
     }
 
+    // checkNotModified has already set the status and the ETag header
+    private static <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+    }
 
-
-
+    private static <T> ResponseEntity<T> tooManyRequests(VelocityLimitExceededException e) {
+        log.info("Request refused: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+                .build();
+    }
 }
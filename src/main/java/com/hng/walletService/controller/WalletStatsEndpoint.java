@@ -0,0 +1,30 @@
+package com.hng.walletService.controller;
+
+import com.hng.walletService.service.WalletStatsBackfill;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.jmx.annotation.JmxEndpoint;
+import org.springframework.stereotype.Component;
+
+/**
+ * JMX-only control of the wallet stats backfill: start it once after upgrading and follow its
+ * progress. Not exposed over HTTP, where any authenticated wallet user could reach it.
+ */
+@Component
+@RequiredArgsConstructor
+@JmxEndpoint(id = "walletstats")
+public class WalletStatsEndpoint {
+
+    private final WalletStatsBackfill walletStatsBackfill;
+
+    @ReadOperation
+    public WalletStatsBackfill.Progress progress() {
+        return walletStatsBackfill.progress();
+    }
+
+    @WriteOperation
+    public String backfill() {
+        return walletStatsBackfill.start() ? "Backfill started" : "Backfill is already running";
+    }
+}
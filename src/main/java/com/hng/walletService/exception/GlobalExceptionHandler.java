@@ -72,6 +72,13 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
     }
 
+    @ExceptionHandler(PaystackUnavailableException.class)
+    public ResponseEntity<ApiResponse<Void>> handlePaystackUnavailable(PaystackUnavailableException ex) {
+        log.warn("Paystack unavailable: {}", ex.getMessage());
+        ApiResponse<Void> response = ApiResponse.error("Payment provider is temporarily unavailable");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ApiResponse<Void>> handleRuntimeException(RuntimeException ex) {
         log.error("Runtime exception: ", ex);
@@ -0,0 +1,13 @@
+package com.hng.walletService.exception;
+
+/**
+ * Thrown when a request asks for something the service will not do as asked, such as a stats
+ * range longer than allowed or a payout file with no payouts. Controllers map it to 400; any other
+ * failure is a 500.
+ */
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.hng.walletService.exception;
+
+/**
+ * Thrown when Paystack answers a verify call with an empty or unusable body.
+ */
+public class PaymentVerificationException extends RuntimeException {
+
+    public PaymentVerificationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.hng.walletService.exception;
+
+/**
+ * Thrown when a Paystack call is rejected locally because the circuit breaker is open
+ * or the bulkhead has no free slots. Mapped to 503 so callers can retry later.
+ */
+public class PaystackUnavailableException extends RuntimeException {
+
+    public PaystackUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,13 @@
+package com.hng.walletService.exception;
+
+/**
+ * Thrown when a request names something the caller has no access to, either because it does not
+ * exist or because it belongs to someone else, such as another user's payout batch. Controllers
+ * map it to 404.
+ */
+public class ResourceNotFoundException extends RuntimeException {
+
+    public ResourceNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,20 @@
+package com.hng.walletService.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a transfer or deposit would take a wallet over one of its tier's velocity limits.
+ * Mapped to 429 with a {@code Retry-After} of {@link #getRetryAfter()}.
+ */
+@Getter
+public class VelocityLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public VelocityLimitExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
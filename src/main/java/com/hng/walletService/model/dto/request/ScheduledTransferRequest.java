@@ -0,0 +1,45 @@
+package com.hng.walletService.model.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledTransferRequest {
+
+    @NotBlank(message = "Wallet number is required")
+    @Pattern(regexp = "^\\d{13}$", message = "Wallet number must be 13 digits")
+    @JsonProperty("wallet_number")
+    private String walletNumber;
+
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "10.0", message = "Minimum transfer amount is 10")
+    private BigDecimal amount;
+
+    @NotNull(message = "Run time is required")
+    @Future(message = "Run time must be in the future")
+    @JsonProperty("run_at")
+    private LocalDateTime runAt;
+
+    @Pattern(regexp = "^(once|daily|weekly|monthly)$", message = "Frequency must be one of: once, daily, weekly, monthly")
+    @Builder.Default
+    private String frequency = "once";
+
+    // Total number of runs of a recurring transfer; without it the transfer repeats until cancelled
+    @Positive(message = "Occurrences must be positive")
+    private Integer occurrences;
+}
@@ -0,0 +1,32 @@
+package com.hng.walletService.model.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyStatsResponse {
+    private LocalDate date;
+    private BigDecimal inflow;
+    private BigDecimal outflow;
+
+    @JsonProperty("credit_count")
+    private Integer creditCount;
+
+    @JsonProperty("debit_count")
+    private Integer debitCount;
+
+    @JsonProperty("opening_balance")
+    private BigDecimal openingBalance;
+
+    @JsonProperty("closing_balance")
+    private BigDecimal closingBalance;
+}
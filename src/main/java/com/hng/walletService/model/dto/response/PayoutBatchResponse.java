@@ -0,0 +1,51 @@
+package com.hng.walletService.model.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayoutBatchResponse {
+    private Long id;
+    private String status;
+
+    @JsonProperty("file_name")
+    private String fileName;
+
+    @JsonProperty("total_items")
+    private Integer totalItems;
+
+    @JsonProperty("invalid_items")
+    private Integer invalidItems;
+
+    @JsonProperty("pending_items")
+    private Integer pendingItems;
+
+    @JsonProperty("succeeded_items")
+    private Integer succeededItems;
+
+    @JsonProperty("failed_items")
+    private Integer failedItems;
+
+    @JsonProperty("reserved_amount")
+    private BigDecimal reservedAmount;
+
+    @JsonProperty("refunded_amount")
+    private BigDecimal refundedAmount;
+
+    private String error;
+
+    @JsonProperty("created_at")
+    private LocalDateTime createdAt;
+
+    @JsonProperty("completed_at")
+    private LocalDateTime completedAt;
+}
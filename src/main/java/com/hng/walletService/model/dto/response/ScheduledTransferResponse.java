@@ -0,0 +1,34 @@
+package com.hng.walletService.model.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledTransferResponse {
+    private Long id;
+
+    @JsonProperty("wallet_number")
+    private String walletNumber;
+
+    private BigDecimal amount;
+    private String frequency;
+    private String status;
+
+    @JsonProperty("next_run_at")
+    private LocalDateTime nextRunAt;
+
+    private Integer runs;
+    private Integer occurrences;
+
+    @JsonProperty("last_error")
+    private String lastError;
+}
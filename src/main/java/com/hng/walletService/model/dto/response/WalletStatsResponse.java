@@ -0,0 +1,40 @@
+package com.hng.walletService.model.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletStatsResponse {
+    @JsonProperty("wallet_number")
+    private String walletNumber;
+
+    private LocalDate from;
+    private LocalDate to;
+    private BigDecimal inflow;
+    private BigDecimal outflow;
+
+    @JsonProperty("credit_count")
+    private Integer creditCount;
+
+    @JsonProperty("debit_count")
+    private Integer debitCount;
+
+    @JsonProperty("opening_balance")
+    private BigDecimal openingBalance;
+
+    @JsonProperty("closing_balance")
+    private BigDecimal closingBalance;
+
+    // Only days with movements
+    private List<DailyStatsResponse> days;
+}
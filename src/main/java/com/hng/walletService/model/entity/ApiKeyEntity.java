@@ -3,8 +3,11 @@ package com.hng.walletService.model.entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -13,11 +16,11 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "api_keys", indexes = {
-        @Index(name = "idx_key_hash", columnList = "key_hash"),
-        @Index(name = "idx_user_id", columnList = "user_id")
-})
-@Data
+// The user and permissions are lazy; the queries that need them name them in an entity graph
+@Table(name = "api_keys")
+@Getter
+@Setter
+@ToString
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,20 +30,23 @@ public class ApiKeyEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private UserEntity user;
 
     @Column(nullable = false)
     private String name;
 
+    @ToString.Exclude
     @Column(name = "key_hash", nullable = false, unique = true)
     private String keyHash;
 
     @Column(name = "key_prefix", nullable = false)
     private String keyPrefix; // First 8 chars for identification
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    @ToString.Exclude
+    @ElementCollection
     @CollectionTable(name = "api_key_permissions", joinColumns = @JoinColumn(name = "api_key_id"))
     @Column(name = "permission")
     private Set<String> permissions = new HashSet<>();
@@ -72,4 +78,20 @@ public class ApiKeyEntity {
     public boolean isValid() {
         return isActive && !isRevoked && !isExpired();
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Hibernate.getClassLazy(this) != Hibernate.getClassLazy(o)) {
+            return false;
+        }
+        return id != null && id.equals(((ApiKeyEntity) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Hibernate.getClassLazy(this).hashCode();
+    }
 }
@@ -0,0 +1,106 @@
+package com.hng.walletService.model.entity;
+
+import com.hng.walletService.model.enums.PayoutBatchStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A bulk payout file. Its items are only written and read in bulk, over JDBC, and never loaded as
+ * entities; once the batch is created, the pipeline moves it on with conditional updates.
+ */
+@Entity
+// Indexes are created by the Flyway migrations under db/migration
+@Table(name = "payout_batches")
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayoutBatchEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private UserEntity user;
+
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "wallet_id", nullable = false)
+    private WalletEntity wallet;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 10)
+    @Builder.Default
+    private PayoutBatchStatus status = PayoutBatchStatus.RECEIVED;
+
+    @Column(name = "total_items", nullable = false)
+    @Builder.Default
+    private Integer totalItems = 0;
+
+    @Column(name = "invalid_items", nullable = false)
+    @Builder.Default
+    private Integer invalidItems = 0;
+
+    @Column(name = "succeeded_items", nullable = false)
+    @Builder.Default
+    private Integer succeededItems = 0;
+
+    @Column(name = "failed_items", nullable = false)
+    @Builder.Default
+    private Integer failedItems = 0;
+
+    @Column(name = "reserved_amount", precision = 19, scale = 2)
+    private BigDecimal reservedAmount;
+
+    @Column(name = "refunded_amount", precision = 19, scale = 2)
+    private BigDecimal refundedAmount;
+
+    @Column(name = "error", length = 500)
+    private String error;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false, nullable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Hibernate.getClassLazy(this) != Hibernate.getClassLazy(o)) {
+            return false;
+        }
+        return id != null && id.equals(((PayoutBatchEntity) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Hibernate.getClassLazy(this).hashCode();
+    }
+}
@@ -0,0 +1,185 @@
+package com.hng.walletService.model.entity;
+
+import com.hng.walletService.model.enums.ScheduledTransferStatus;
+import com.hng.walletService.model.enums.TransferFrequency;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Entity
+// Indexes are created by the Flyway migrations under db/migration
+@Table(name = "scheduled_transfers")
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledTransferEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private UserEntity user;
+
+    @Column(name = "recipient_wallet_number", nullable = false, length = 13)
+    private String recipientWalletNumber;
+
+    @Column(name = "amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "frequency", nullable = false, length = 10)
+    private TransferFrequency frequency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 10)
+    @Builder.Default
+    private ScheduledTransferStatus status = ScheduledTransferStatus.ACTIVE;
+
+    @Column(name = "first_run_at", nullable = false)
+    private LocalDateTime firstRunAt;
+
+    @Column(name = "next_run_at", nullable = false)
+    private LocalDateTime nextRunAt;
+
+    @Column(name = "attempt_at", nullable = false)
+    private LocalDateTime attemptAt;
+
+    @Column(name = "max_runs")
+    private Integer maxRuns; // null repeats until cancelled
+
+    @Column(name = "runs", nullable = false)
+    @Builder.Default
+    private Integer runs = 0;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "last_reference", length = 100)
+    private String lastReference;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false, nullable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    // Helper methods
+    public boolean isActive() {
+        return this.status == ScheduledTransferStatus.ACTIVE;
+    }
+
+    public boolean isClaimedBy(String token) {
+        return isActive() && token.equals(this.claimToken);
+    }
+
+    public void claim(String token, LocalDateTime until) {
+        this.claimToken = token;
+        this.claimedUntil = until;
+    }
+
+    /**
+     * Records a successful run and moves on to the next occurrence after {@code now}, or completes
+     * the schedule.
+     */
+    public void recordRun(String reference, LocalDateTime now) {
+        this.runs++;
+        this.attempts = 0;
+        this.lastReference = reference;
+        this.lastError = null;
+        advance(now);
+    }
+
+    /**
+     * Records a failed attempt. Until {@code maxAttempts} it is retried at {@code retryAt}; after
+     * that a one-off transfer fails and a recurring one gives up on this occurrence only.
+     */
+    public void recordFailure(String error, LocalDateTime retryAt, int maxAttempts, LocalDateTime now) {
+        this.attempts++;
+        this.lastError = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+        release();
+        if (this.attempts < maxAttempts) {
+            this.attemptAt = retryAt;
+        } else if (this.frequency == TransferFrequency.ONCE) {
+            this.status = ScheduledTransferStatus.FAILED;
+        } else {
+            this.attempts = 0;
+            advance(now);
+        }
+    }
+
+    private void advance(LocalDateTime now) {
+        release();
+        if (this.frequency == TransferFrequency.ONCE || (this.maxRuns != null && this.runs >= this.maxRuns)) {
+            this.status = ScheduledTransferStatus.COMPLETED;
+            return;
+        }
+        this.nextRunAt = nextOccurrenceAfter(now.isAfter(this.nextRunAt) ? now : this.nextRunAt);
+        this.attemptAt = this.nextRunAt;
+    }
+
+    // Counted from the first run, so a monthly transfer on the 31st comes back to the 31st after
+    // shorter months; occurrences missed while nothing was running are skipped, not caught up
+    private LocalDateTime nextOccurrenceAfter(LocalDateTime after) {
+        ChronoUnit unit = this.frequency.getUnit();
+        long occurrence = Math.max(1, unit.between(this.firstRunAt, after));
+        LocalDateTime next = this.firstRunAt.plus(occurrence, unit);
+        while (!next.isAfter(after)) {
+            next = this.firstRunAt.plus(++occurrence, unit);
+        }
+        return next;
+    }
+
+    private void release() {
+        this.claimToken = null;
+        this.claimedUntil = null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Hibernate.getClassLazy(this) != Hibernate.getClassLazy(o)) {
+            return false;
+        }
+        return id != null && id.equals(((ScheduledTransferEntity) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Hibernate.getClassLazy(this).hashCode();
+    }
+}
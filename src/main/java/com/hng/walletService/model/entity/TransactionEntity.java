@@ -5,8 +5,11 @@ import com.hng.walletService.model.enums.TransactionType;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -14,15 +17,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions", indexes = {
-        @Index(name = "idx_transaction_reference", columnList = "reference"),
-        @Index(name = "idx_transaction_wallet_id", columnList = "wallet_id"),
-        @Index(name = "idx_transaction_paystack_ref", columnList = "paystack_reference"),
-        @Index(name = "idx_transaction_status", columnList = "status"),
-        @Index(name = "idx_transaction_type", columnList = "type"),
-        @Index(name = "idx_transaction_created_at", columnList = "created_at")
-})
-@Data
+// Indexes are created by the Flyway migrations under db/migration
+@Table(name = "transactions")
+@Getter
+@Setter
+@ToString
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,6 +31,7 @@ public class TransactionEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "wallet_id", nullable = false)
     private WalletEntity wallet;
@@ -115,4 +115,22 @@ public class TransactionEntity {
         this.previousBalance = previous;
         this.newBalance = newBalance;
     }
+
+    // Identity is the id alone, so equals and hashCode never touch the lazy wallet and the hash
+    // stays put when the entity is saved. Unsaved entities are only equal to themselves.
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Hibernate.getClassLazy(this) != Hibernate.getClassLazy(o)) {
+            return false;
+        }
+        return id != null && id.equals(((TransactionEntity) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Hibernate.getClassLazy(this).hashCode();
+    }
 }
@@ -0,0 +1,9 @@
+package com.hng.walletService.model.enums;
+
+public enum PayoutBatchStatus {
+    RECEIVED,
+    VALIDATED,
+    RESERVED,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,9 @@
+package com.hng.walletService.model.enums;
+
+public enum PayoutItemStatus {
+    PENDING,
+    INVALID,
+    VALID,
+    SUCCESS,
+    FAILED
+}
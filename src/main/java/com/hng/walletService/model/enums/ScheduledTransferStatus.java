@@ -0,0 +1,8 @@
+package com.hng.walletService.model.enums;
+
+public enum ScheduledTransferStatus {
+    ACTIVE,
+    COMPLETED,
+    FAILED,
+    CANCELLED
+}
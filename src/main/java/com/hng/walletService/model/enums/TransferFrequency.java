@@ -0,0 +1,20 @@
+package com.hng.walletService.model.enums;
+
+import java.time.temporal.ChronoUnit;
+
+public enum TransferFrequency {
+    ONCE(null),
+    DAILY(ChronoUnit.DAYS),
+    WEEKLY(ChronoUnit.WEEKS),
+    MONTHLY(ChronoUnit.MONTHS);
+
+    private final ChronoUnit unit;
+
+    TransferFrequency(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public ChronoUnit getUnit() {
+        return unit;
+    }
+}
@@ -0,0 +1,7 @@
+package com.hng.walletService.model.enums;
+
+public enum WalletTier {
+    STANDARD,
+    VERIFIED,
+    BUSINESS
+}
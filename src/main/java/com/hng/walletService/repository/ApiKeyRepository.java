@@ -1,6 +1,7 @@
 package com.hng.walletService.repository;
 
 import com.hng.walletService.model.entity.ApiKeyEntity;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,8 +10,14 @@ import java.util.Optional;
 
 @Repository
 public interface ApiKeyRepository extends JpaRepository<ApiKeyEntity, Long> {
+    // Authentication reads the owner and the permissions of the key, so both come in the same query
+    @EntityGraph(attributePaths = {"user", "permissions"})
     Optional<ApiKeyEntity> findByKeyHash(String keyHash);
+
+    // Listed keys are serialized whole after the transaction has closed
+    @EntityGraph(attributePaths = {"user", "permissions"})
     List<ApiKeyEntity> findByUserIdAndIsActiveTrue(Long userId);
+
     long countByUserIdAndIsActiveTrueAndIsRevokedFalse(Long userId);
     Optional<ApiKeyEntity> findByIdAndUserId(Long id, Long userId);
 }
@@ -0,0 +1,66 @@
+package com.hng.walletService.repository;
+
+import com.hng.walletService.model.entity.PayoutBatchEntity;
+import com.hng.walletService.model.enums.PayoutBatchStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PayoutBatchRepository extends JpaRepository<PayoutBatchEntity, Long> {
+    Optional<PayoutBatchEntity> findByIdAndUserId(Long id, Long userId);
+
+    @Query("SELECT b FROM PayoutBatchEntity b WHERE b.status IN :statuses AND b.updatedAt < :before " +
+            "ORDER BY b.updatedAt ASC")
+    List<PayoutBatchEntity> findStale(@Param("statuses") Collection<PayoutBatchStatus> statuses,
+                                      @Param("before") LocalDateTime before,
+                                      Limit limit);
+
+    // Each stage moves the batch on only from the status it expects, so two runs of the same
+    // batch cannot both apply a stage
+
+    @Modifying
+    @Query("UPDATE PayoutBatchEntity b SET b.status = 'VALIDATED', b.invalidItems = :invalidItems, " +
+            "b.reservedAmount = :reservedAmount, b.updatedAt = :now WHERE b.id = :id AND b.status = 'RECEIVED'")
+    int markValidated(@Param("id") Long id,
+                      @Param("invalidItems") int invalidItems,
+                      @Param("reservedAmount") BigDecimal reservedAmount,
+                      @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE PayoutBatchEntity b SET b.status = 'RESERVED', b.updatedAt = :now " +
+            "WHERE b.id = :id AND b.status = 'VALIDATED'")
+    int markReserved(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE PayoutBatchEntity b SET b.status = 'FAILED', b.failedItems = :failedItems, b.error = :error, " +
+            "b.updatedAt = :now, b.completedAt = :now WHERE b.id = :id AND b.status = 'VALIDATED'")
+    int markFailed(@Param("id") Long id,
+                   @Param("failedItems") int failedItems,
+                   @Param("error") String error,
+                   @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE PayoutBatchEntity b SET b.status = 'COMPLETED', b.succeededItems = :succeededItems, " +
+            "b.failedItems = :failedItems, b.refundedAmount = :refundedAmount, b.updatedAt = :now, " +
+            "b.completedAt = :now WHERE b.id = :id AND b.status = 'RESERVED'")
+    int markCompleted(@Param("id") Long id,
+                      @Param("succeededItems") int succeededItems,
+                      @Param("failedItems") int failedItems,
+                      @Param("refundedAmount") BigDecimal refundedAmount,
+                      @Param("now") LocalDateTime now);
+
+    // Shows the batch is being worked on; a resumer takes over only a batch whose updatedAt it has seen
+    @Modifying
+    @Query("UPDATE PayoutBatchEntity b SET b.updatedAt = :now WHERE b.id = :id AND b.updatedAt = :seen")
+    int touch(@Param("id") Long id, @Param("seen") LocalDateTime seen, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,175 @@
+package com.hng.walletService.repository;
+
+import com.hng.walletService.model.enums.PayoutItemStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The items of a payout batch. A file holds tens of thousands of them, so they are written, moved
+ * between statuses and read back in bulk over JDBC rather than as entities.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PayoutItemRepository {
+
+    private static final String INSERT = """
+            INSERT INTO payout_items (batch_id, line_number, recipient_wallet_number, amount, client_reference,
+                                      status, error)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String REJECT_WALLET = """
+            UPDATE payout_items SET status = 'INVALID', error = ?
+            WHERE batch_id = ? AND status = 'PENDING' AND recipient_wallet_number = ?
+            """;
+
+    private static final String REJECT_UNKNOWN_WALLETS = """
+            UPDATE payout_items SET status = 'INVALID', error = ?
+            WHERE batch_id = ? AND status = 'PENDING'
+              AND NOT EXISTS (SELECT 1 FROM wallets w
+                              WHERE w.wallet_number = payout_items.recipient_wallet_number AND w.is_active = TRUE)
+            """;
+
+    private static final String ACCEPT_PENDING = """
+            UPDATE payout_items SET status = 'VALID' WHERE batch_id = ? AND status = 'PENDING'
+            """;
+
+    private static final String TOTALS = """
+            SELECT status, COUNT(*), COALESCE(SUM(amount), 0) FROM payout_items WHERE batch_id = ? GROUP BY status
+            """;
+
+    // Keyset pagination in (recipient, line) order, which the apply stage relies on
+    private static final String FIND_VALID_AFTER = """
+            SELECT id, line_number, recipient_wallet_number, amount FROM payout_items
+            WHERE batch_id = ? AND status = 'VALID'
+              AND (recipient_wallet_number > ? OR (recipient_wallet_number = ? AND line_number > ?))
+            ORDER BY recipient_wallet_number, line_number
+            FETCH FIRST ? ROWS ONLY
+            """;
+
+    private static final String SETTLE = """
+            UPDATE payout_items SET status = ?, error = ?, transaction_reference = ?
+            WHERE id = ? AND status = 'VALID'
+            """;
+
+    private static final String FAIL_VALID = """
+            UPDATE payout_items SET status = 'FAILED', error = ? WHERE batch_id = ? AND status = 'VALID'
+            """;
+
+    private static final String RESULTS = """
+            SELECT line_number, recipient_wallet_number, amount, client_reference, status, error, transaction_reference
+            FROM payout_items WHERE batch_id = ? ORDER BY line_number
+            """;
+
+    private static final int RESULTS_FETCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(Long batchId, List<NewItem> items) {
+        jdbcTemplate.batchUpdate(INSERT, items, items.size(), (ps, item) -> {
+            ps.setLong(1, batchId);
+            ps.setInt(2, item.lineNumber());
+            ps.setString(3, item.recipientWalletNumber());
+            ps.setBigDecimal(4, item.amount());
+            ps.setString(5, item.clientReference());
+            ps.setString(6, item.status().name());
+            ps.setString(7, item.error());
+        });
+    }
+
+    public int rejectWallet(Long batchId, String walletNumber, String error) {
+        return jdbcTemplate.update(REJECT_WALLET, error, batchId, walletNumber);
+    }
+
+    public int rejectUnknownWallets(Long batchId, String error) {
+        return jdbcTemplate.update(REJECT_UNKNOWN_WALLETS, error, batchId);
+    }
+
+    public int acceptPending(Long batchId) {
+        return jdbcTemplate.update(ACCEPT_PENDING, batchId);
+    }
+
+    public Map<PayoutItemStatus, Totals> totals(Long batchId) {
+        Map<PayoutItemStatus, Totals> totals = new EnumMap<>(PayoutItemStatus.class);
+        jdbcTemplate.query(TOTALS, rs -> {
+            totals.put(PayoutItemStatus.valueOf(rs.getString(1)), new Totals(rs.getInt(2), rs.getBigDecimal(3)));
+        }, batchId);
+        return totals;
+    }
+
+    /**
+     * The next {@code limit} VALID items after the given recipient and line. Start with an empty
+     * wallet number and line 0.
+     */
+    public List<Item> findValidAfter(Long batchId, String walletNumber, int lineNumber, int limit) {
+        return jdbcTemplate.query(FIND_VALID_AFTER,
+                (rs, row) -> new Item(rs.getLong(1), rs.getInt(2), rs.getString(3), rs.getBigDecimal(4)),
+                batchId, walletNumber, walletNumber, lineNumber, limit);
+    }
+
+    /**
+     * Records the outcome of VALID items. Returns how many of them were still VALID, which is less
+     * than {@code outcomes.size()} when another run settled some first.
+     */
+    public int settle(List<Outcome> outcomes) {
+        int settled = 0;
+        for (int[] counts : jdbcTemplate.batchUpdate(SETTLE, outcomes, outcomes.size(), (ps, outcome) -> {
+            ps.setString(1, outcome.status().name());
+            ps.setString(2, outcome.error());
+            ps.setString(3, outcome.transactionReference());
+            ps.setLong(4, outcome.id());
+        })) {
+            for (int count : counts) {
+                settled += count;
+            }
+        }
+        return settled;
+    }
+
+    public int failValid(Long batchId, String error) {
+        return jdbcTemplate.update(FAIL_VALID, error, batchId);
+    }
+
+    /**
+     * Streams every item of the batch in line order. Rows are fetched a few hundred at a time, as
+     * long as the caller holds a transaction (PostgreSQL only uses a cursor outside autocommit).
+     */
+    public void forEachResult(Long batchId, Consumer<Result> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(RESULTS);
+            statement.setFetchSize(RESULTS_FETCH_SIZE);
+            statement.setLong(1, batchId);
+            return statement;
+        }, rs -> {
+            consumer.accept(new Result(rs.getInt(1), rs.getString(2), rs.getBigDecimal(3), rs.getString(4),
+                    PayoutItemStatus.valueOf(rs.getString(5)), rs.getString(6), rs.getString(7)));
+        });
+    }
+
+    public record NewItem(int lineNumber, String recipientWalletNumber, BigDecimal amount, String clientReference,
+                          PayoutItemStatus status, String error) {
+    }
+
+    public record Item(Long id, int lineNumber, String recipientWalletNumber, BigDecimal amount) {
+    }
+
+    public record Outcome(Long id, PayoutItemStatus status, String error, String transactionReference) {
+    }
+
+    public record Totals(int count, BigDecimal amount) {
+
+        public static final Totals NONE = new Totals(0, BigDecimal.ZERO);
+    }
+
+    public record Result(int lineNumber, String recipientWalletNumber, BigDecimal amount, String clientReference,
+                         PayoutItemStatus status, String error, String transactionReference) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.hng.walletService.repository;
+
+import com.hng.walletService.model.entity.ScheduledTransferEntity;
+import com.hng.walletService.model.enums.ScheduledTransferStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ScheduledTransferRepository extends JpaRepository<ScheduledTransferEntity, Long> {
+    List<ScheduledTransferEntity> findByUserIdOrderByCreatedAtDesc(Long userId);
+    long countByUserIdAndStatus(Long userId, ScheduledTransferStatus status);
+
+    // A lock timeout of -2 is SKIP LOCKED: rows another node is claiming right now are passed
+    // over instead of waited for, so concurrent claimers each get a disjoint batch
+    @Query("SELECT s FROM ScheduledTransferEntity s WHERE s.status = :status AND s.attemptAt <= :horizon " +
+            "AND (s.claimedUntil IS NULL OR s.claimedUntil < :now) ORDER BY s.attemptAt ASC, s.id ASC")
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<ScheduledTransferEntity> findDueForUpdate(@Param("status") ScheduledTransferStatus status,
+                                                   @Param("horizon") LocalDateTime horizon,
+                                                   @Param("now") LocalDateTime now,
+                                                   Limit limit);
+
+    @Query("SELECT s FROM ScheduledTransferEntity s WHERE s.id = :id")
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<ScheduledTransferEntity> findByIdForUpdate(@Param("id") Long id);
+}
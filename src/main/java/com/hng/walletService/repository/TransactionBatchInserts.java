@@ -0,0 +1,18 @@
+package com.hng.walletService.repository;
+
+import com.hng.walletService.model.entity.TransactionEntity;
+
+import java.util.List;
+
+/**
+ * Inserts many transactions in JDBC batches. Transaction ids come from an identity column, which
+ * keeps Hibernate from batching its own inserts, so bulk writers such as payouts go through here.
+ */
+public interface TransactionBatchInserts {
+
+    /**
+     * Inserts the transactions in one batch, in the caller's transaction. Ids are not read back
+     * and the entities stay detached; {@code createdAt} and {@code updatedAt} default to now.
+     */
+    void insertAll(List<TransactionEntity> transactions);
+}
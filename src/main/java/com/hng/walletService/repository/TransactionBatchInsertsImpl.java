@@ -0,0 +1,44 @@
+package com.hng.walletService.repository;
+
+import com.hng.walletService.model.entity.TransactionEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+class TransactionBatchInsertsImpl implements TransactionBatchInserts {
+
+    private static final String INSERT = """
+            INSERT INTO transactions (wallet_id, reference, type, amount, status, recipient_wallet_number,
+                                      sender_wallet_number, description, previous_balance, new_balance,
+                                      created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<TransactionEntity> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(INSERT, transactions, transactions.size(), (ps, transaction) -> {
+            ps.setLong(1, transaction.getWallet().getId());
+            ps.setString(2, transaction.getReference());
+            ps.setString(3, transaction.getType().name());
+            ps.setBigDecimal(4, transaction.getAmount());
+            ps.setString(5, transaction.getStatus().name());
+            ps.setString(6, transaction.getRecipientWalletNumber());
+            ps.setString(7, transaction.getSenderWalletNumber());
+            ps.setString(8, transaction.getDescription());
+            ps.setBigDecimal(9, transaction.getPreviousBalance());
+            ps.setBigDecimal(10, transaction.getNewBalance());
+            ps.setObject(11, transaction.getCreatedAt() != null ? transaction.getCreatedAt() : now);
+            ps.setObject(12, transaction.getUpdatedAt() != null ? transaction.getUpdatedAt() : now);
+        });
+    }
+}
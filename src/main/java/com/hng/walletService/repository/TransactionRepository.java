@@ -1,16 +1,80 @@
 package com.hng.walletService.repository;
 
 import com.hng.walletService.model.entity.TransactionEntity;
+import com.hng.walletService.model.enums.TransactionStatus;
+import com.hng.walletService.model.enums.TransactionType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<TransactionEntity, Long> {
+public interface TransactionRepository extends JpaRepository<TransactionEntity, Long>, TransactionBatchInserts {
     Optional<TransactionEntity> findByReference(String reference);
-    List<TransactionEntity> findByWalletIdOrderByCreatedAtDesc(Long walletId);
     boolean existsByReference(String reference);
     Optional<TransactionEntity> findByPaystackReference(String paystackReference);
+    long countByTypeAndStatus(TransactionType type, TransactionStatus status);
+
+    // Bounded on created_at so PostgreSQL only scans the monthly partitions inside the window
+    @Query("SELECT t FROM TransactionEntity t WHERE t.wallet.id = :walletId " +
+            "AND t.createdAt >= :from AND t.createdAt < :to ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionEntity> findHistory(@Param("walletId") Long walletId,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to);
+
+    // What the history ETag is built from; joins through the wallet so a 304 needs no wallet lookup
+    @Query("SELECT COUNT(t) AS count, MAX(t.id) AS latestId, MAX(t.updatedAt) AS lastUpdatedAt " +
+            "FROM TransactionEntity t WHERE t.wallet.user.id = :userId " +
+            "AND t.createdAt >= :from AND t.createdAt < :to")
+    HistoryVersion findHistoryVersion(@Param("userId") Long userId,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to);
+
+    interface HistoryVersion {
+        long getCount();
+        Long getLatestId();
+        LocalDateTime getLastUpdatedAt();
+    }
+
+    // Keyset page over (created_at, id) so a sweep can resume after any row without OFFSET scans.
+    // The cursor is also a plain lower bound on created_at, which lets PostgreSQL prune the
+    // partitions the sweep has already passed.
+    @Query("SELECT t FROM TransactionEntity t WHERE t.type = :type AND t.status = :status " +
+            "AND t.createdAt < :cutoff AND t.createdAt >= :afterCreatedAt " +
+            "AND (t.createdAt > :afterCreatedAt OR t.id > :afterId) " +
+            "ORDER BY t.createdAt ASC, t.id ASC")
+    List<TransactionEntity> findStalePage(@Param("type") TransactionType type,
+                                          @Param("status") TransactionStatus status,
+                                          @Param("cutoff") LocalDateTime cutoff,
+                                          @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                          @Param("afterId") Long afterId,
+                                          Pageable pageable);
+
+    // Only moves rows that are still PENDING, so a concurrent webhook or a rerun is never overwritten
+    @Transactional
+    @Modifying
+    @Query("UPDATE TransactionEntity t SET t.status = :status, t.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE t.id = :id AND t.status = com.hng.walletService.model.enums.TransactionStatus.PENDING")
+    int updateStatusIfPending(@Param("id") Long id, @Param("status") TransactionStatus status);
+
+    @Query("SELECT t.id FROM TransactionEntity t WHERE t.type = :type AND t.status = :status " +
+            "AND t.createdAt < :cutoff ORDER BY t.createdAt ASC")
+    List<Long> findIdsCreatedBefore(@Param("type") TransactionType type,
+                                    @Param("status") TransactionStatus status,
+                                    @Param("cutoff") LocalDateTime cutoff,
+                                    Pageable pageable);
+
+    // Set-based variant of updateStatusIfPending for sweeping a whole chunk in one statement
+    @Transactional
+    @Modifying
+    @Query("UPDATE TransactionEntity t SET t.status = :status, t.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE t.id IN :ids AND t.status = com.hng.walletService.model.enums.TransactionStatus.PENDING")
+    int updateStatusIfPending(@Param("ids") List<Long> ids, @Param("status") TransactionStatus status);
 }
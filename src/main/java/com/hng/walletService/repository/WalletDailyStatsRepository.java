@@ -0,0 +1,141 @@
+package com.hng.walletService.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Daily wallet totals in {@code wallet_daily_stats}. Movements are added with an update of the
+ * existing rows followed by an insert of the missing ones, each in one JDBC batch; callers make
+ * sure nothing else writes the same (wallet, day) concurrently.
+ */
+@Repository
+@RequiredArgsConstructor
+public class WalletDailyStatsRepository {
+
+    private static final String ADD = """
+            UPDATE wallet_daily_stats
+            SET inflow = inflow + ?, outflow = outflow + ?, credit_count = credit_count + ?,
+                debit_count = debit_count + ?, closing_balance = ?
+            WHERE wallet_id = ? AND stats_date = ?
+            """;
+
+    private static final String INSERT = """
+            INSERT INTO wallet_daily_stats (inflow, outflow, credit_count, debit_count, opening_balance,
+                                            closing_balance, wallet_id, stats_date)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String FIND_RANGE = """
+            SELECT stats_date, inflow, outflow, credit_count, debit_count, opening_balance, closing_balance
+            FROM wallet_daily_stats WHERE wallet_id = ? AND stats_date BETWEEN ? AND ?
+            ORDER BY stats_date
+            """;
+
+    private static final String FIND_LAST_BEFORE = """
+            SELECT stats_date, inflow, outflow, credit_count, debit_count, opening_balance, closing_balance
+            FROM wallet_daily_stats WHERE wallet_id = ? AND stats_date < ?
+            ORDER BY stats_date DESC
+            FETCH FIRST 1 ROW ONLY
+            """;
+
+    private static final String FIND_FIRST_AFTER = """
+            SELECT stats_date, inflow, outflow, credit_count, debit_count, opening_balance, closing_balance
+            FROM wallet_daily_stats WHERE wallet_id = ? AND stats_date > ?
+            ORDER BY stats_date
+            FETCH FIRST 1 ROW ONLY
+            """;
+
+    private static final RowMapper<DailyStats> DAILY_STATS = (rs, row) -> new DailyStats(
+            rs.getDate(1).toLocalDate(), rs.getBigDecimal(2), rs.getBigDecimal(3), rs.getInt(4), rs.getInt(5),
+            rs.getBigDecimal(6), rs.getBigDecimal(7));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds the movements to each wallet's day, starting the day at the delta's opening balance
+     * when it has no row yet.
+     */
+    public void addAll(List<Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Delta> missing = missing(deltas, jdbcTemplate.batchUpdate(ADD, deltas, deltas.size(), (ps, delta) -> {
+            ps.setBigDecimal(1, delta.inflow());
+            ps.setBigDecimal(2, delta.outflow());
+            ps.setInt(3, delta.creditCount());
+            ps.setInt(4, delta.debitCount());
+            ps.setBigDecimal(5, delta.closingBalance());
+            ps.setLong(6, delta.walletId());
+            ps.setDate(7, Date.valueOf(delta.date()));
+        }));
+        insert(missing.stream().map(Delta::asDailyStats).toList(), missing.stream().map(Delta::walletId).toList());
+    }
+
+    /**
+     * Inserts the wallet's days, none of which may have a row yet.
+     */
+    public void insertAll(Long walletId, List<DailyStats> days) {
+        insert(days, days.stream().map(day -> walletId).toList());
+    }
+
+    public List<DailyStats> findRange(Long walletId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(FIND_RANGE, DAILY_STATS, walletId, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    public Optional<DailyStats> findLastBefore(Long walletId, LocalDate date) {
+        return jdbcTemplate.query(FIND_LAST_BEFORE, DAILY_STATS, walletId, Date.valueOf(date)).stream().findFirst();
+    }
+
+    public Optional<DailyStats> findFirstAfter(Long walletId, LocalDate date) {
+        return jdbcTemplate.query(FIND_FIRST_AFTER, DAILY_STATS, walletId, Date.valueOf(date)).stream().findFirst();
+    }
+
+    private void insert(List<DailyStats> days, List<Long> walletIds) {
+        if (days.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(days.size());
+        for (int i = 0; i < days.size(); i++) {
+            DailyStats day = days.get(i);
+            rows.add(new Object[]{day.inflow(), day.outflow(), day.creditCount(), day.debitCount(),
+                    day.openingBalance(), day.closingBalance(), walletIds.get(i), Date.valueOf(day.date())});
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows);
+    }
+
+    // The items whose update found no row
+    private static <T> List<T> missing(List<T> items, int[][] counts) {
+        List<T> missing = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0) {
+                    missing.add(items.get(index));
+                }
+                index++;
+            }
+        }
+        return missing;
+    }
+
+    public record DailyStats(LocalDate date, BigDecimal inflow, BigDecimal outflow, int creditCount, int debitCount,
+                             BigDecimal openingBalance, BigDecimal closingBalance) {
+    }
+
+    public record Delta(Long walletId, LocalDate date, BigDecimal inflow, BigDecimal outflow, int creditCount,
+                        int debitCount, BigDecimal openingBalance, BigDecimal closingBalance) {
+
+        DailyStats asDailyStats() {
+            return new DailyStats(date, inflow, outflow, creditCount, debitCount, openingBalance, closingBalance);
+        }
+    }
+}
@@ -8,6 +8,8 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -15,6 +17,7 @@ public interface WalletRepository extends JpaRepository<WalletEntity, Long> {
     Optional<WalletEntity> findByUserId(Long userId);
     Optional<WalletEntity> findByWalletNumber(String walletNumber);
     boolean existsByWalletNumber(String walletNumber);
+    List<WalletEntity> findByWalletNumberIn(Collection<String> walletNumbers);
 
 //    @Lock(LockModeType.PESSIMISTIC_WRITE)
 //    Optional<WalletEntity> findByIdForUpdate(Long id);
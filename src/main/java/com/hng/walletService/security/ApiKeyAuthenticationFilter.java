@@ -3,6 +3,8 @@ package com.hng.walletService.security;
 
 import com.hng.walletService.model.entity.ApiKeyEntity;
 import com.hng.walletService.service.ApiKeyService;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -25,6 +27,7 @@ import java.util.Collections;
 public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
 
     private final ApiKeyService apiKeyService;
+    private final ObservationRegistry observationRegistry;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -39,7 +42,11 @@ public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        try {
+        Observation observation = Observation.createNotStarted("wallet.security.filter", observationRegistry)
+                .contextualName("api-key-authentication")
+                .lowCardinalityKeyValue("filter", "api-key")
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
             // Validate API key
             ApiKeyEntity apiKey = apiKeyService.validateApiKey(apiKeyHeader);
 
@@ -61,7 +68,10 @@ public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
                 log.debug("API key authentication successful for user: {}", apiKey.getUser().getEmail());
             }
         } catch (Exception e) {
+            observation.error(e);
             log.error("API Key validation failed: {}", e.getMessage());
+        } finally {
+            observation.stop();
         }
 
         filterChain.doFilter(request, response);
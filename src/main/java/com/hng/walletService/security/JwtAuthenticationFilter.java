@@ -2,6 +2,9 @@ package com.hng.walletService.security;
 
 import com.hng.walletService.service.CustomUserDetailsService;
 import com.hng.walletService.util.JwtUtil;
+import com.hng.walletService.util.WalletMetrics;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -24,6 +27,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final WalletMetrics walletMetrics;
+    private final ObservationRegistry observationRegistry;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -48,12 +53,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         // Extract JWT token
         jwt = authHeader.substring(7);
-        log.info("JWT TOKEN: {}", jwt);
 
-        try {
+        long start = System.nanoTime();
+        String outcome = "rejected";
+        Observation observation = Observation.createNotStarted("wallet.security.filter", observationRegistry)
+                .contextualName("jwt-authentication")
+                .lowCardinalityKeyValue("filter", "jwt")
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
             // Extract email from token
             userEmail = jwtUtil.extractEmail(jwt);
-            log.info("Email: " + userEmail);
+            log.debug("JWT subject: {}", userEmail);
 
             // If email is present and user is not already authenticated
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
@@ -71,10 +81,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     SecurityContextHolder.getContext().setAuthentication(authToken);
 
                     log.debug("JWT authentication successful for user: {}", userEmail);
+                    outcome = WalletMetrics.SUCCESS;
                 }
             }
         } catch (Exception e) {
+            outcome = WalletMetrics.FAILURE;
+            observation.error(e);
             log.error("Cannot set user authentication: {}", e.getMessage());
+        } finally {
+            walletMetrics.record("wallet.auth.jwt", outcome, System.nanoTime() - start);
+            observation.lowCardinalityKeyValue("outcome", outcome).stop();
         }
 
         filterChain.doFilter(request, response);
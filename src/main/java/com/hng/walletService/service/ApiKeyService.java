@@ -7,6 +7,8 @@ import com.hng.walletService.model.entity.ApiKeyEntity;
 import com.hng.walletService.model.entity.UserEntity;
 import com.hng.walletService.model.enums.Permission;
 import com.hng.walletService.repository.ApiKeyRepository;
+import com.hng.walletService.util.WalletMetrics;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -25,12 +27,16 @@ import java.util.stream.Collectors;
 
 @Slf4j
 @Service
+@Observed
 @RequiredArgsConstructor
 public class ApiKeyService {
 
     private final ApiKeyRepository apiKeyRepository;
+    private final WalletMetrics walletMetrics;
     private static final int MAX_ACTIVE_KEYS = 5;
-    private static final SecureRandom secureRandom = new SecureRandom();
+    // The default NativePRNG reads /dev/urandom while holding a global lock, which pins the carrier
+    // of a virtual thread; DRBG only goes to the OS when it reseeds
+    private static final SecureRandom secureRandom = drbg();
 
     @Transactional
     public ApiKeyResponse createApiKey(UserEntity user, CreateApiKeyRequest request) {
@@ -134,7 +140,14 @@ public class ApiKeyService {
                 .build();
     }
 
+    // One transaction, so the last-used stamp is a dirty-checked update of the loaded key rather than
+    // a merge that selects it again
+    @Transactional
     public ApiKeyEntity validateApiKey(String apiKey) {
+        return walletMetrics.time("wallet.apikey.validate", () -> doValidateApiKey(apiKey));
+    }
+
+    private ApiKeyEntity doValidateApiKey(String apiKey) {
         String keyHash = hashApiKey(apiKey);
 
         ApiKeyEntity apiKeyEntity = apiKeyRepository.findByKeyHash(keyHash)
@@ -146,7 +159,6 @@ public class ApiKeyService {
 
         // Update last used timestamp
         apiKeyEntity.setLastUsedAt(LocalDateTime.now());
-        apiKeyRepository.save(apiKeyEntity);
 
         return apiKeyEntity;
     }
@@ -155,6 +167,7 @@ public class ApiKeyService {
         return apiKey.getPermissions().contains(permission);
     }
 
+    @Transactional(readOnly = true)
     public List<ApiKeyEntity> getUserApiKeys(UserEntity user) {
         return apiKeyRepository.findByUserIdAndIsActiveTrue(user.getId());
     }
@@ -181,6 +194,14 @@ public class ApiKeyService {
         return "sk_live_" + Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
     }
 
+    private static SecureRandom drbg() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+
     private String hashApiKey(String apiKey) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
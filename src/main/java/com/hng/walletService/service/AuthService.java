@@ -4,6 +4,7 @@ import com.hng.walletService.model.dto.response.JwtResponse;
 import com.hng.walletService.model.entity.UserEntity;
 import com.hng.walletService.repository.UserRepository;
 import com.hng.walletService.util.JwtUtil;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.oauth2.core.user.OAuth2User;
@@ -12,6 +13,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 @Slf4j
 @Service
+@Observed
 @RequiredArgsConstructor
 public class AuthService {
 
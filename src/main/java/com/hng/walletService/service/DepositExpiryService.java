@@ -0,0 +1,120 @@
+package com.hng.walletService.service;
+
+import com.hng.walletService.config.ConnectionPool;
+import com.hng.walletService.config.UseConnectionPool;
+import com.hng.walletService.model.enums.TransactionStatus;
+import com.hng.walletService.model.enums.TransactionType;
+import com.hng.walletService.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves deposits that have sat in PENDING past {@code deposit.reconciliation.abandon-after} to ABANDONED.
+ * <p>
+ * It shares that window with {@link DepositReconciliationService}, so the sweep only picks up deposits
+ * reconciliation would itself give up on, and it still expires them when reconciliation is disabled.
+ * <p>
+ * Each chunk of ids is flipped with one {@code UPDATE ... WHERE id IN (...) AND status = 'PENDING'}
+ * in its own short transaction, so the sweep never holds row locks across chunks and never
+ * overwrites a deposit a webhook settled in the meantime. A late successful webhook for an
+ * abandoned reference still credits the wallet through
+ * {@link TransactionService#processSuccessfulDeposit}.
+ */
+@Slf4j
+@Service
+@UseConnectionPool(ConnectionPool.JOBS)
+public class DepositExpiryService {
+
+    private final TransactionRepository transactionRepository;
+    private final Counter sweptRows;
+    private final DistributionSummary rowsPerRun;
+    private final Timer runTimer;
+
+    @Value("${deposit.expiry.enabled:true}")
+    private boolean enabled;
+
+    @Value("${deposit.reconciliation.abandon-after:24h}")
+    private Duration abandonAfter = Duration.ofHours(24);
+
+    @Value("${deposit.expiry.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${deposit.expiry.max-chunks-per-run:200}")
+    private int maxChunksPerRun = 200;
+
+    public DepositExpiryService(TransactionRepository transactionRepository, MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        this.sweptRows = Counter.builder("wallet.deposits.expired")
+                .description("Pending deposits moved to ABANDONED by the expiry sweep")
+                .register(meterRegistry);
+        this.rowsPerRun = DistributionSummary.builder("wallet.deposits.expiry.run.rows")
+                .description("Rows swept per expiry run")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("wallet.deposits.expiry.run")
+                .description("Duration of an expiry sweep")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${deposit.expiry.interval:PT10M}",
+            fixedDelayString = "${deposit.expiry.interval:PT10M}")
+    public void scheduledExpiry() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            expireStaleDeposits();
+        } catch (Exception e) {
+            log.error("Deposit expiry run failed: {}", e.getMessage(), e);
+        }
+    }
+
+    public int expireStaleDeposits() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(abandonAfter);
+        Timer.Sample sample = Timer.start();
+        int total = 0;
+
+        try {
+            for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+                List<Long> ids = transactionRepository.findIdsCreatedBefore(
+                        TransactionType.DEPOSIT,
+                        TransactionStatus.PENDING,
+                        cutoff,
+                        PageRequest.of(0, chunkSize)
+                );
+
+                if (ids.isEmpty()) {
+                    break;
+                }
+
+                int updated = transactionRepository.updateStatusIfPending(ids, TransactionStatus.ABANDONED);
+                sweptRows.increment(updated);
+                total += updated;
+
+                if (ids.size() < chunkSize) {
+                    break;
+                }
+            }
+        } finally {
+            long nanos = sample.stop(runTimer);
+            rowsPerRun.record(total);
+            if (total > 0) {
+                log.info("Expired {} pending deposits older than {} in {} ms",
+                        total, cutoff, Duration.ofNanos(nanos).toMillis());
+            }
+        }
+
+        return total;
+    }
+}
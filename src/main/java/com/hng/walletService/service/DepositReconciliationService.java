@@ -0,0 +1,209 @@
+package com.hng.walletService.service;
+
+import com.hng.walletService.config.ConnectionPool;
+import com.hng.walletService.config.ConnectionPoolRoutingDataSource;
+import com.hng.walletService.config.UseConnectionPool;
+import com.hng.walletService.exception.PaystackUnavailableException;
+import com.hng.walletService.model.dto.paystack.PaystackVerifyResponse;
+import com.hng.walletService.model.entity.TransactionEntity;
+import com.hng.walletService.model.enums.TransactionStatus;
+import com.hng.walletService.model.enums.TransactionType;
+import com.hng.walletService.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Settles deposits whose Paystack webhook never arrived.
+ * <p>
+ * Stale PENDING deposits are paged by (created_at, id) and verified against Paystack on virtual
+ * threads, with a semaphore capping the number of in-flight calls. All state lives in the
+ * transactions table: successful deposits go through the idempotent
+ * {@link TransactionService#processSuccessfulDeposit} and terminal failures use a conditional
+ * update, so a sweep interrupted by a restart simply picks up the rows that are still PENDING.
+ * The whole run, settlements included, uses the jobs connection pool.
+ */
+@Slf4j
+@Service
+@UseConnectionPool(ConnectionPool.JOBS)
+@RequiredArgsConstructor
+public class DepositReconciliationService {
+
+    private static final LocalDateTime START_CURSOR = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionService transactionService;
+    private final PaystackService paystackService;
+
+    @Value("${deposit.reconciliation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${deposit.reconciliation.stale-after:15m}")
+    private Duration staleAfter;
+
+    @Value("${deposit.reconciliation.abandon-after:24h}")
+    private Duration abandonAfter;
+
+    @Value("${deposit.reconciliation.page-size:200}")
+    private int pageSize;
+
+    @Value("${deposit.reconciliation.max-concurrency:8}")
+    private int maxConcurrency;
+
+    @Scheduled(initialDelayString = "${deposit.reconciliation.interval:PT5M}",
+            fixedDelayString = "${deposit.reconciliation.interval:PT5M}")
+    public void scheduledReconciliation() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            reconcilePendingDeposits();
+        } catch (Exception e) {
+            log.error("Deposit reconciliation run failed: {}", e.getMessage(), e);
+        }
+    }
+
+    public ReconciliationResult reconcilePendingDeposits() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minus(staleAfter);
+        LocalDateTime abandonCutoff = now.minus(abandonAfter);
+
+        Counters counters = new Counters();
+        Semaphore permits = new Semaphore(maxConcurrency);
+
+        LocalDateTime afterCreatedAt = START_CURSOR;
+        Long afterId = 0L;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (!counters.paystackUnavailable) {
+                List<TransactionEntity> page = transactionRepository.findStalePage(
+                        TransactionType.DEPOSIT,
+                        TransactionStatus.PENDING,
+                        cutoff,
+                        afterCreatedAt,
+                        afterId,
+                        PageRequest.of(0, pageSize)
+                );
+
+                if (page.isEmpty()) {
+                    break;
+                }
+
+                for (TransactionEntity transaction : page) {
+                    permits.acquireUninterruptibly();
+                    if (counters.paystackUnavailable) {
+                        permits.release();
+                        break;
+                    }
+                    executor.submit(ConnectionPoolRoutingDataSource.onSelectedPool(() -> {
+                        try {
+                            reconcile(transaction, abandonCutoff, counters);
+                        } finally {
+                            permits.release();
+                        }
+                    }));
+                }
+
+                TransactionEntity last = page.get(page.size() - 1);
+                afterCreatedAt = last.getCreatedAt();
+                afterId = last.getId();
+
+                if (page.size() < pageSize) {
+                    break;
+                }
+            }
+        }
+
+        if (counters.paystackUnavailable) {
+            log.warn("Deposit reconciliation stopped early, Paystack is unavailable");
+        }
+
+        ReconciliationResult result = counters.toResult();
+        log.info("Deposit reconciliation finished: {}", result);
+        return result;
+    }
+
+    private void reconcile(TransactionEntity transaction, LocalDateTime abandonCutoff, Counters counters) {
+        String reference = transaction.getPaystackReference() != null
+                ? transaction.getPaystackReference()
+                : transaction.getReference();
+        counters.scanned.incrementAndGet();
+
+        try {
+            PaystackVerifyResponse response = paystackService.verifyTransaction(reference);
+            PaystackVerifyResponse.PaystackVerifyData data = response != null ? response.getData() : null;
+
+            if (data == null || data.getStatus() == null) {
+                log.warn("Paystack verify returned no data for reference {}", reference);
+                counters.errors.incrementAndGet();
+                return;
+            }
+
+            switch (data.getStatus().toLowerCase()) {
+                case "success" -> {
+                    BigDecimal amount = BigDecimal.valueOf(data.getAmount(), 2);
+                    transactionService.processSuccessfulDeposit(reference, amount);
+                    counters.succeeded.incrementAndGet();
+                }
+                case "failed", "reversed" -> {
+                    if (transactionRepository.updateStatusIfPending(transaction.getId(), TransactionStatus.FAILED) > 0) {
+                        transaction.setStatus(TransactionStatus.FAILED);
+                        transactionService.publishDepositStatus(transaction);
+                        counters.failed.incrementAndGet();
+                    }
+                }
+                case "abandoned" -> {
+                    // Paystack reports unfinished checkouts as abandoned, so only give up once the window has passed
+                    if (transaction.getCreatedAt().isBefore(abandonCutoff)
+                            && transactionRepository.updateStatusIfPending(transaction.getId(), TransactionStatus.ABANDONED) > 0) {
+                        transaction.setStatus(TransactionStatus.ABANDONED);
+                        transactionService.publishDepositStatus(transaction);
+                        counters.abandoned.incrementAndGet();
+                    } else {
+                        counters.stillPending.incrementAndGet();
+                    }
+                }
+                default -> counters.stillPending.incrementAndGet();
+            }
+        } catch (PaystackUnavailableException e) {
+            // No point hammering an open circuit; the remaining rows stay PENDING for the next run
+            counters.paystackUnavailable = true;
+            counters.errors.incrementAndGet();
+        } catch (Exception e) {
+            log.error("Error reconciling deposit {}: {}", reference, e.getMessage());
+            counters.errors.incrementAndGet();
+        }
+    }
+
+    public record ReconciliationResult(int scanned, int succeeded, int failed, int abandoned,
+                                       int stillPending, int errors) {
+    }
+
+    private static class Counters {
+        private final AtomicInteger scanned = new AtomicInteger();
+        private final AtomicInteger succeeded = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger abandoned = new AtomicInteger();
+        private final AtomicInteger stillPending = new AtomicInteger();
+        private final AtomicInteger errors = new AtomicInteger();
+        private volatile boolean paystackUnavailable;
+
+        private ReconciliationResult toResult() {
+            return new ReconciliationResult(scanned.get(), succeeded.get(), failed.get(),
+                    abandoned.get(), stillPending.get(), errors.get());
+        }
+    }
+}
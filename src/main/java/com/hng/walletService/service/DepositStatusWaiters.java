@@ -0,0 +1,82 @@
+package com.hng.walletService.service;
+
+import com.hng.walletService.model.dto.response.DepositStatusResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Requests long-polling {@code /wallet/deposit/{reference}/status}, keyed by deposit reference.
+ * <p>
+ * A waiter is completed with the deposit's new status when this node commits a change to it: the
+ * {@code deposit} {@link WalletEventBus.WalletEvent} that {@link TransactionService} publishes is
+ * delivered here after commit as well. A change committed on another node wakes no one; those
+ * waiters find it when their wait times out and the status is read again.
+ */
+@Service
+public class DepositStatusWaiters {
+
+    private final Map<String, Set<CompletableFuture<DepositStatusResponse>>> waiters = new ConcurrentHashMap<>();
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Value("${wallet.deposit.status.max-waiters:1000}")
+    private int maxWaiters = 1000;
+
+    public DepositStatusWaiters(MeterRegistry meterRegistry) {
+        Gauge.builder("wallet.deposit.status.waiters", count, AtomicInteger::get)
+                .description("Requests on this node waiting for a deposit to leave pending")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registers a waiter for {@code reference}, or returns empty if this node already holds the
+     * maximum number. The caller must read the current status after registering, so a change
+     * committed in between is not missed, and must {@link #remove} the waiter when done with it.
+     */
+    public Optional<CompletableFuture<DepositStatusResponse>> register(String reference) {
+        if (count.incrementAndGet() > maxWaiters) {
+            count.decrementAndGet();
+            return Optional.empty();
+        }
+        CompletableFuture<DepositStatusResponse> waiter = new CompletableFuture<>();
+        // Added inside compute, so a concurrent remove cannot drop the set it goes into
+        waiters.compute(reference, (ref, set) -> {
+            Set<CompletableFuture<DepositStatusResponse>> current = set != null ? set : ConcurrentHashMap.newKeySet();
+            current.add(waiter);
+            return current;
+        });
+        return Optional.of(waiter);
+    }
+
+    public void remove(String reference, CompletableFuture<DepositStatusResponse> waiter) {
+        boolean[] removed = {false};
+        waiters.computeIfPresent(reference, (ref, set) -> {
+            removed[0] = set.remove(waiter);
+            return set.isEmpty() ? null : set;
+        });
+        if (removed[0]) {
+            count.decrementAndGet();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWalletEvent(WalletEventBus.WalletEvent event) {
+        if (!(event.data() instanceof DepositStatusResponse status)) {
+            return;
+        }
+        Set<CompletableFuture<DepositStatusResponse>> woken = waiters.remove(status.getReference());
+        if (woken != null) {
+            count.addAndGet(-woken.size());
+            woken.forEach(waiter -> waiter.complete(status));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.hng.walletService.service;
+
+import com.hng.walletService.exception.PaymentVerificationException;
+import com.hng.walletService.model.dto.paystack.PaystackVerifyResponse;
+import com.hng.walletService.model.dto.response.DepositStatusResponse;
+import com.hng.walletService.model.enums.TransactionStatus;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verifies a deposit with Paystack after the checkout redirect.
+ * <p>
+ * Redirects, refreshes and client retries tend to arrive for the same reference at once, so
+ * concurrent calls for a reference share one in-flight verification. Once a deposit reaches a
+ * terminal status the result is kept for a short TTL and served without another Paystack call
+ * or database write.
+ */
+@Slf4j
+@Service
+@Observed
+@RequiredArgsConstructor
+public class PaymentVerificationService {
+
+    private static final int MAX_CACHED_RESULTS = 10_000;
+
+    private final PaystackService paystackService;
+    private final TransactionService transactionService;
+
+    @Value("${payment.verification.result-ttl:10s}")
+    private Duration resultTtl = Duration.ofSeconds(10);
+
+    private final Map<String, CompletableFuture<DepositStatusResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, CachedResult> terminalResults = new ConcurrentHashMap<>();
+
+    public DepositStatusResponse verifyPayment(String reference) {
+        DepositStatusResponse cached = cachedResult(reference);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<DepositStatusResponse> leader = new CompletableFuture<>();
+        CompletableFuture<DepositStatusResponse> existing = inFlight.putIfAbsent(reference, leader);
+        if (existing != null) {
+            log.debug("Joining in-flight verification for reference {}", reference);
+            return await(existing);
+        }
+
+        try {
+            // A previous leader may have cached its result and left between our lookup and putIfAbsent
+            DepositStatusResponse response = cachedResult(reference);
+            if (response == null) {
+                response = verifyWithPaystack(reference);
+                if (isTerminal(response)) {
+                    cacheTerminalResult(reference, response);
+                }
+            }
+            leader.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            leader.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(reference, leader);
+        }
+    }
+
+    private DepositStatusResponse verifyWithPaystack(String reference) {
+        PaystackVerifyResponse verifyResponse = paystackService.verifyTransaction(reference);
+
+        if (verifyResponse == null) {
+            log.error("Paystack verify returned null for reference {}", reference);
+            throw new PaymentVerificationException("Failed to verify payment with Paystack");
+        }
+
+        PaystackVerifyResponse.PaystackVerifyData data = verifyResponse.getData();
+        if (data == null) {
+            log.error("Paystack verify response has no data for reference {}", reference);
+            throw new PaymentVerificationException("Invalid Paystack verify response");
+        }
+
+        String paystackStatus = data.getStatus();
+        log.info("Paystack verify status for {}: {}", reference, paystackStatus);
+
+        if ("success".equalsIgnoreCase(paystackStatus)) {
+            // Paystack amounts are in kobo; processSuccessfulDeposit is idempotent
+            BigDecimal amount = BigDecimal.valueOf(data.getAmount(), 2);
+            transactionService.processSuccessfulDeposit(reference, amount);
+        } else {
+            log.warn("Payment not successful for reference {}. Paystack status={}", reference, paystackStatus);
+        }
+
+        // Always return the current status from the database
+        return transactionService.getDepositStatus(reference);
+    }
+
+    private DepositStatusResponse cachedResult(String reference) {
+        CachedResult cached = terminalResults.get(reference);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.isExpired(System.nanoTime())) {
+            terminalResults.remove(reference, cached);
+            return null;
+        }
+        return cached.response();
+    }
+
+    private void cacheTerminalResult(String reference, DepositStatusResponse response) {
+        long now = System.nanoTime();
+        if (terminalResults.size() >= MAX_CACHED_RESULTS) {
+            terminalResults.values().removeIf(result -> result.isExpired(now));
+        }
+        terminalResults.put(reference, new CachedResult(response, now + resultTtl.toNanos()));
+    }
+
+    private static boolean isTerminal(DepositStatusResponse response) {
+        return response != null
+                && !TransactionStatus.PENDING.name().equalsIgnoreCase(response.getStatus());
+    }
+
+    private static DepositStatusResponse await(CompletableFuture<DepositStatusResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record CachedResult(DepositStatusResponse response, long expiresAtNanos) {
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,481 @@
+package com.hng.walletService.service;
+
+import com.hng.walletService.config.ConnectionPool;
+import com.hng.walletService.config.ConnectionPoolRoutingDataSource;
+import com.hng.walletService.config.UseConnectionPool;
+import com.hng.walletService.model.entity.PayoutBatchEntity;
+import com.hng.walletService.model.entity.TransactionEntity;
+import com.hng.walletService.model.entity.WalletEntity;
+import com.hng.walletService.model.enums.PayoutBatchStatus;
+import com.hng.walletService.model.enums.PayoutItemStatus;
+import com.hng.walletService.model.enums.TransactionStatus;
+import com.hng.walletService.model.enums.TransactionType;
+import com.hng.walletService.repository.PayoutBatchRepository;
+import com.hng.walletService.repository.PayoutItemRepository;
+import com.hng.walletService.repository.PayoutItemRepository.Item;
+import com.hng.walletService.repository.PayoutItemRepository.Outcome;
+import com.hng.walletService.repository.PayoutItemRepository.Totals;
+import com.hng.walletService.repository.TransactionRepository;
+import com.hng.walletService.repository.WalletRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Pays out the batches {@link PayoutService} takes in, in stages:
+ * <ol>
+ *     <li><b>validate</b>: a few set-based updates reject items paying the merchant's own wallet or
+ *     a wallet that does not exist or is inactive, and total the rest;</li>
+ *     <li><b>reserve</b>: the total is debited from the merchant's wallet at once through
+ *     {@link WalletService#debitWallet}, so the one wallet every item draws on is locked once
+ *     instead of once per item. Each item counts as a transfer against the wallet's
+ *     {@link VelocityLimiter velocity limits}. A batch the wallet cannot cover, or that would take it
+ *     over a limit, fails as a whole;</li>
+ *     <li><b>apply</b>: items are read in (recipient, line) order and split across
+ *     {@code payouts.parallelism} workers by recipient, each fed through a small bounded queue.
+ *     A recipient's items always go to the same worker, so they are credited in file order and
+ *     workers never contend for a wallet. Each worker credits a chunk of
+ *     {@code payouts.chunk-size} items through {@link WalletService#creditWallet} and writes the
+ *     debit and credit transactions in one JDBC batch, in one transaction;</li>
+ *     <li><b>complete</b>: what failed to apply is refunded to the merchant.</li>
+ * </ol>
+ * Every stage moves the batch on with a conditional update and every item is settled only from
+ * VALID, so a batch interrupted anywhere is finished by running it again: batches nothing has
+ * touched for {@code payouts.resume.stale-after} are picked up by a periodic sweep. The whole
+ * pipeline uses the jobs connection pool.
+ */
+@Slf4j
+@Service
+@UseConnectionPool(ConnectionPool.JOBS)
+public class PayoutPipeline {
+
+    private static final Set<PayoutBatchStatus> UNFINISHED =
+            EnumSet.of(PayoutBatchStatus.RECEIVED, PayoutBatchStatus.VALIDATED, PayoutBatchStatus.RESERVED);
+    private static final int QUEUE_DEPTH = 4;
+    private static final int MAX_CONFLICT_RETRIES = 3;
+    private static final int RESUME_BATCH_SIZE = 10;
+
+    private final PayoutBatchRepository payoutBatchRepository;
+    private final PayoutItemRepository payoutItemRepository;
+    private final TransactionRepository transactionRepository;
+    private final WalletRepository walletRepository;
+    private final WalletService walletService;
+    private final VelocityLimiter velocityLimiter;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter succeededItems;
+    private final Counter failedItems;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // Batches running on this node, which the resume sweep leaves alone
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    @Value("${payouts.parallelism:3}")
+    private int parallelism = 3;
+
+    @Value("${payouts.chunk-size:100}")
+    private int chunkSize = 100;
+
+    @Value("${payouts.page-size:1000}")
+    private int pageSize = 1000;
+
+    @Value("${payouts.resume.enabled:true}")
+    private boolean resumeEnabled;
+
+    @Value("${payouts.resume.stale-after:PT10M}")
+    private Duration staleAfter = Duration.ofMinutes(10);
+
+    public PayoutPipeline(PayoutBatchRepository payoutBatchRepository,
+                          PayoutItemRepository payoutItemRepository,
+                          TransactionRepository transactionRepository,
+                          WalletRepository walletRepository,
+                          WalletService walletService,
+                          VelocityLimiter velocityLimiter,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry) {
+        this.payoutBatchRepository = payoutBatchRepository;
+        this.payoutItemRepository = payoutItemRepository;
+        this.transactionRepository = transactionRepository;
+        this.walletRepository = walletRepository;
+        this.walletService = walletService;
+        this.velocityLimiter = velocityLimiter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.succeededItems = Counter.builder("wallet.payouts.items")
+                .description("Payout items applied")
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        this.failedItems = Counter.builder("wallet.payouts.items")
+                .description("Payout items applied")
+                .tag("outcome", "failure")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the batch in the background, unless it is already running on this node. Returns the
+     * future of the run, which completes once the batch has gone as far as it can.
+     */
+    public Future<?> submit(Long batchId) {
+        if (!running.add(batchId)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return executor.submit(ConnectionPoolRoutingDataSource.onSelectedPool(() -> {
+            try {
+                run(batchId);
+            } catch (RuntimeException e) {
+                log.error("Payout batch {} stopped, the resume sweep will retry it: {}", batchId, e.getMessage(), e);
+            } finally {
+                running.remove(batchId);
+            }
+        }));
+    }
+
+    @Scheduled(initialDelayString = "${payouts.resume.interval:PT5M}",
+            fixedDelayString = "${payouts.resume.interval:PT5M}")
+    public void resumeStale() {
+        if (!resumeEnabled) {
+            return;
+        }
+
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            for (PayoutBatchEntity batch : payoutBatchRepository.findStale(UNFINISHED, now.minus(staleAfter),
+                    Limit.of(RESUME_BATCH_SIZE))) {
+                if (running.contains(batch.getId())) {
+                    continue;
+                }
+                // Only one node wins the touch of a batch it has seen go stale
+                Integer touched = transactionTemplate.execute(status ->
+                        payoutBatchRepository.touch(batch.getId(), batch.getUpdatedAt(), now));
+                if (touched != null && touched == 1) {
+                    log.info("Resuming payout batch {} from {}", batch.getId(), batch.getStatus());
+                    submit(batch.getId());
+                }
+            }
+        } catch (Exception e) {
+            log.error("Resuming payout batches failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void run(Long batchId) {
+        Sender sender = transactionTemplate.execute(status -> {
+            PayoutBatchEntity batch = payoutBatchRepository.findById(batchId).orElseThrow();
+            WalletEntity wallet = batch.getWallet();
+            return new Sender(batchId, wallet.getId(), wallet.getWalletNumber(), batch.getStatus());
+        });
+
+        PayoutBatchStatus status = sender.status();
+        if (status == PayoutBatchStatus.RECEIVED) {
+            status = validate(sender);
+        }
+        if (status == PayoutBatchStatus.VALIDATED) {
+            status = reserve(sender);
+        }
+        if (status == PayoutBatchStatus.RESERVED) {
+            apply(sender);
+            status = complete(sender);
+        }
+        // No status means another run moved the batch on first
+        if (status != null) {
+            log.info("Payout batch {} is {}", batchId, status);
+        }
+    }
+
+    private PayoutBatchStatus validate(Sender sender) {
+        return transactionTemplate.execute(status -> {
+            Long batchId = sender.batchId();
+            payoutItemRepository.rejectWallet(batchId, sender.walletNumber(), "Cannot transfer to your own wallet");
+            payoutItemRepository.rejectUnknownWallets(batchId, "Wallet not found or not active");
+            payoutItemRepository.acceptPending(batchId);
+
+            Map<PayoutItemStatus, Totals> totals = payoutItemRepository.totals(batchId);
+            Totals valid = totals.getOrDefault(PayoutItemStatus.VALID, Totals.NONE);
+            Totals invalid = totals.getOrDefault(PayoutItemStatus.INVALID, Totals.NONE);
+            if (payoutBatchRepository.markValidated(batchId, invalid.count(), valid.amount(), LocalDateTime.now()) == 0) {
+                status.setRollbackOnly();
+                return null;
+            }
+            return PayoutBatchStatus.VALIDATED;
+        });
+    }
+
+    private PayoutBatchStatus reserve(Sender sender) {
+        Long batchId = sender.batchId();
+        try {
+            return transactionTemplate.execute(status -> {
+                if (payoutBatchRepository.markReserved(batchId, LocalDateTime.now()) == 0) {
+                    return null;
+                }
+                PayoutBatchEntity batch = payoutBatchRepository.findById(batchId).orElseThrow();
+                BigDecimal amount = batch.getReservedAmount();
+                if (amount.signum() > 0) {
+                    WalletEntity wallet = walletRepository.findByIdForUpdate(sender.walletId())
+                            .orElseThrow(() -> new RuntimeException("Wallet not found"));
+                    velocityLimiter.checkPayout(wallet, batch.getTotalItems() - batch.getInvalidItems(), amount);
+                    walletService.debitWallet(wallet, amount);
+                }
+                return PayoutBatchStatus.RESERVED;
+            });
+        } catch (DataAccessException | TransactionException e) {
+            // Left VALIDATED for the resume sweep
+            throw e;
+        } catch (RuntimeException e) {
+            // The wallet's own rules, such as insufficient balance or a velocity limit, turned the debit down
+            log.warn("Payout batch {} could not be funded: {}", batchId, e.getMessage());
+            return transactionTemplate.execute(status -> {
+                int failed = payoutItemRepository.failValid(batchId, e.getMessage());
+                if (payoutBatchRepository.markFailed(batchId, failed, e.getMessage(), LocalDateTime.now()) == 0) {
+                    status.setRollbackOnly();
+                    return null;
+                }
+                failedItems.increment(failed);
+                return PayoutBatchStatus.FAILED;
+            });
+        }
+    }
+
+    private void apply(Sender sender) {
+        List<BlockingQueue<List<Item>>> queues = new ArrayList<>(parallelism);
+        List<Future<?>> workers = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            BlockingQueue<List<Item>> queue = new ArrayBlockingQueue<>(QUEUE_DEPTH);
+            queues.add(queue);
+            workers.add(executor.submit(ConnectionPoolRoutingDataSource.onSelectedPool(() -> drain(sender, queue))));
+        }
+
+        try {
+            String walletNumber = "";
+            int lineNumber = 0;
+            List<Item> page;
+            do {
+                page = payoutItemRepository.findValidAfter(sender.batchId(), walletNumber, lineNumber, pageSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                dispatch(page, queues);
+                Item last = page.getLast();
+                walletNumber = last.recipientWalletNumber();
+                lineNumber = last.lineNumber();
+                touch(sender.batchId());
+            } while (page.size() == pageSize);
+        } finally {
+            // An empty chunk tells a worker there is no more
+            queues.forEach(queue -> put(queue, List.of()));
+        }
+
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while applying payout batch " + sender.batchId(), e);
+            } catch (ExecutionException e) {
+                log.error("Payout batch {} worker failed: {}", sender.batchId(), e.getCause().getMessage(), e.getCause());
+            }
+        }
+    }
+
+    // Hands each worker its recipients' items from the page, in order, a chunk at a time. A worker
+    // that falls behind fills its queue and holds up reading the next page.
+    private void dispatch(List<Item> page, List<BlockingQueue<List<Item>>> queues) {
+        List<List<Item>> chunks = new ArrayList<>(queues.size());
+        for (int i = 0; i < queues.size(); i++) {
+            chunks.add(new ArrayList<>(chunkSize));
+        }
+        for (Item item : page) {
+            int partition = Math.floorMod(item.recipientWalletNumber().hashCode(), queues.size());
+            List<Item> chunk = chunks.get(partition);
+            chunk.add(item);
+            if (chunk.size() == chunkSize) {
+                put(queues.get(partition), chunk);
+                chunks.set(partition, new ArrayList<>(chunkSize));
+            }
+        }
+        for (int i = 0; i < queues.size(); i++) {
+            if (!chunks.get(i).isEmpty()) {
+                put(queues.get(i), chunks.get(i));
+            }
+        }
+    }
+
+    private void drain(Sender sender, BlockingQueue<List<Item>> queue) {
+        try {
+            List<Item> chunk;
+            while (!(chunk = queue.take()).isEmpty()) {
+                applyChunk(sender, chunk);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void applyChunk(Sender sender, List<Item> chunk) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                List<Outcome> outcomes = transactionTemplate.execute(status -> credit(sender, chunk));
+                long succeeded = outcomes.stream().filter(outcome -> outcome.status() == PayoutItemStatus.SUCCESS).count();
+                succeededItems.increment(succeeded);
+                failedItems.increment(outcomes.size() - succeeded);
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt < MAX_CONFLICT_RETRIES) {
+                    // A transfer elsewhere changed one of the recipients first; try again shortly
+                    sleep(ThreadLocalRandom.current().nextLong(50L * attempt, 100L * attempt));
+                    continue;
+                }
+                fail(chunk, "Wallet was busy, please retry");
+                return;
+            } catch (RuntimeException e) {
+                // Its items stay VALID and are applied when the batch is resumed
+                log.error("Payout batch {} could not apply lines {} to {}: {}", sender.batchId(),
+                        chunk.getFirst().lineNumber(), chunk.getLast().lineNumber(), e.getMessage(), e);
+                return;
+            }
+        }
+    }
+
+    // Runs in the chunk's transaction: credits each item, then records the outcomes and the ledger
+    // entries in a batch each. Nothing is written if any item was settled by another run meanwhile.
+    private List<Outcome> credit(Sender sender, List<Item> chunk) {
+        Map<String, WalletEntity> wallets = walletRepository.findByWalletNumberIn(
+                        chunk.stream().map(Item::recipientWalletNumber).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(WalletEntity::getWalletNumber, Function.identity()));
+
+        List<Outcome> outcomes = new ArrayList<>(chunk.size());
+        List<TransactionEntity> transactions = new ArrayList<>(chunk.size() * 2);
+        for (Item item : chunk) {
+            WalletEntity wallet = wallets.get(item.recipientWalletNumber());
+            if (wallet == null || !wallet.getIsActive()) {
+                outcomes.add(new Outcome(item.id(), PayoutItemStatus.FAILED, "Wallet is not active", null));
+                continue;
+            }
+
+            BigDecimal previousBalance = wallet.getBalance();
+            walletService.creditWallet(wallet, item.amount());
+
+            String reference = "PAYOUT-" + sender.batchId() + "-" + item.lineNumber();
+            // The merchant's balance moved when the batch was reserved, so its side carries no balances
+            transactions.add(TransactionEntity.builder()
+                    .wallet(WalletEntity.builder().id(sender.walletId()).build())
+                    .reference(reference + "-DEBIT")
+                    .type(TransactionType.TRANSFER)
+                    .amount(item.amount())
+                    .status(TransactionStatus.SUCCESS)
+                    .recipientWalletNumber(wallet.getWalletNumber())
+                    .description("Payout to " + wallet.getWalletNumber())
+                    .build());
+            transactions.add(TransactionEntity.builder()
+                    .wallet(wallet)
+                    .reference(reference + "-CREDIT")
+                    .type(TransactionType.TRANSFER)
+                    .amount(item.amount())
+                    .status(TransactionStatus.SUCCESS)
+                    .senderWalletNumber(sender.walletNumber())
+                    .description("Payout from " + sender.walletNumber())
+                    .previousBalance(previousBalance)
+                    .newBalance(wallet.getBalance())
+                    .build());
+            outcomes.add(new Outcome(item.id(), PayoutItemStatus.SUCCESS, null, reference));
+        }
+
+        if (payoutItemRepository.settle(outcomes) != outcomes.size()) {
+            throw new IllegalStateException("Payout batch " + sender.batchId() + " was applied by another run");
+        }
+        transactionRepository.insertAll(transactions);
+        return outcomes;
+    }
+
+    private void fail(List<Item> chunk, String error) {
+        List<Outcome> outcomes = chunk.stream()
+                .map(item -> new Outcome(item.id(), PayoutItemStatus.FAILED, error, null))
+                .toList();
+        transactionTemplate.executeWithoutResult(status -> payoutItemRepository.settle(outcomes));
+        failedItems.increment(outcomes.size());
+    }
+
+    private PayoutBatchStatus complete(Sender sender) {
+        Long batchId = sender.batchId();
+        return transactionTemplate.execute(status -> {
+            Map<PayoutItemStatus, Totals> totals = payoutItemRepository.totals(batchId);
+            int unapplied = totals.getOrDefault(PayoutItemStatus.VALID, Totals.NONE).count();
+            if (unapplied > 0) {
+                log.warn("Payout batch {} has {} payouts left to apply, leaving it for the resume sweep",
+                        batchId, unapplied);
+                return PayoutBatchStatus.RESERVED;
+            }
+
+            Totals failed = totals.getOrDefault(PayoutItemStatus.FAILED, Totals.NONE);
+            int succeeded = totals.getOrDefault(PayoutItemStatus.SUCCESS, Totals.NONE).count();
+            if (payoutBatchRepository.markCompleted(batchId, succeeded, failed.count(), failed.amount(),
+                    LocalDateTime.now()) == 0) {
+                return null;
+            }
+            if (failed.amount().signum() > 0) {
+                WalletEntity wallet = walletRepository.findByIdForUpdate(sender.walletId())
+                        .orElseThrow(() -> new RuntimeException("Wallet not found"));
+                walletService.creditWallet(wallet, failed.amount());
+            }
+            return PayoutBatchStatus.COMPLETED;
+        });
+    }
+
+    private void touch(Long batchId) {
+        transactionTemplate.executeWithoutResult(status -> payoutBatchRepository.findById(batchId)
+                .ifPresent(batch -> payoutBatchRepository.touch(batchId, batch.getUpdatedAt(), LocalDateTime.now())));
+    }
+
+    private static void put(BlockingQueue<List<Item>> queue, List<Item> chunk) {
+        try {
+            queue.put(chunk);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing payouts", e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Workers are interrupted mid-batch; the resume sweep finishes their batches
+        executor.shutdownNow();
+    }
+
+    private record Sender(Long batchId, Long walletId, String walletNumber, PayoutBatchStatus status) {
+    }
+}
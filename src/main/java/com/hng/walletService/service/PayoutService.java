@@ -0,0 +1,270 @@
+package com.hng.walletService.service;
+
+import com.hng.walletService.exception.InvalidRequestException;
+import com.hng.walletService.exception.ResourceNotFoundException;
+import com.hng.walletService.model.dto.response.PayoutBatchResponse;
+import com.hng.walletService.model.entity.PayoutBatchEntity;
+import com.hng.walletService.model.entity.UserEntity;
+import com.hng.walletService.model.entity.WalletEntity;
+import com.hng.walletService.model.enums.PayoutBatchStatus;
+import com.hng.walletService.model.enums.PayoutItemStatus;
+import com.hng.walletService.repository.PayoutBatchRepository;
+import com.hng.walletService.repository.PayoutItemRepository;
+import com.hng.walletService.repository.PayoutItemRepository.NewItem;
+import com.hng.walletService.repository.PayoutItemRepository.Totals;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Takes in bulk payout files and reports on them; {@link PayoutPipeline} does the paying.
+ * <p>
+ * A file is CSV with one payout per line: {@code wallet_number,amount[,reference]}, optionally
+ * under a header line. It is read a line at a time and its items go to the database in JDBC
+ * batches of {@code payouts.insert-batch-size}, so a file of any size needs only one batch's worth
+ * of memory. Lines that cannot be paid as written are kept as INVALID items with the reason, so
+ * the results line up with the file.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PayoutService {
+
+    private static final Pattern WALLET_NUMBER = Pattern.compile("\\d{13}");
+    private static final BigDecimal MINIMUM_AMOUNT = BigDecimal.TEN;
+    // NUMERIC(19, 2)
+    private static final int MAX_AMOUNT_PRECISION = 19;
+    private static final int MAX_REFERENCE_LENGTH = 100;
+    private static final int MAX_WALLET_NUMBER_LENGTH = 32;
+
+    private final PayoutBatchRepository payoutBatchRepository;
+    private final PayoutItemRepository payoutItemRepository;
+    private final WalletService walletService;
+
+    @Value("${payouts.max-items:100000}")
+    private int maxItems = 100_000;
+
+    @Value("${payouts.insert-batch-size:1000}")
+    private int insertBatchSize = 1000;
+
+    /**
+     * Stores the file as a RECEIVED batch of the user's wallet. Rejects the whole file when it has
+     * no payouts or more than {@code payouts.max-items}.
+     * <p>
+     * Runs on the ledger pool like any other request: the jobs pool's few connections belong to
+     * the payout workers, and an upload waiting behind them would hold its request thread for up
+     * to the jobs pool's 30-second timeout.
+     */
+    @Transactional
+    public PayoutBatchResponse upload(UserEntity user, String fileName, InputStream file) throws IOException {
+        WalletEntity wallet = walletService.getWalletByUser(user);
+        if (!wallet.getIsActive()) {
+            throw new InvalidRequestException("Wallet is not active");
+        }
+
+        PayoutBatchEntity batch = payoutBatchRepository.save(PayoutBatchEntity.builder()
+                .user(user)
+                .wallet(wallet)
+                .fileName(fileName)
+                .build());
+
+        int items = 0;
+        int invalid = 0;
+        List<NewItem> pending = new ArrayList<>(insertBatchSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            boolean firstLine = true;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (firstLine) {
+                    firstLine = false;
+                    if (isHeader(line)) {
+                        continue;
+                    }
+                }
+                if (++items > maxItems) {
+                    throw new InvalidRequestException("Payout file has more than " + maxItems + " payouts");
+                }
+
+                NewItem item = parse(lineNumber, line);
+                if (item.status() == PayoutItemStatus.INVALID) {
+                    invalid++;
+                }
+                pending.add(item);
+                if (pending.size() == insertBatchSize) {
+                    payoutItemRepository.insertAll(batch.getId(), pending);
+                    pending.clear();
+                }
+            }
+        }
+        if (items == 0) {
+            throw new InvalidRequestException("Payout file has no payouts");
+        }
+        if (!pending.isEmpty()) {
+            payoutItemRepository.insertAll(batch.getId(), pending);
+        }
+
+        batch.setTotalItems(items);
+        batch.setInvalidItems(invalid);
+        log.info("Payout batch {} received for wallet {}: {} payouts, {} invalid", batch.getId(), wallet.getWalletNumber(),
+                items, invalid);
+        return mapToResponse(batch, null);
+    }
+
+    @Transactional(readOnly = true)
+    public PayoutBatchResponse getBatch(Long id, UserEntity user) {
+        PayoutBatchEntity batch = findBatch(id, user);
+        // Until the batch completes, progress comes from the items themselves
+        Map<PayoutItemStatus, Totals> totals = isFinished(batch) ? null : payoutItemRepository.totals(id);
+        return mapToResponse(batch, totals);
+    }
+
+    /**
+     * Writes the outcome of every line of the batch as CSV, in file order, while the items are
+     * read from the database.
+     */
+    @Transactional(readOnly = true)
+    public void writeResults(Long id, UserEntity user, Writer writer) {
+        findBatch(id, user);
+        try {
+            writer.write("line,wallet_number,amount,reference,status,error,transaction_reference\n");
+            payoutItemRepository.forEachResult(id, result -> {
+                try {
+                    writer.write(result.lineNumber() + "," + csv(result.recipientWalletNumber()) + ","
+                            + (result.amount() != null ? result.amount().toPlainString() : "") + ","
+                            + csv(result.clientReference()) + "," + result.status().name().toLowerCase() + ","
+                            + csv(result.error()) + "," + csv(result.transactionReference()) + "\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private PayoutBatchEntity findBatch(Long id, UserEntity user) {
+        return payoutBatchRepository.findByIdAndUserId(id, user.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Payout batch not found"));
+    }
+
+    private NewItem parse(int lineNumber, String line) {
+        String[] fields = line.split(",", -1);
+        String walletNumber = field(fields, 0);
+        String amountField = field(fields, 1);
+        String reference = field(fields, 2);
+        if (reference != null && reference.length() > MAX_REFERENCE_LENGTH) {
+            reference = reference.substring(0, MAX_REFERENCE_LENGTH);
+        }
+
+        BigDecimal amount = null;
+        String error = null;
+        if (fields.length > 3) {
+            error = "Expected wallet_number,amount[,reference]";
+        } else if (walletNumber == null || !WALLET_NUMBER.matcher(walletNumber).matches()) {
+            error = "Wallet number must be 13 digits";
+        } else if (amountField == null) {
+            error = "Amount is required";
+        } else {
+            try {
+                amount = new BigDecimal(amountField);
+                if (amount.scale() > 2) {
+                    error = "Amount can have at most 2 decimal places";
+                } else if (amount.compareTo(MINIMUM_AMOUNT) < 0) {
+                    error = "Minimum transfer amount is 10";
+                } else if (amount.precision() - amount.scale() > MAX_AMOUNT_PRECISION - 2) {
+                    error = "Amount is too large";
+                }
+            } catch (NumberFormatException e) {
+                error = "Amount must be a number";
+            }
+            if (error != null) {
+                amount = null;
+            }
+        }
+
+        if (walletNumber != null && walletNumber.length() > MAX_WALLET_NUMBER_LENGTH) {
+            walletNumber = walletNumber.substring(0, MAX_WALLET_NUMBER_LENGTH);
+        }
+        return new NewItem(lineNumber, walletNumber, amount, reference,
+                error == null ? PayoutItemStatus.PENDING : PayoutItemStatus.INVALID, error);
+    }
+
+    // A first line whose first field is not a number, such as wallet_number, is a header
+    private static boolean isHeader(String line) {
+        String walletNumber = field(line.split(",", -1), 0);
+        return walletNumber == null || !Character.isDigit(walletNumber.charAt(0));
+    }
+
+    private static String field(String[] fields, int index) {
+        if (index >= fields.length) {
+            return null;
+        }
+        String value = fields[index].strip();
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1).strip();
+        }
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static boolean isFinished(PayoutBatchEntity batch) {
+        return batch.getStatus() == PayoutBatchStatus.COMPLETED || batch.getStatus() == PayoutBatchStatus.FAILED;
+    }
+
+    private PayoutBatchResponse mapToResponse(PayoutBatchEntity batch, Map<PayoutItemStatus, Totals> totals) {
+        int invalid = batch.getInvalidItems();
+        int succeeded = batch.getSucceededItems();
+        int failed = batch.getFailedItems();
+        if (totals != null) {
+            invalid = totals.getOrDefault(PayoutItemStatus.INVALID, Totals.NONE).count();
+            succeeded = totals.getOrDefault(PayoutItemStatus.SUCCESS, Totals.NONE).count();
+            failed = totals.getOrDefault(PayoutItemStatus.FAILED, Totals.NONE).count();
+        }
+
+        return PayoutBatchResponse.builder()
+                .id(batch.getId())
+                .status(batch.getStatus().name().toLowerCase())
+                .fileName(batch.getFileName())
+                .totalItems(batch.getTotalItems())
+                .invalidItems(invalid)
+                .pendingItems(batch.getTotalItems() - invalid - succeeded - failed)
+                .succeededItems(succeeded)
+                .failedItems(failed)
+                .reservedAmount(batch.getReservedAmount())
+                .refundedAmount(batch.getRefundedAmount())
+                .error(batch.getError())
+                .createdAt(batch.getCreatedAt())
+                .completedAt(batch.getCompletedAt())
+                .build();
+    }
+}
@@ -1,24 +1,42 @@
 package com.hng.walletService.service;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hng.walletService.exception.PaystackUnavailableException;
 import com.hng.walletService.model.dto.paystack.PaystackInitializeRequest;
 import com.hng.walletService.model.dto.paystack.PaystackInitializeResponse;
 import com.hng.walletService.model.dto.paystack.PaystackVerifyResponse;
+import com.hng.walletService.model.dto.paystack.PaystackWebhookPayload;
+import com.hng.walletService.util.LatencyRecorder;
+import com.hng.walletService.util.WalletMetrics;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
 import java.util.HexFormat;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
+@Observed
 @RequiredArgsConstructor
 public class PaystackService {
 
@@ -31,7 +49,32 @@ public class PaystackService {
     @Value("${paystack.callback.url}")
     private String callbackUrl;
 
+    @Value("${paystack.timeout:10s}")
+    private Duration timeout = Duration.ofSeconds(10);
+
     private final WebClient.Builder webClientBuilder;
+    private final ObjectMapper objectMapper;
+    private final CircuitBreaker paystackCircuitBreaker;
+    private final Bulkhead paystackBulkhead;
+    private final WalletMetrics walletMetrics;
+    private final LatencyRecorder latencyRecorder;
+
+    private static final String HMAC_ALGORITHM = "HmacSHA512";
+
+    // Mac is not thread-safe. A per-thread cache stops paying off once every request runs on its own
+    // virtual thread, so each verification clones a prototype that is already keyed with the secret
+    private volatile Mac webhookMacPrototype;
+
+    private WebClient webClient;
+
+    @PostConstruct
+    public void init() {
+        // Built once from a clone so the shared builder is never mutated per call
+        this.webClient = webClientBuilder.clone()
+                .baseUrl(baseUrl)
+                .defaultHeader("Authorization", "Bearer " + secretKey)
+                .build();
+    }
 
     public PaystackInitializeResponse initializeTransaction(String email, BigDecimal amount, String reference) {
         // Convert amount to kobo (multiply by 100)
@@ -46,24 +89,21 @@ public class PaystackService {
                 .build();
         log.info("Paystack PaystackInitializeRequest: {}", request);
 
-
-        WebClient webClient = webClientBuilder
-                .baseUrl(baseUrl)
-                .defaultHeader("Authorization", "Bearer " + secretKey)
-                .defaultHeader("Content-Type", "application/json")
-                .build();
-
         try {
-            PaystackInitializeResponse response = webClient.post()
+            PaystackInitializeResponse response = callPaystack("paystack.initialize", () -> webClient.post()
                     .uri("/transaction/initialize")
+                    .contentType(MediaType.APPLICATION_JSON)
                     .bodyValue(request)
                     .retrieve()
                     .bodyToMono(PaystackInitializeResponse.class)
-                    .block();
+                    .block(timeout));
 
             log.info("Paystack PaystackInitializeResponse: {}", response);
             log.info("Paystack transaction initialized: {}", reference);
             return response;
+        } catch (PaystackUnavailableException e) {
+            log.warn("Paystack unavailable, rejecting initialize for {}: {}", reference, e.getMessage());
+            throw e;
         } catch (Exception e) {
             log.error("Error initializing Paystack transaction: {}", e.getMessage());
             throw new RuntimeException("Failed to initialize payment", e);
@@ -71,43 +111,137 @@ public class PaystackService {
     }
 
     public PaystackVerifyResponse verifyTransaction(String reference) {
-        WebClient webClient = webClientBuilder
-                .baseUrl(baseUrl)
-                .defaultHeader("Authorization", "Bearer " + secretKey)
-                .build();
-
         try {
-            PaystackVerifyResponse response = webClient.get()
+            PaystackVerifyResponse response = callPaystack("paystack.verify", () -> webClient.get()
                     .uri("/transaction/verify/" + reference)
                     .retrieve()
                     .bodyToMono(PaystackVerifyResponse.class)
-                    .block();
+                    .block(timeout));
 
             log.info("Paystack transaction verified: {}", reference);
             return response;
+        } catch (PaystackUnavailableException e) {
+            log.warn("Paystack unavailable, rejecting verify for {}: {}", reference, e.getMessage());
+            throw e;
         } catch (Exception e) {
             log.error("Error verifying Paystack transaction: {}", e.getMessage());
             throw new RuntimeException("Failed to verify payment", e);
         }
     }
 
+    /**
+     * Runs an outbound call through the circuit breaker and then the bulkhead. An open circuit
+     * is rejected before it takes a bulkhead slot.
+     */
+    private <T> T callPaystack(String metricName, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            return walletMetrics.time(metricName, CircuitBreaker.decorateSupplier(paystackCircuitBreaker,
+                    Bulkhead.decorateSupplier(paystackBulkhead, call)));
+        } catch (CallNotPermittedException e) {
+            throw new PaystackUnavailableException("Paystack circuit is open", e);
+        } catch (BulkheadFullException e) {
+            throw new PaystackUnavailableException("Too many concurrent Paystack calls", e);
+        } finally {
+            latencyRecorder.record(metricName, System.nanoTime() - start);
+        }
+    }
+
     public boolean verifyWebhookSignature(String payload, String signature) {
+        return verifyWebhookSignature(payload.getBytes(StandardCharsets.UTF_8), signature);
+    }
+
+    /**
+     * Verifies the x-paystack-signature header against the raw request bytes.
+     * The comparison is done on the decoded digest in constant time.
+     */
+    public boolean verifyWebhookSignature(byte[] payload, String signature) {
+        if (payload == null || signature == null) {
+            return false;
+        }
+
+        byte[] expected;
+        try {
+            expected = HexFormat.of().parseHex(signature.trim());
+        } catch (IllegalArgumentException e) {
+            log.error("Malformed webhook signature");
+            return false;
+        }
+
         try {
-            Mac mac = Mac.getInstance("HmacSHA512");
-            SecretKeySpec secretKeySpec = new SecretKeySpec(
-                    secretKey.getBytes(StandardCharsets.UTF_8),
-                    "HmacSHA512"
-            );
-            mac.init(secretKeySpec);
-
-            byte[] hash = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
-            String computedSignature = HexFormat.of().formatHex(hash);
-
-            return computedSignature.equals(signature);
-        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            byte[] hash = webhookMac().doFinal(payload);
+            return MessageDigest.isEqual(hash, expected);
+        } catch (IllegalStateException e) {
             log.error("Error verifying webhook signature: {}", e.getMessage());
             return false;
         }
     }
-}
 
+    /**
+     * Reads only the fields the webhook handler needs (event, data.reference, data.status,
+     * data.amount) from the raw body with a streaming parser.
+     */
+    public PaystackWebhookPayload parseWebhookPayload(byte[] payload) throws IOException {
+        PaystackWebhookPayload webhookPayload = new PaystackWebhookPayload();
+        PaystackWebhookPayload.PaystackWebhookData data = new PaystackWebhookPayload.PaystackWebhookData();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Webhook payload is not a JSON object");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                if ("event".equals(field)) {
+                    webhookPayload.setEvent(parser.getValueAsString());
+                } else if ("data".equals(field) && value == JsonToken.START_OBJECT) {
+                    readWebhookData(parser, data);
+                    webhookPayload.setData(data);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        return webhookPayload;
+    }
+
+    private void readWebhookData(JsonParser parser, PaystackWebhookPayload.PaystackWebhookData data) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+
+            switch (field) {
+                case "reference" -> data.setReference(parser.getValueAsString());
+                case "status" -> data.setStatus(parser.getValueAsString());
+                case "amount" -> data.setAmount(value == JsonToken.VALUE_NULL ? null : parser.getValueAsLong());
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private Mac webhookMac() {
+        Mac prototype = webhookMacPrototype;
+        if (prototype == null) {
+            prototype = createWebhookMac();
+            webhookMacPrototype = prototype;
+        }
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            return createWebhookMac();
+        }
+    }
+
+    private Mac createWebhookMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to initialize webhook HMAC", e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.hng.walletService.service;
+
+import com.hng.walletService.config.ConnectionPool;
+import com.hng.walletService.config.UseConnectionPool;
+import com.hng.walletService.model.enums.TransactionStatus;
+import com.hng.walletService.model.enums.TransactionType;
+import com.hng.walletService.repository.TransactionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the number of PENDING deposits as {@code wallet.deposits.pending}.
+ * <p>
+ * The count is refreshed on a schedule rather than on every scrape, so a scrape never touches
+ * the database.
+ */
+@Slf4j
+@Service
+@UseConnectionPool(ConnectionPool.JOBS)
+public class PendingDepositGauge {
+
+    private final TransactionRepository transactionRepository;
+    private final AtomicLong pendingDeposits = new AtomicLong();
+
+    public PendingDepositGauge(TransactionRepository transactionRepository, MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        Gauge.builder("wallet.deposits.pending", pendingDeposits, AtomicLong::get)
+                .description("Deposits waiting for a Paystack confirmation")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.metrics.pending-deposits.refresh-interval:PT30S}")
+    public void refresh() {
+        try {
+            pendingDeposits.set(transactionRepository.countByTypeAndStatus(
+                    TransactionType.DEPOSIT, TransactionStatus.PENDING));
+        } catch (Exception e) {
+            log.warn("Could not refresh pending deposit count: {}", e.getMessage());
+        }
+    }
+}
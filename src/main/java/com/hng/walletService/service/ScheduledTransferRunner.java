@@ -0,0 +1,265 @@
+package com.hng.walletService.service;
+
+import com.hng.walletService.config.ConnectionPool;
+import com.hng.walletService.config.ConnectionPoolRoutingDataSource;
+import com.hng.walletService.config.UseConnectionPool;
+import com.hng.walletService.model.dto.request.TransferRequest;
+import com.hng.walletService.model.entity.ScheduledTransferEntity;
+import com.hng.walletService.model.enums.ScheduledTransferStatus;
+import com.hng.walletService.repository.ScheduledTransferRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.util.HashedWheelTimer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs scheduled transfers.
+ * <p>
+ * Every {@code scheduled-transfers.poll-interval} each node claims, in batches, the transfers due
+ * before its next poll: {@code SKIP LOCKED} keeps nodes from claiming the same rows, and a claim
+ * is a lease that another node may take over once it expires. Claimed transfers go onto an
+ * in-process hashed-wheel timer, due time plus a random {@code scheduled-transfers.jitter}, so
+ * the many transfers people set for the top of the hour do not all start in the same instant.
+ * <p>
+ * A run locks its row, checks the claim is still its own and makes the transfer through
+ * {@link TransactionService#transfer} in the same transaction as it moves the schedule on, so an
+ * occurrence is transferred once even if a node dies mid-run. A failed run is retried with
+ * exponential backoff up to {@code scheduled-transfers.max-attempts} times. Claiming uses the
+ * jobs connection pool; a run is a customer transfer and uses the ledger pool like one made over
+ * the API, at most {@code scheduled-transfers.max-concurrency} at a time.
+ */
+@Slf4j
+@Service
+@UseConnectionPool(ConnectionPool.JOBS)
+public class ScheduledTransferRunner {
+
+    private static final int MAX_CONFLICT_RETRIES = 5;
+
+    private final ScheduledTransferRepository scheduledTransferRepository;
+    private final TransactionService transactionService;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter succeeded;
+    private final Counter failed;
+    private final Semaphore permits;
+
+    // Timer callbacks only hand the run over to a virtual thread; the wheel's one thread never blocks
+    private final HashedWheelTimer wheel = new HashedWheelTimer(
+            Thread.ofPlatform().name("scheduled-transfers-wheel").daemon().factory(),
+            100, TimeUnit.MILLISECONDS, 512);
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    @Value("${scheduled-transfers.enabled:true}")
+    private boolean enabled;
+
+    @Value("${scheduled-transfers.poll-interval:PT30S}")
+    private Duration pollInterval = Duration.ofSeconds(30);
+
+    @Value("${scheduled-transfers.lease:PT5M}")
+    private Duration lease = Duration.ofMinutes(5);
+
+    @Value("${scheduled-transfers.jitter:PT30S}")
+    private Duration jitter = Duration.ofSeconds(30);
+
+    @Value("${scheduled-transfers.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${scheduled-transfers.max-in-flight:1000}")
+    private int maxInFlight = 1000;
+
+    @Value("${scheduled-transfers.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @Value("${scheduled-transfers.retry-backoff:PT1M}")
+    private Duration retryBackoff = Duration.ofMinutes(1);
+
+    @Value("${scheduled-transfers.max-retry-backoff:PT1H}")
+    private Duration maxRetryBackoff = Duration.ofHours(1);
+
+    public ScheduledTransferRunner(ScheduledTransferRepository scheduledTransferRepository,
+                                   TransactionService transactionService,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${scheduled-transfers.max-concurrency:4}") int maxConcurrency) {
+        this.scheduledTransferRepository = scheduledTransferRepository;
+        this.transactionService = transactionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.permits = new Semaphore(maxConcurrency);
+        this.succeeded = Counter.builder("wallet.scheduled-transfers.runs")
+                .description("Scheduled transfer runs")
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        this.failed = Counter.builder("wallet.scheduled-transfers.runs")
+                .description("Scheduled transfer runs")
+                .tag("outcome", "failure")
+                .register(meterRegistry);
+        Gauge.builder("wallet.scheduled-transfers.in-flight", inFlight, AtomicInteger::get)
+                .description("Scheduled transfers claimed by this node and not yet run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${scheduled-transfers.poll-interval:PT30S}",
+            fixedDelayString = "${scheduled-transfers.poll-interval:PT30S}")
+    public void scheduledClaim() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            claimDue();
+        } catch (Exception e) {
+            log.error("Claiming scheduled transfers failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Claims the transfers due before the next poll, up to {@code scheduled-transfers.max-in-flight}
+     * on this node, and puts them on the timer. Returns the number claimed.
+     */
+    public int claimDue() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizon = now.plus(pollInterval);
+        int claimed = 0;
+
+        List<Claim> batch;
+        do {
+            int size = Math.min(batchSize, maxInFlight - inFlight.get());
+            if (size <= 0) {
+                log.warn("{} scheduled transfers already in flight, leaving the rest for the next poll", inFlight.get());
+                break;
+            }
+            String token = UUID.randomUUID().toString();
+            batch = transactionTemplate.execute(status -> scheduledTransferRepository
+                    .findDueForUpdate(ScheduledTransferStatus.ACTIVE, horizon, now, Limit.of(size)).stream()
+                    .map(scheduled -> {
+                        scheduled.claim(token, now.plus(lease));
+                        return new Claim(scheduled.getId(), token, scheduled.getAttemptAt(), 0);
+                    })
+                    .toList());
+            batch.forEach(claim -> submit(claim, now));
+            claimed += batch.size();
+        } while (batch.size() == batchSize);
+
+        if (claimed > 0) {
+            log.debug("Claimed {} scheduled transfers", claimed);
+        }
+        return claimed;
+    }
+
+    private void submit(Claim claim, LocalDateTime now) {
+        schedule(claim, Math.max(0, Duration.between(now, claim.attemptAt()).toMillis())
+                + ThreadLocalRandom.current().nextLong(jitter.toMillis() + 1));
+    }
+
+    private void schedule(Claim claim, long delayMillis) {
+        Runnable run = () -> {
+            permits.acquireUninterruptibly();
+            ConnectionPool previous = ConnectionPoolRoutingDataSource.select(ConnectionPool.LEDGER);
+            try {
+                run(claim);
+            } finally {
+                ConnectionPoolRoutingDataSource.restore(previous);
+                permits.release();
+                inFlight.decrementAndGet();
+            }
+        };
+
+        inFlight.incrementAndGet();
+        wheel.newTimeout(timeout -> executor.execute(run), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void run(Claim claim) {
+        try {
+            String reference = transactionTemplate.execute(status -> {
+                ScheduledTransferEntity scheduled = scheduledTransferRepository.findByIdForUpdate(claim.id())
+                        .orElse(null);
+                // Cancelled since the claim, or the lease ran out and another node has it now
+                if (scheduled == null || !scheduled.isClaimedBy(claim.token())) {
+                    return null;
+                }
+
+                String transferReference = transactionService.transfer(scheduled.getUser(), TransferRequest.builder()
+                        .walletNumber(scheduled.getRecipientWalletNumber())
+                        .amount(scheduled.getAmount())
+                        .build()).getReference();
+                scheduled.recordRun(transferReference, LocalDateTime.now());
+                return transferReference;
+            });
+
+            if (reference != null) {
+                succeeded.increment();
+                log.info("Scheduled transfer {} ran as {}", claim.id(), reference);
+            }
+        } catch (OptimisticLockingFailureException e) {
+            if (claim.conflicts() < MAX_CONFLICT_RETRIES) {
+                // Another transfer changed one of the wallets first; that is no reason to back off
+                schedule(claim.withConflict(), ThreadLocalRandom.current().nextLong(1000));
+                return;
+            }
+            failed.increment();
+            recordFailure(claim, "Wallet was busy, please retry");
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.warn("Scheduled transfer {} failed: {}", claim.id(), e.getMessage());
+            recordFailure(claim, e.getMessage());
+        }
+    }
+
+    private void recordFailure(Claim claim, String error) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> scheduledTransferRepository
+                    .findByIdForUpdate(claim.id())
+                    .filter(scheduled -> scheduled.isClaimedBy(claim.token()))
+                    .ifPresent(scheduled -> {
+                        LocalDateTime now = LocalDateTime.now();
+                        scheduled.recordFailure(error, now.plus(backoff(scheduled.getAttempts() + 1)), maxAttempts, now);
+                    }));
+        } catch (RuntimeException e) {
+            // The claim expires and the next poll retries the run
+            log.error("Could not record the failure of scheduled transfer {}: {}", claim.id(), e.getMessage(), e);
+        }
+    }
+
+    // Doubles with every attempt up to the cap, then a random half of it is taken off so the
+    // retries of transfers that failed together spread out
+    Duration backoff(int attempt) {
+        long cap = maxRetryBackoff.toMillis();
+        long exponential = retryBackoff.toMillis() << Math.min(attempt - 1, 30);
+        long millis = exponential <= 0 || exponential > cap ? cap : exponential;
+        return Duration.ofMillis(millis / 2 + ThreadLocalRandom.current().nextLong(millis / 2 + 1));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Runs still on the timer are dropped; their claims expire and another node picks them up
+        wheel.stop();
+        executor.close();
+    }
+
+    private record Claim(Long id, String token, LocalDateTime attemptAt, int conflicts) {
+
+        Claim withConflict() {
+            return new Claim(id, token, attemptAt, conflicts + 1);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.hng.walletService.service;
+
+import com.hng.walletService.model.dto.request.ScheduledTransferRequest;
+import com.hng.walletService.model.dto.response.ScheduledTransferResponse;
+import com.hng.walletService.model.entity.ScheduledTransferEntity;
+import com.hng.walletService.model.entity.UserEntity;
+import com.hng.walletService.model.entity.WalletEntity;
+import com.hng.walletService.model.enums.ScheduledTransferStatus;
+import com.hng.walletService.model.enums.TransferFrequency;
+import com.hng.walletService.repository.ScheduledTransferRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Creates, lists and cancels a user's scheduled transfers; {@link ScheduledTransferRunner} runs them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ScheduledTransferService {
+
+    private static final int MAX_ACTIVE_SCHEDULES = 20;
+
+    private final ScheduledTransferRepository scheduledTransferRepository;
+    private final WalletService walletService;
+
+    @Transactional
+    public ScheduledTransferResponse schedule(UserEntity user, ScheduledTransferRequest request) {
+        if (scheduledTransferRepository.countByUserIdAndStatus(user.getId(), ScheduledTransferStatus.ACTIVE)
+                >= MAX_ACTIVE_SCHEDULES) {
+            throw new RuntimeException("Maximum " + MAX_ACTIVE_SCHEDULES + " active scheduled transfers allowed");
+        }
+
+        WalletEntity senderWallet = walletService.getWalletByUser(user);
+        WalletEntity recipientWallet = walletService.getWalletByWalletNumber(request.getWalletNumber());
+        if (senderWallet.getWalletNumber().equals(recipientWallet.getWalletNumber())) {
+            throw new RuntimeException("Cannot transfer to your own wallet");
+        }
+
+        TransferFrequency frequency = TransferFrequency.valueOf(request.getFrequency().toUpperCase(Locale.ROOT));
+        ScheduledTransferEntity scheduled = scheduledTransferRepository.save(ScheduledTransferEntity.builder()
+                .user(user)
+                .recipientWalletNumber(recipientWallet.getWalletNumber())
+                .amount(request.getAmount())
+                .frequency(frequency)
+                .firstRunAt(request.getRunAt())
+                .nextRunAt(request.getRunAt())
+                .attemptAt(request.getRunAt())
+                .maxRuns(frequency == TransferFrequency.ONCE ? Integer.valueOf(1) : request.getOccurrences())
+                .build());
+
+        log.info("Scheduled {} transfer {} of {} to {} from {}", frequency, scheduled.getId(),
+                request.getAmount(), recipientWallet.getWalletNumber(), request.getRunAt());
+        return mapToResponse(scheduled);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ScheduledTransferResponse> getScheduledTransfers(UserEntity user) {
+        return scheduledTransferRepository.findByUserIdOrderByCreatedAtDesc(user.getId()).stream()
+                .map(this::mapToResponse)
+                .toList();
+    }
+
+    /**
+     * Stops a schedule. Takes the row lock, so it waits for a run that is executing and no run
+     * starts after it returns.
+     */
+    @Transactional
+    public void cancel(Long id, UserEntity user) {
+        ScheduledTransferEntity scheduled = scheduledTransferRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new RuntimeException("Scheduled transfer not found"));
+
+        if (!scheduled.getUser().getId().equals(user.getId())) {
+            throw new RuntimeException("Unauthorized access to scheduled transfer");
+        }
+        if (!scheduled.isActive()) {
+            throw new RuntimeException("Scheduled transfer is already " + scheduled.getStatus().name().toLowerCase());
+        }
+
+        scheduled.setStatus(ScheduledTransferStatus.CANCELLED);
+        log.info("Scheduled transfer {} cancelled", id);
+    }
+
+    private ScheduledTransferResponse mapToResponse(ScheduledTransferEntity scheduled) {
+        return ScheduledTransferResponse.builder()
+                .id(scheduled.getId())
+                .walletNumber(scheduled.getRecipientWalletNumber())
+                .amount(scheduled.getAmount())
+                .frequency(scheduled.getFrequency().name().toLowerCase())
+                .status(scheduled.getStatus().name().toLowerCase())
+                .nextRunAt(scheduled.isActive() ? scheduled.getAttemptAt() : null)
+                .runs(scheduled.getRuns())
+                .occurrences(scheduled.getMaxRuns())
+                .lastError(scheduled.getLastError())
+                .build();
+    }
+}
@@ -0,0 +1,236 @@
+package com.hng.walletService.service;
+
+import com.hng.walletService.config.ConnectionPool;
+import com.hng.walletService.config.UseConnectionPool;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Maintains the monthly partitions of {@code transactions} on PostgreSQL (see migration V3).
+ * <p>
+ * Each run, on whichever node wins an advisory lock:
+ * <ul>
+ *     <li>creates the partitions for the next {@code transactions.partitioning.months-ahead} months,
+ *     so an insert never finds its month missing;</li>
+ *     <li>adds a BRIN index on {@code created_at} to every month that has closed, which makes
+ *     time-range scans of cold months cheap for a few pages of index;</li>
+ *     <li>when archiving is enabled, detaches months older than
+ *     {@code transactions.archive.after-months} without blocking writers, copies them to
+ *     {@code <directory>/transactions_YYYY_MM.csv.gz} and drops them.</li>
+ * </ul>
+ * A detached month is archived before it is dropped, so a run that dies part-way is finished by
+ * the next one. An archived month can be loaded back on demand into a standalone
+ * {@code transactions_archive_YYYY_MM} table with {@link #restore(YearMonth)}.
+ */
+@Slf4j
+@Service
+@UseConnectionPool(ConnectionPool.JOBS)
+public class TransactionPartitionService {
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    // Any constant shared by every node; only the holder of the lock maintains partitions
+    private static final long MAINTENANCE_LOCK = 0x5472616E73506172L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Counter archivedPartitions;
+
+    @Value("${transactions.partitioning.enabled:true}")
+    private boolean enabled;
+
+    @Value("${transactions.partitioning.months-ahead:3}")
+    private int monthsAhead = 3;
+
+    @Value("${transactions.archive.enabled:false}")
+    private boolean archiveEnabled;
+
+    @Value("${transactions.archive.after-months:24}")
+    private int archiveAfterMonths = 24;
+
+    @Value("${transactions.archive.directory:archive/transactions}")
+    private Path archiveDirectory = Path.of("archive", "transactions");
+
+    public TransactionPartitionService(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.archivedPartitions = Counter.builder("wallet.transactions.partitions.archived")
+                .description("Monthly transaction partitions moved to archive files")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${transactions.partitioning.initial-delay:PT1M}",
+            fixedDelayString = "${transactions.partitioning.interval:PT6H}")
+    public void scheduledMaintenance() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            maintain(YearMonth.now());
+        } catch (Exception e) {
+            log.error("Transaction partition maintenance failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Runs one maintenance pass as of {@code current}; returns false if another node holds the
+     * maintenance lock.
+     */
+    public boolean maintain(YearMonth current) {
+        // One connection for the whole pass: the advisory lock belongs to the session
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            JdbcTemplate session = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            if (!Boolean.TRUE.equals(session.queryForObject("SELECT pg_try_advisory_lock(?)", Boolean.class,
+                    MAINTENANCE_LOCK))) {
+                log.debug("Partition maintenance is running on another node");
+                return false;
+            }
+            try {
+                maintain(session, connection, current);
+                return true;
+            } finally {
+                session.queryForObject("SELECT pg_advisory_unlock(?)", Boolean.class, MAINTENANCE_LOCK);
+            }
+        }));
+    }
+
+    private void maintain(JdbcTemplate session, Connection connection, YearMonth current) throws SQLException {
+        for (int ahead = 0; ahead <= monthsAhead; ahead++) {
+            session.queryForObject("SELECT ensure_transaction_partition(?)", String.class,
+                    current.plusMonths(ahead).atDay(1));
+        }
+
+        for (Partition partition : attachedPartitions(session)) {
+            if (partition.detachPending()) {
+                // A concurrent detach that was interrupted has to be finished before anything else
+                session.execute("ALTER TABLE transactions DETACH PARTITION " + partition.name() + " FINALIZE");
+            } else if (archiveEnabled && partition.month().isBefore(current.minusMonths(archiveAfterMonths - 1))) {
+                session.execute("ALTER TABLE transactions DETACH PARTITION " + partition.name() + " CONCURRENTLY");
+            } else if (partition.month().isBefore(current)) {
+                session.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + partition.name() + "_created_at_brin "
+                        + "ON " + partition.name() + " USING brin (created_at)");
+            }
+        }
+
+        for (String detached : detachedPartitions(session)) {
+            archive(session, connection, detached);
+        }
+    }
+
+    private List<Partition> attachedPartitions(JdbcTemplate session) {
+        return session.query("""
+                        SELECT c.relname, i.inhdetachpending FROM pg_inherits i
+                        JOIN pg_class c ON c.oid = i.inhrelid
+                        WHERE i.inhparent = 'transactions'::regclass ORDER BY c.relname""",
+                (rs, row) -> new Partition(rs.getString(1), rs.getBoolean(2)));
+    }
+
+    private List<String> detachedPartitions(JdbcTemplate session) {
+        return session.queryForList("""
+                SELECT relname FROM pg_class
+                WHERE relkind = 'r' AND NOT relispartition AND relname ~ '^transactions_[0-9]{4}_[0-9]{2}$'
+                ORDER BY relname""", String.class);
+    }
+
+    private void archive(JdbcTemplate session, Connection connection, String table) throws SQLException {
+        Path file = archiveDirectory.resolve(table + ".csv.gz");
+        Path partial = archiveDirectory.resolve(table + ".csv.gz.partial");
+        long rows;
+        try {
+            Files.createDirectories(archiveDirectory);
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial))) {
+                rows = connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyOut("COPY " + table + " TO STDOUT WITH (FORMAT csv, HEADER)", out);
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not archive " + table + " to " + file, e);
+        }
+
+        session.execute("DROP TABLE " + table);
+        archivedPartitions.increment();
+        log.info("Archived {} rows of {} to {}", rows, table, file);
+    }
+
+    /**
+     * Months with an archive file, oldest first.
+     */
+    public List<YearMonth> archivedMonths() throws IOException {
+        if (!Files.isDirectory(archiveDirectory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(archiveDirectory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.matches("transactions_\\d{4}_\\d{2}\\.csv\\.gz"))
+                    .map(name -> YearMonth.parse(name.substring("transactions_".length(), name.indexOf('.')), SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Loads an archived month into {@code transactions_archive_YYYY_MM}, replacing an earlier
+     * restore, and returns the number of rows. The table is not a partition: the application never
+     * reads it, and it stays until {@link #release(YearMonth)} drops it.
+     */
+    public long restore(YearMonth month) {
+        Path file = archiveDirectory.resolve("transactions_" + month.format(SUFFIX) + ".csv.gz");
+        if (!Files.exists(file)) {
+            throw new IllegalArgumentException("No archive for " + month + " in " + archiveDirectory);
+        }
+        String table = restoredTable(month);
+
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            JdbcTemplate session = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            session.execute("DROP TABLE IF EXISTS " + table);
+            session.execute("CREATE TABLE " + table + " (LIKE transactions INCLUDING DEFAULTS)");
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+                long rows = connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn("COPY " + table + " FROM STDIN WITH (FORMAT csv, HEADER)", in);
+                log.info("Restored {} rows from {} into {}", rows, file, table);
+                return rows;
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not read " + file, e);
+            }
+        });
+    }
+
+    /**
+     * Drops the table a {@link #restore(YearMonth)} created; the archive file stays.
+     */
+    public void release(YearMonth month) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + restoredTable(month));
+    }
+
+    private static String restoredTable(YearMonth month) {
+        return "transactions_archive_" + month.format(SUFFIX);
+    }
+
+    private record Partition(String name, boolean detachPending) {
+
+        YearMonth month() {
+            return YearMonth.parse(name.substring("transactions_".length()), SUFFIX);
+        }
+    }
+}
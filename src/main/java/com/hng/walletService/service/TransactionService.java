@@ -13,28 +13,48 @@ import com.hng.walletService.model.entity.WalletEntity;
 import com.hng.walletService.model.enums.TransactionStatus;
 import com.hng.walletService.model.enums.TransactionType;
 import com.hng.walletService.repository.TransactionRepository;
+import com.hng.walletService.util.WalletMetrics;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
+@Observed
 @RequiredArgsConstructor
 public class TransactionService {
 
     private final TransactionRepository transactionRepository;
     private final WalletService walletService;
     private final PaystackService paystackService;
+    private final WalletMetrics walletMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final VelocityLimiter velocityLimiter;
+
+    @Value("${transactions.history.default-window:P1Y}")
+    private Period historyWindow = Period.ofYears(1);
 
     @Transactional
     public DepositResponse initiateDeposit(UserEntity user, DepositRequest request) {
+        return walletMetrics.time("wallet.deposit.initiate", () -> doInitiateDeposit(user, request));
+    }
+
+    private DepositResponse doInitiateDeposit(UserEntity user, DepositRequest request) {
         WalletEntity wallet = walletService.getWalletByUser(user);
+        velocityLimiter.checkDeposit(wallet, request.getAmount());
         String reference = generateReference();
 
         // Create pending transaction
@@ -57,7 +77,7 @@ public class TransactionService {
                 reference
         );
 
-        log.info("paystackResponse {}", paystackResponse);
+        log.debug("paystackResponse {}", paystackResponse);
 
         // Update transaction with Paystack details
         transaction.setPaystackReference(paystackResponse.getData().getReference());
@@ -74,6 +94,10 @@ public class TransactionService {
 
     @Transactional
     public void processSuccessfulDeposit(String paystackReference, BigDecimal amount) {
+        walletMetrics.time("wallet.deposit.settle", () -> doProcessSuccessfulDeposit(paystackReference, amount));
+    }
+
+    private void doProcessSuccessfulDeposit(String paystackReference, BigDecimal amount) {
         TransactionEntity transaction = transactionRepository.findByPaystackReference(paystackReference)
                 .orElseThrow(() -> new RuntimeException("Transaction not found with paystack reference: " + paystackReference));
 
@@ -93,12 +117,17 @@ public class TransactionService {
         transaction.markAsSuccess();
         transaction.updateBalances(previousBalance, wallet.getBalance());
         transactionRepository.save(transaction);
+        publishDepositStatus(transaction);
 
         log.info("Deposit processed successfully: {} for amount: {}", paystackReference, amount);
     }
 
     @Transactional
     public TransferResponse transfer(UserEntity sender, TransferRequest request) {
+        return walletMetrics.time("wallet.transfer", () -> doTransfer(sender, request));
+    }
+
+    private TransferResponse doTransfer(UserEntity sender, TransferRequest request) {
         WalletEntity senderWallet = walletService.getWalletByUser(sender);
         WalletEntity recipientWallet = walletService.getWalletByWalletNumber(request.getWalletNumber());
 
@@ -117,6 +146,8 @@ public class TransactionService {
             throw new RuntimeException("Wallet is not active");
         }
 
+        velocityLimiter.checkTransfer(senderWallet, request.getAmount());
+
         String reference = generateReference();
 
         // Get balances before transfer
@@ -171,15 +202,51 @@ public class TransactionService {
                 .build();
     }
 
-    public List<TransactionResponse> getTransactionHistory(UserEntity user) {
+    /**
+     * Transactions created on the days {@code from} through {@code to}, newest first. A missing
+     * {@code to} means today and a missing {@code from} one {@code transactions.history.default-window}
+     * before it; the bounds let PostgreSQL skip every monthly partition outside the range.
+     */
+    @Transactional(readOnly = true)
+    public List<TransactionResponse> getTransactionHistory(UserEntity user, LocalDate from, LocalDate to) {
         WalletEntity wallet = walletService.getWalletByUser(user);
-        List<TransactionEntity> transactions = transactionRepository.findByWalletIdOrderByCreatedAtDesc(wallet.getId());
+        LocalDateTime end = historyEnd(to);
+        List<TransactionEntity> transactions =
+                transactionRepository.findHistory(wallet.getId(), historyStart(from, end), end);
 
         return transactions.stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Entity tag for {@link #getTransactionHistory} with the same arguments, from one aggregate
+     * over the window: a new row raises the count and the latest id, and a status change moves
+     * the latest update time. The window's dates are part of it because the default window moves
+     * every day.
+     */
+    @Transactional(readOnly = true)
+    public String getTransactionHistoryTag(UserEntity user, LocalDate from, LocalDate to) {
+        LocalDateTime end = historyEnd(to);
+        LocalDateTime start = historyStart(from, end);
+        TransactionRepository.HistoryVersion version = transactionRepository.findHistoryVersion(user.getId(), start, end);
+        LocalDateTime lastUpdatedAt = version.getLastUpdatedAt();
+
+        return start.toLocalDate() + "." + end.toLocalDate() + "." + version.getCount() + "."
+                + (version.getLatestId() != null ? version.getLatestId() : 0) + "."
+                + (lastUpdatedAt != null
+                ? ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), lastUpdatedAt) : 0);
+    }
+
+    private static LocalDateTime historyEnd(LocalDate to) {
+        return (to != null ? to : LocalDate.now()).plusDays(1).atStartOfDay();
+    }
+
+    private LocalDateTime historyStart(LocalDate from, LocalDateTime end) {
+        return from != null ? from.atStartOfDay() : end.minus(historyWindow);
+    }
+
+    @Transactional(readOnly = true)
     public DepositStatusResponse getDepositStatus(String reference) {
         TransactionEntity transaction = transactionRepository.findByReference(reference)
                 .orElseThrow(() -> new RuntimeException("Transaction not found"));
@@ -191,6 +258,19 @@ public class TransactionService {
                 .build();
     }
 
+    /**
+     * Tells {@code /wallet/events} subscribers that a deposit changed status, once the current
+     * transaction commits.
+     */
+    public void publishDepositStatus(TransactionEntity transaction) {
+        eventPublisher.publishEvent(new WalletEventBus.WalletEvent(transaction.getWallet().getId(), "deposit",
+                DepositStatusResponse.builder()
+                        .reference(transaction.getReference())
+                        .status(transaction.getStatus().name().toLowerCase())
+                        .amount(transaction.getAmount())
+                        .build()));
+    }
+
     private TransactionResponse mapToResponse(TransactionEntity transaction) {
         return TransactionResponse.builder()
                 .reference(transaction.getReference())
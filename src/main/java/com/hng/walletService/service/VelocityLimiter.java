@@ -0,0 +1,287 @@
+package com.hng.walletService.service;
+
+import com.hng.walletService.config.VelocityLimitProperties;
+import com.hng.walletService.exception.VelocityLimitExceededException;
+import com.hng.walletService.model.entity.WalletEntity;
+import com.hng.walletService.model.enums.WalletTier;
+import com.hng.walletService.util.SlidingWindowCounter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-wallet velocity limits on transfers, deposits and payouts: at most so many, and so much, per
+ * minute, hour and day, as configured for the wallet's tier under {@code wallet.velocity.tiers}.
+ * Payouts have limits of their own, where each line of a batch counts as one payout, so a large file
+ * is not held to the per-minute counts meant for single transfers.
+ * <p>
+ * Each wallet gets a {@link SlidingWindowCounter} per flow and window: the minute in 5-second
+ * buckets, the hour in 5-minute buckets and the day in hourly buckets. The first check for a
+ * wallet loads its last day of transfers, payout lines and deposits from {@code transactions} in one query on
+ * the wallet/created_at index. From then on a check is a few array reads under the wallet's lock
+ * with no database round trip, until the counters are older than {@code wallet.velocity.refresh-after}
+ * and get loaded again.
+ * <p>
+ * A check that passes counts the transfer or deposit at once, so concurrent requests cannot all
+ * slip under the same limit, and takes it back if the transaction rolls back. Deposits count when
+ * they are started, whether or not they are paid, and payout lines when their batch is reserved,
+ * whether or not they are then paid. The counters are per node: between reloads a
+ * wallet whose requests reach several nodes can exceed a limit by what the other nodes allowed.
+ */
+@Slf4j
+@Service
+public class VelocityLimiter {
+
+    // Transfers and payout lines the wallet sent, and the deposits it started, by flow
+    private static final String RECENT = """
+            SELECT CASE WHEN type = 'DEPOSIT' THEN 'DEPOSIT'
+                        WHEN reference LIKE 'PAYOUT-%' THEN 'PAYOUT'
+                        ELSE 'TRANSFER' END,
+                   amount, created_at
+            FROM transactions
+            WHERE wallet_id = ? AND created_at >= ?
+              AND (type = 'DEPOSIT'
+                   OR type = 'TRANSFER' AND status = 'SUCCESS' AND recipient_wallet_number IS NOT NULL)
+            """;
+
+    private final VelocityLimitProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Map<WalletTier, Map<Flow, List<Limit>>> limits = new EnumMap<>(WalletTier.class);
+    private final Map<Long, WalletVelocity> wallets = new ConcurrentHashMap<>();
+
+    public VelocityLimiter(VelocityLimitProperties properties, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+
+        for (WalletTier tier : WalletTier.values()) {
+            VelocityLimitProperties.Tier configured = properties.getTiers()
+                    .getOrDefault(tier, new VelocityLimitProperties.Tier());
+            Map<Flow, List<Limit>> tierLimits = new EnumMap<>(Flow.class);
+            tierLimits.put(Flow.TRANSFER, limits(configured.getTransfer()));
+            tierLimits.put(Flow.DEPOSIT, limits(configured.getDeposit()));
+            tierLimits.put(Flow.PAYOUT, limits(configured.getPayout()));
+            limits.put(tier, tierLimits);
+        }
+    }
+
+    /**
+     * Counts a transfer of {@code amount} out of the wallet, or throws
+     * {@link VelocityLimitExceededException} if it would take the wallet over a limit.
+     */
+    public void checkTransfer(WalletEntity wallet, BigDecimal amount) {
+        check(wallet, Flow.TRANSFER, 1, amount);
+    }
+
+    /**
+     * Counts a payout batch of {@code lines} payouts that come to {@code amount} out of the wallet,
+     * or throws {@link VelocityLimitExceededException} if they would take it over a payout limit.
+     */
+    public void checkPayout(WalletEntity wallet, int lines, BigDecimal amount) {
+        check(wallet, Flow.PAYOUT, lines, amount);
+    }
+
+    /**
+     * Counts a deposit of {@code amount} into the wallet, or throws
+     * {@link VelocityLimitExceededException} if it would take the wallet over a limit.
+     */
+    public void checkDeposit(WalletEntity wallet, BigDecimal amount) {
+        check(wallet, Flow.DEPOSIT, 1, amount);
+    }
+
+    private void check(WalletEntity wallet, Flow flow, int count, BigDecimal amount) {
+        List<Limit> flowLimits = limits.get(wallet.getTier()).get(flow);
+        if (!properties.isEnabled() || flowLimits.isEmpty()) {
+            return;
+        }
+
+        long minorUnits = minorUnits(amount);
+        long now = System.currentTimeMillis();
+        WalletVelocity velocity = velocity(wallet.getId(), now);
+        Limit breached = null;
+        long retryAfter = 0;
+        synchronized (velocity) {
+            for (Limit limit : flowLimits) {
+                SlidingWindowCounter counter = velocity.counter(flow, limit.window());
+                if (counter.count(now) + count > limit.count() || counter.amount(now) + minorUnits > limit.amount()) {
+                    breached = limit;
+                    retryAfter = counter.millisUntilNextExpiry(now);
+                    break;
+                }
+            }
+            if (breached == null) {
+                velocity.add(flow, now, count, minorUnits);
+            }
+        }
+
+        if (breached != null) {
+            Counter.builder("wallet.velocity.rejections")
+                    .description("Transfers, deposits and payouts refused by a velocity limit")
+                    .tag("flow", flow.label)
+                    .tag("window", breached.window().label)
+                    .register(meterRegistry)
+                    .increment();
+            log.info("Wallet {} refused a {} of {}: {} limit reached", wallet.getWalletNumber(), flow.label, amount,
+                    breached.window().label);
+            throw new VelocityLimitExceededException(flow.title + " limit for this " + breached.window().label
+                    + " reached", Duration.ofSeconds(Math.max((retryAfter + 999) / 1000, 1)));
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        synchronized (velocity) {
+                            velocity.remove(flow, now, count, minorUnits);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    private WalletVelocity velocity(Long walletId, long now) {
+        WalletVelocity velocity = wallets.get(walletId);
+        if (velocity != null && velocity.isFresh(now)) {
+            velocity.lastUsed = now;
+            return velocity;
+        }
+
+        WalletVelocity loaded = load(walletId, now);
+        if (velocity == null && wallets.size() >= properties.getMaxWallets()) {
+            evict(now);
+        }
+        // A concurrent miss may have loaded it first; both loads saw the same ledger
+        return wallets.compute(walletId, (id, current) -> current != null && current.isFresh(now) ? current : loaded);
+    }
+
+    private WalletVelocity load(Long walletId, long now) {
+        WalletVelocity velocity = new WalletVelocity(now, now + properties.getRefreshAfter().toMillis());
+        jdbcTemplate.query(RECENT, rs -> {
+            velocity.add(Flow.valueOf(rs.getString(1)), rs.getTimestamp(3).getTime(), 1,
+                    minorUnits(rs.getBigDecimal(2)));
+        }, walletId, new Timestamp(now - Window.DAY.duration.toMillis()));
+        return velocity;
+    }
+
+    // Wallets quiet for a day have nothing left to count; failing that, the least recently used goes
+    private void evict(long now) {
+        long quietSince = now - Window.DAY.duration.toMillis();
+        wallets.values().removeIf(velocity -> velocity.lastUsed < quietSince);
+        if (wallets.size() >= properties.getMaxWallets()) {
+            wallets.entrySet().stream()
+                    .min(Comparator.comparingLong(entry -> entry.getValue().lastUsed))
+                    .ifPresent(entry -> wallets.remove(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private static List<Limit> limits(VelocityLimitProperties.Windows windows) {
+        List<Limit> limits = new ArrayList<>(3);
+        addLimit(limits, Window.MINUTE, windows.getMinute());
+        addLimit(limits, Window.HOUR, windows.getHour());
+        addLimit(limits, Window.DAY, windows.getDay());
+        return List.copyOf(limits);
+    }
+
+    private static void addLimit(List<Limit> limits, Window window, VelocityLimitProperties.Limit configured) {
+        if (configured.getCount() == null && configured.getAmount() == null) {
+            return;
+        }
+        limits.add(new Limit(window,
+                configured.getCount() != null ? configured.getCount() : Long.MAX_VALUE,
+                configured.getAmount() != null ? minorUnits(configured.getAmount()) : Long.MAX_VALUE));
+    }
+
+    private static long minorUnits(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private enum Flow {
+        TRANSFER("transfer", "Transfer"),
+        DEPOSIT("deposit", "Deposit"),
+        PAYOUT("payout", "Payout");
+
+        private final String label;
+        private final String title;
+
+        Flow(String label, String title) {
+            this.label = label;
+            this.title = title;
+        }
+    }
+
+    private enum Window {
+        MINUTE(Duration.ofMinutes(1), 12, "minute"),
+        HOUR(Duration.ofHours(1), 12, "hour"),
+        DAY(Duration.ofDays(1), 24, "day");
+
+        private final Duration duration;
+        private final int buckets;
+        private final String label;
+
+        Window(Duration duration, int buckets, String label) {
+            this.duration = duration;
+            this.buckets = buckets;
+            this.label = label;
+        }
+    }
+
+    // Count and amount (in minor units) are Long.MAX_VALUE when only the other one is limited
+    private record Limit(Window window, long count, long amount) {
+    }
+
+    private static final class WalletVelocity {
+
+        private final SlidingWindowCounter[][] counters =
+                new SlidingWindowCounter[Flow.values().length][Window.values().length];
+        private final long staleAt;
+        private volatile long lastUsed;
+
+        WalletVelocity(long now, long staleAt) {
+            this.staleAt = staleAt;
+            this.lastUsed = now;
+            for (Flow flow : Flow.values()) {
+                for (Window window : Window.values()) {
+                    counters[flow.ordinal()][window.ordinal()] = new SlidingWindowCounter(window.duration, window.buckets);
+                }
+            }
+        }
+
+        boolean isFresh(long now) {
+            return now < staleAt;
+        }
+
+        SlidingWindowCounter counter(Flow flow, Window window) {
+            return counters[flow.ordinal()][window.ordinal()];
+        }
+
+        void add(Flow flow, long at, int count, long amount) {
+            for (SlidingWindowCounter counter : counters[flow.ordinal()]) {
+                counter.add(at, count, amount);
+            }
+        }
+
+        void remove(Flow flow, long at, int count, long amount) {
+            for (SlidingWindowCounter counter : counters[flow.ordinal()]) {
+                counter.remove(at, count, amount);
+            }
+        }
+    }
+}
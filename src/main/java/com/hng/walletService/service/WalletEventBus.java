@@ -0,0 +1,101 @@
+package com.hng.walletService.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process fan-out of wallet changes to the clients streaming {@code /wallet/events}.
+ * <p>
+ * Services publish a {@link WalletEvent} through Spring's {@code ApplicationEventPublisher}; it
+ * reaches subscribers only once the publishing transaction has committed, and straight away when
+ * there is none. Each wallet has its own sink, created for its first subscriber and dropped with
+ * its last, and at most {@code wallet.events.max-connections-per-user} subscribers. Every
+ * subscriber buffers up to {@code wallet.events.buffer-size} events; a client that reads slower
+ * than that loses the oldest ones rather than holding up the publisher.
+ */
+@Service
+public class WalletEventBus {
+
+    /**
+     * A change to one wallet: {@code name} is the SSE event name and {@code data} its JSON body.
+     */
+    public record WalletEvent(Long walletId, String name, Object data) {
+    }
+
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final Counter dropped;
+
+    @Value("${wallet.events.max-connections-per-user:3}")
+    private int maxConnectionsPerWallet = 3;
+
+    @Value("${wallet.events.buffer-size:32}")
+    private int bufferSize = 32;
+
+    public WalletEventBus(MeterRegistry meterRegistry) {
+        Gauge.builder("wallet.events.subscribers", channels,
+                        map -> map.values().stream().mapToInt(channel -> channel.subscribers).sum())
+                .description("Clients streaming wallet events from this node")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("wallet.events.dropped")
+                .description("Wallet events discarded because a client read too slowly")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Events for one wallet, or empty if it already has the maximum number of subscribers. The
+     * slot is taken now and given back when the returned flux terminates or is cancelled, so the
+     * caller has to subscribe to it.
+     */
+    public Optional<Flux<WalletEvent>> subscribe(Long walletId) {
+        boolean[] admitted = {false};
+        Channel channel = channels.compute(walletId, (id, existing) -> {
+            Channel current = existing != null ? existing : new Channel();
+            if (current.subscribers < maxConnectionsPerWallet) {
+                current.subscribers++;
+                admitted[0] = true;
+            }
+            return current;
+        });
+        if (!admitted[0]) {
+            return Optional.empty();
+        }
+
+        return Optional.of(channel.sink.asFlux()
+                .onBackpressureBuffer(bufferSize, event -> dropped.increment(), BufferOverflowStrategy.DROP_OLDEST)
+                .doFinally(signal -> release(walletId, channel)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(WalletEvent event) {
+        Channel channel = channels.get(event.walletId());
+        if (channel == null) {
+            return;
+        }
+        // A sink accepts one emitter at a time; every subscriber buffers, so this never blocks
+        synchronized (channel) {
+            channel.sink.tryEmitNext(event);
+        }
+    }
+
+    private void release(Long walletId, Channel channel) {
+        channels.computeIfPresent(walletId, (id, current) ->
+                current == channel && --current.subscribers == 0 ? null : current);
+    }
+
+    private static final class Channel {
+        private final Sinks.Many<WalletEvent> sink = Sinks.many().multicast().directBestEffort();
+        // Only changed inside channels.compute, which holds the map's lock for this wallet
+        private volatile int subscribers;
+    }
+}
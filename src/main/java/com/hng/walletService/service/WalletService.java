@@ -1,23 +1,31 @@
 package com.hng.walletService.service;
 
+import com.hng.walletService.model.dto.response.BalanceResponse;
 import com.hng.walletService.model.entity.UserEntity;
 import com.hng.walletService.model.entity.WalletEntity;
 import com.hng.walletService.repository.WalletRepository;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 
 @Slf4j
 @Service
+@Observed
 @RequiredArgsConstructor
 public class WalletService {
 
     private final WalletRepository walletRepository;
-    private static final SecureRandom random = new SecureRandom();
+    private final ApplicationEventPublisher eventPublisher;
+    private final WalletStatsRecorder walletStatsRecorder;
+    private static final long WALLET_NUMBER_BOUND = 10_000_000_000_000L;
+    private static final SecureRandom random = drbg();
 
     @Transactional
     public WalletEntity createWallet(UserEntity user) {
@@ -41,16 +49,19 @@ public class WalletService {
         return savedWallet;
     }
 
+    @Transactional(readOnly = true)
     public WalletEntity getWalletByUser(UserEntity user) {
         return walletRepository.findByUserId(user.getId())
                 .orElseThrow(() -> new RuntimeException("Wallet not found for user"));
     }
 
+    @Transactional(readOnly = true)
     public WalletEntity getWalletByUserId(Long userId) {
         return walletRepository.findByUserId(userId)
                 .orElseThrow(() -> new RuntimeException("Wallet not found for user"));
     }
 
+    @Transactional(readOnly = true)
     public WalletEntity getWalletByWalletNumber(String walletNumber) {
         return walletRepository.findByWalletNumber(walletNumber)
                 .orElseThrow(() -> new RuntimeException("Wallet not found"));
@@ -72,6 +83,8 @@ public class WalletService {
 
         wallet.credit(amount);
         walletRepository.save(wallet);
+        walletStatsRecorder.record(wallet, amount);
+        publishBalance(wallet);
         log.info("Wallet {} credited with {}", wallet.getWalletNumber(), amount);
     }
 
@@ -95,9 +108,21 @@ public class WalletService {
 
         wallet.debit(amount);
         walletRepository.save(wallet);
+        walletStatsRecorder.record(wallet, amount.negate());
+        publishBalance(wallet);
         log.info("Wallet {} debited with {}", wallet.getWalletNumber(), amount);
     }
 
+    // Delivered to /wallet/events subscribers after the transaction commits
+    private void publishBalance(WalletEntity wallet) {
+        eventPublisher.publishEvent(new WalletEventBus.WalletEvent(wallet.getId(), "balance",
+                BalanceResponse.builder()
+                        .balance(wallet.getBalance())
+                        .walletNumber(wallet.getWalletNumber())
+                        .build()));
+    }
+
+    @Transactional(readOnly = true)
     public boolean walletExists(String walletNumber) {
         return walletRepository.existsByWalletNumber(walletNumber);
     }
@@ -120,10 +145,15 @@ public class WalletService {
     }
 
     private String generateWalletNumber() {
-        StringBuilder sb = new StringBuilder(13);
-        for (int i = 0; i < 13; i++) {
-            sb.append(random.nextInt(10));
+        // One draw for all 13 digits rather than one per digit, each of which takes the generator's lock
+        return String.format("%013d", random.nextLong(WALLET_NUMBER_BOUND));
+    }
+
+    private static SecureRandom drbg() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
         }
-        return sb.toString();
     }
 }
@@ -0,0 +1,220 @@
+package com.hng.walletService.service;
+
+import com.hng.walletService.config.ConnectionPool;
+import com.hng.walletService.config.ConnectionPoolRoutingDataSource;
+import com.hng.walletService.config.UseConnectionPool;
+import com.hng.walletService.repository.WalletDailyStatsRepository;
+import com.hng.walletService.repository.WalletDailyStatsRepository.DailyStats;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fills {@code wallet_daily_stats} for the days before {@link WalletStatsRecorder} was recording
+ * them, from the {@code transactions} ledger. Run once after upgrading.
+ * <p>
+ * Wallets are taken in slices of {@code wallet.stats.backfill.slice-size} ids, which
+ * {@code wallet.stats.backfill.parallelism} workers claim in turn. Each slice is one
+ * repeatable-read transaction: it sums the successful transactions of its wallets per day and
+ * walks each wallet's days backwards to get the opening and closing balance of each day, so the
+ * figures hold even for rows that carry no balances. The walk starts from the opening balance of
+ * the wallet's first day in the table, or from its balance at the start of today when it has none.
+ * <p>
+ * Only days before a wallet's first row are written. The ledger does not split a day's movements
+ * the way the recorder does (a payout is a debit per line in {@code transactions} but one debit of
+ * the reserved total, and a credit for any refund, in the stats), so a day the recorder has written
+ * is never touched; nor is today, which belongs to the recorder. Running it again therefore writes
+ * nothing for wallets it has already filled. Transactions already archived out of the table are not
+ * counted.
+ */
+@Slf4j
+@Service
+@UseConnectionPool(ConnectionPool.JOBS)
+public class WalletStatsBackfill {
+
+    // A transaction credits its wallet when it is a deposit or the receiving side of a transfer
+    private static final String DAILY_TOTALS = """
+            SELECT wallet_id, CAST(updated_at AS DATE) AS stats_date,
+                   SUM(CASE WHEN type = 'DEPOSIT' OR sender_wallet_number IS NOT NULL THEN amount ELSE 0 END),
+                   SUM(CASE WHEN type = 'DEPOSIT' OR sender_wallet_number IS NOT NULL THEN 0 ELSE amount END),
+                   SUM(CASE WHEN type = 'DEPOSIT' OR sender_wallet_number IS NOT NULL THEN 1 ELSE 0 END),
+                   SUM(CASE WHEN type = 'DEPOSIT' OR sender_wallet_number IS NOT NULL THEN 0 ELSE 1 END)
+            FROM transactions
+            WHERE wallet_id BETWEEN ? AND ? AND status = 'SUCCESS' AND updated_at < ?
+            GROUP BY wallet_id, CAST(updated_at AS DATE)
+            ORDER BY wallet_id, stats_date DESC
+            """;
+
+    private static final String BALANCES = "SELECT id, balance FROM wallets WHERE id BETWEEN ? AND ?";
+    private static final String FIRST_RECORDED = """
+            SELECT wallet_id, stats_date, opening_balance FROM wallet_daily_stats s
+            WHERE wallet_id BETWEEN ? AND ?
+              AND stats_date = (SELECT MIN(stats_date) FROM wallet_daily_stats WHERE wallet_id = s.wallet_id)
+            """;
+    private static final String MOVED_SINCE = """
+            SELECT wallet_id,
+                   SUM(CASE WHEN type = 'DEPOSIT' OR sender_wallet_number IS NOT NULL THEN amount ELSE -amount END)
+            FROM transactions
+            WHERE wallet_id BETWEEN ? AND ? AND status = 'SUCCESS' AND updated_at >= ?
+            GROUP BY wallet_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WalletDailyStatsRepository walletDailyStatsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicInteger wallets = new AtomicInteger();
+    private final AtomicInteger days = new AtomicInteger();
+
+    @Value("${wallet.stats.backfill.slice-size:500}")
+    private int sliceSize = 500;
+
+    @Value("${wallet.stats.backfill.parallelism:2}")
+    private int parallelism = 2;
+
+    public WalletStatsBackfill(JdbcTemplate jdbcTemplate,
+                               WalletDailyStatsRepository walletDailyStatsRepository,
+                               PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.walletDailyStatsRepository = walletDailyStatsRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Balances and transactions are read from one snapshot
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * Starts the backfill in the background unless it is already running. Returns whether it started.
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        executor.execute(ConnectionPoolRoutingDataSource.onSelectedPool(() -> {
+            try {
+                run(LocalDate.now());
+            } catch (RuntimeException e) {
+                log.error("Wallet stats backfill failed: {}", e.getMessage(), e);
+            } finally {
+                running.set(false);
+            }
+        }));
+        return true;
+    }
+
+    /**
+     * Backfills every day before {@code today} and returns the number of wallets covered.
+     */
+    public int run(LocalDate today) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM wallets", Long.class);
+        if (maxId == null) {
+            return 0;
+        }
+
+        wallets.set(0);
+        days.set(0);
+        AtomicLong nextId = new AtomicLong(1);
+        List<Future<?>> workers = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            workers.add(executor.submit(ConnectionPoolRoutingDataSource.onSelectedPool(() -> {
+                long first;
+                while ((first = nextId.getAndAdd(sliceSize)) <= maxId) {
+                    backfill(first, first + sliceSize - 1, today);
+                }
+            })));
+        }
+
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while backfilling wallet stats", e);
+            } catch (Exception e) {
+                throw new IllegalStateException("Backfilling wallet stats failed", e.getCause());
+            }
+        }
+        log.info("Backfilled {} days of stats for {} wallets", days.get(), wallets.get());
+        return wallets.get();
+    }
+
+    public Progress progress() {
+        return new Progress(running.get(), wallets.get(), days.get());
+    }
+
+    private void backfill(long firstId, long lastId, LocalDate today) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Timestamp cutoff = Timestamp.valueOf(today.atStartOfDay());
+
+            // Balance at the start of today: the current one less what moved since
+            Map<Long, BigDecimal> balances = new HashMap<>();
+            jdbcTemplate.query(BALANCES, rs -> {
+                balances.put(rs.getLong(1), rs.getBigDecimal(2));
+            }, firstId, lastId);
+            jdbcTemplate.query(MOVED_SINCE, rs -> {
+                BigDecimal moved = rs.getBigDecimal(2);
+                balances.computeIfPresent(rs.getLong(1), (id, balance) -> balance.subtract(moved));
+            }, firstId, lastId, cutoff);
+
+            // Wallets the recorder has seen: their balance at the start of their first recorded day
+            Map<Long, LocalDate> firstRecorded = new HashMap<>();
+            jdbcTemplate.query(FIRST_RECORDED, rs -> {
+                firstRecorded.put(rs.getLong(1), rs.getDate(2).toLocalDate());
+                balances.put(rs.getLong(1), rs.getBigDecimal(3));
+            }, firstId, lastId);
+
+            // Newest day first for each wallet
+            Map<Long, List<DailyStats>> byWallet = new LinkedHashMap<>();
+            jdbcTemplate.query(DAILY_TOTALS, rs -> {
+                long walletId = rs.getLong(1);
+                BigDecimal closing = balances.get(walletId);
+                LocalDate date = rs.getDate(2).toLocalDate();
+                LocalDate recordedFrom = firstRecorded.get(walletId);
+                if (closing == null || recordedFrom != null && !date.isBefore(recordedFrom)) {
+                    return;
+                }
+                BigDecimal inflow = rs.getBigDecimal(3);
+                BigDecimal outflow = rs.getBigDecimal(4);
+                BigDecimal opening = closing.subtract(inflow).add(outflow);
+                balances.put(walletId, opening);
+                byWallet.computeIfAbsent(walletId, id -> new ArrayList<>())
+                        .add(new DailyStats(date, inflow, outflow, rs.getInt(5), rs.getInt(6), opening, closing));
+            }, firstId, lastId, cutoff);
+
+            byWallet.forEach((walletId, walletDays) -> {
+                walletDailyStatsRepository.insertAll(walletId, walletDays);
+                days.addAndGet(walletDays.size());
+            });
+            wallets.addAndGet(byWallet.size());
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public record Progress(boolean running, int wallets, int days) {
+    }
+}
@@ -0,0 +1,120 @@
+package com.hng.walletService.service;
+
+import com.hng.walletService.model.entity.WalletEntity;
+import com.hng.walletService.repository.WalletDailyStatsRepository;
+import com.hng.walletService.repository.WalletDailyStatsRepository.Delta;
+import com.hng.walletService.repository.WalletRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps {@code wallet_daily_stats} in step with wallet balances. {@link WalletService} reports
+ * every credit and debit here; the movements of a transaction are summed per wallet and day and
+ * written just before it commits, in the same transaction, so the rollups can never disagree with
+ * the balances.
+ * <p>
+ * The wallets are flushed first, which takes their row locks, and the rollups are written in
+ * (wallet, day) order after that. A wallet's rollup row is therefore only ever written by the
+ * transaction holding the wallet, and rollups add no lock waits or deadlocks of their own.
+ */
+@Component
+@RequiredArgsConstructor
+public class WalletStatsRecorder {
+
+    private final WalletDailyStatsRepository walletDailyStatsRepository;
+    private final WalletRepository walletRepository;
+
+    /**
+     * Records a credit ({@code amount} positive) or debit (negative) already applied to the
+     * wallet. Must be called inside the transaction that changes the balance.
+     */
+    public void record(WalletEntity wallet, BigDecimal amount) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Wallet movements can only be recorded inside a transaction");
+        }
+
+        pending().add(wallet.getId(), LocalDate.now(), amount, wallet.getBalance());
+    }
+
+    // The current transaction's movements; found among its synchronizations, which a REQUIRES_NEW
+    // transaction suspends, rather than bound as a resource, which it would not
+    private Pending pending() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Pending pending && pending.owner() == this) {
+                return pending;
+            }
+        }
+        Pending pending = new Pending();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    private final class Pending implements TransactionSynchronization {
+
+        private final Map<Key, Totals> totals = new TreeMap<>(Comparator
+                .comparing(Key::walletId)
+                .thenComparing(Key::date));
+
+        WalletStatsRecorder owner() {
+            return WalletStatsRecorder.this;
+        }
+
+        void add(Long walletId, LocalDate date, BigDecimal amount, BigDecimal balance) {
+            totals.computeIfAbsent(new Key(walletId, date), key -> new Totals(balance.subtract(amount)))
+                    .add(amount, balance);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (totals.isEmpty()) {
+                return;
+            }
+
+            // Through the repository, so a version conflict surfaces as the usual
+            // OptimisticLockingFailureException that callers retry on
+            walletRepository.flush();
+            List<Delta> deltas = new ArrayList<>(totals.size());
+            totals.forEach((key, day) -> deltas.add(new Delta(key.walletId(), key.date(), day.inflow, day.outflow,
+                    day.credits, day.debits, day.openingBalance, day.closingBalance)));
+            walletDailyStatsRepository.addAll(deltas);
+        }
+    }
+
+    private record Key(Long walletId, LocalDate date) {
+    }
+
+    private static final class Totals {
+
+        private final BigDecimal openingBalance;
+        private BigDecimal inflow = BigDecimal.ZERO;
+        private BigDecimal outflow = BigDecimal.ZERO;
+        private int credits;
+        private int debits;
+        private BigDecimal closingBalance;
+
+        Totals(BigDecimal openingBalance) {
+            this.openingBalance = openingBalance;
+        }
+
+        void add(BigDecimal amount, BigDecimal balance) {
+            if (amount.signum() >= 0) {
+                inflow = inflow.add(amount);
+                credits++;
+            } else {
+                outflow = outflow.add(amount.negate());
+                debits++;
+            }
+            closingBalance = balance;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.hng.walletService.service;
+
+import com.hng.walletService.exception.InvalidRequestException;
+import com.hng.walletService.model.dto.response.DailyStatsResponse;
+import com.hng.walletService.model.dto.response.WalletStatsResponse;
+import com.hng.walletService.model.entity.UserEntity;
+import com.hng.walletService.model.entity.WalletEntity;
+import com.hng.walletService.repository.WalletDailyStatsRepository;
+import com.hng.walletService.repository.WalletDailyStatsRepository.DailyStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+
+/**
+ * Wallet statements from {@code wallet_daily_stats} alone: a range costs one read of at most one
+ * row per day, however many transactions the wallet has.
+ */
+@Service
+@RequiredArgsConstructor
+public class WalletStatsService {
+
+    private final WalletService walletService;
+    private final WalletDailyStatsRepository walletDailyStatsRepository;
+
+    @Value("${wallet.stats.default-window:P30D}")
+    private Period defaultWindow = Period.ofDays(30);
+
+    @Value("${wallet.stats.max-window:P1Y}")
+    private Period maxWindow = Period.ofYears(1);
+
+    /**
+     * Totals and daily figures for {@code from} through {@code to}. A missing {@code to} means
+     * today and a missing {@code from} one {@code wallet.stats.default-window} before it; ranges
+     * longer than {@code wallet.stats.max-window} are rejected.
+     */
+    @Transactional(readOnly = true)
+    public WalletStatsResponse getStats(UserEntity user, LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minus(defaultWindow);
+        if (start.isAfter(end)) {
+            throw new InvalidRequestException("from must not be after to");
+        }
+        if (start.isBefore(end.minus(maxWindow))) {
+            throw new InvalidRequestException("Date range is longer than " + maxWindow);
+        }
+
+        WalletEntity wallet = walletService.getWalletByUser(user);
+        List<DailyStats> days = walletDailyStatsRepository.findRange(wallet.getId(), start, end);
+
+        BigDecimal inflow = BigDecimal.ZERO;
+        BigDecimal outflow = BigDecimal.ZERO;
+        int credits = 0;
+        int debits = 0;
+        for (DailyStats day : days) {
+            inflow = inflow.add(day.inflow());
+            outflow = outflow.add(day.outflow());
+            credits += day.creditCount();
+            debits += day.debitCount();
+        }
+
+        BigDecimal openingBalance;
+        BigDecimal closingBalance;
+        if (!days.isEmpty()) {
+            openingBalance = days.getFirst().openingBalance();
+            closingBalance = days.getLast().closingBalance();
+        } else {
+            // Nothing moved in the range, so the balance throughout is the one it was left at
+            // before, or started the next movement with
+            openingBalance = walletDailyStatsRepository.findLastBefore(wallet.getId(), start)
+                    .map(DailyStats::closingBalance)
+                    .or(() -> walletDailyStatsRepository.findFirstAfter(wallet.getId(), end)
+                            .map(DailyStats::openingBalance))
+                    .orElse(wallet.getBalance());
+            closingBalance = openingBalance;
+        }
+
+        return WalletStatsResponse.builder()
+                .walletNumber(wallet.getWalletNumber())
+                .from(start)
+                .to(end)
+                .inflow(inflow)
+                .outflow(outflow)
+                .creditCount(credits)
+                .debitCount(debits)
+                .openingBalance(openingBalance)
+                .closingBalance(closingBalance)
+                .days(days.stream().map(WalletStatsService::mapToResponse).toList())
+                .build();
+    }
+
+    private static DailyStatsResponse mapToResponse(DailyStats day) {
+        return DailyStatsResponse.builder()
+                .date(day.date())
+                .inflow(day.inflow())
+                .outflow(day.outflow())
+                .creditCount(day.creditCount())
+                .debitCount(day.debitCount())
+                .openingBalance(day.openingBalance())
+                .closingBalance(day.closingBalance())
+                .build();
+    }
+}
@@ -0,0 +1,126 @@
+package com.hng.walletService.util;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process HdrHistogram latency recorders, one per controller method or Paystack call.
+ * <p>
+ * Writers go through a {@link Recorder}, so recording is wait-free and never contends with a
+ * reader. On each rotation the recorder's interval histogram is swapped out and kept as the
+ * previous interval; a diagnostics read drains whatever has been recorded since into the current
+ * interval without disturbing the rotation. Values are stored in microseconds with two significant
+ * digits, which keeps each histogram to a few tens of kilobytes.
+ */
+@Component
+public class LatencyRecorder {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final Map<String, Interval> intervals = new ConcurrentHashMap<>();
+
+    @Value("${wallet.latency.expected-interval:100ms}")
+    private Duration expectedInterval = Duration.ofMillis(100);
+
+    public void record(String name, long durationNanos) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(durationNanos), HIGHEST_TRACKABLE_MICROS);
+        intervals.computeIfAbsent(name, key -> new Interval()).recorder.recordValue(micros);
+    }
+
+    @Scheduled(fixedRateString = "${wallet.latency.interval:PT1M}")
+    public void rotate() {
+        intervals.values().forEach(Interval::rotate);
+    }
+
+    /**
+     * Summaries of the interval in progress and the last completed one, keyed by recorder name.
+     * Corrected values assume callers arrive every {@code wallet.latency.expected-interval}, so a
+     * stall also accounts for the requests that would have queued behind it.
+     */
+    public Map<String, LatencySummary> snapshot() {
+        long expectedMicros = Math.max(1, expectedInterval.toNanos() / 1_000);
+        Map<String, LatencySummary> summaries = new TreeMap<>();
+        intervals.forEach((name, interval) -> summaries.put(name, interval.summarize(expectedMicros)));
+        return summaries;
+    }
+
+    public record LatencySummary(IntervalSummary current, IntervalSummary previous) {
+    }
+
+    public record IntervalSummary(Instant start, Instant end, Percentiles recorded, Percentiles corrected) {
+
+        private static IntervalSummary of(Histogram histogram, long expectedMicros) {
+            if (histogram == null) {
+                return null;
+            }
+            return new IntervalSummary(
+                    Instant.ofEpochMilli(histogram.getStartTimeStamp()),
+                    Instant.ofEpochMilli(histogram.getEndTimeStamp()),
+                    Percentiles.of(histogram),
+                    Percentiles.of(histogram.copyCorrectedForCoordinatedOmission(expectedMicros)));
+        }
+    }
+
+    /**
+     * Latency percentiles in milliseconds.
+     */
+    public record Percentiles(long count, double p50, double p90, double p99, double p999, double max) {
+
+        private static Percentiles of(Histogram histogram) {
+            return new Percentiles(
+                    histogram.getTotalCount(),
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()));
+        }
+
+        private static double millis(long micros) {
+            return micros / 1_000.0;
+        }
+    }
+
+    private static final class Interval {
+
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        private Histogram current = newHistogram();
+        private Histogram previous;
+
+        private synchronized void drain() {
+            Histogram recorded = recorder.getIntervalHistogram();
+            current.add(recorded);
+            current.setStartTimeStamp(Math.min(current.getStartTimeStamp(), recorded.getStartTimeStamp()));
+            current.setEndTimeStamp(recorded.getEndTimeStamp());
+        }
+
+        private synchronized void rotate() {
+            drain();
+            previous = current;
+            current = newHistogram();
+            current.setStartTimeStamp(previous.getEndTimeStamp());
+        }
+
+        private synchronized LatencySummary summarize(long expectedMicros) {
+            drain();
+            return new LatencySummary(
+                    IntervalSummary.of(current, expectedMicros),
+                    IntervalSummary.of(previous, expectedMicros));
+        }
+
+        private static Histogram newHistogram() {
+            return new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.hng.walletService.util;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets through one in every {@code rate} INFO-or-lower events from the configured logger
+ * prefixes and drops the rest before a logging event is even created. WARN and ERROR are
+ * never sampled. Configured from logback-spring.xml:
+ * <pre>
+ * &lt;turboFilter class="com.hng.walletService.util.SamplingTurboFilter"&gt;
+ *     &lt;rate&gt;100&lt;/rate&gt;
+ *     &lt;logger&gt;com.hng.walletService.security&lt;/logger&gt;
+ * &lt;/turboFilter&gt;
+ * </pre>
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final List<String> loggers = new ArrayList<>();
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private int rate = 100;
+
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
+    public void addLogger(String logger) {
+        loggers.add(logger);
+    }
+
+    @Override
+    public void start() {
+        if (rate < 1) {
+            addError("Sampling rate must be at least 1");
+            return;
+        }
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format,
+                              Object[] params, Throwable t) {
+        if (!isStarted() || level == null || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        // Only count events that would otherwise be written
+        if (!level.isGreaterOrEqual(logger.getEffectiveLevel()) || !isSampled(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+
+        long count = counters.computeIfAbsent(logger.getName(), name -> new AtomicLong())
+                .getAndIncrement();
+        return count % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean isSampled(String name) {
+        for (String prefix : loggers) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,121 @@
+package com.hng.walletService.util;
+
+import java.time.Duration;
+
+/**
+ * Number and total amount of the events of one sliding window, in a ring of equal time buckets.
+ * <p>
+ * Each bucket remembers which slot of time ({@code timestamp / bucket width}) it holds. A bucket
+ * still holding a slot from an earlier lap of the ring counts as empty and is reset when it is next
+ * written, so nothing ever has to expire old events. The window moves a bucket at a time: an event
+ * stops counting between one bucket short of the window and the full window after it happened.
+ * Reads walk the whole ring, which is a few dozen array reads.
+ * <p>
+ * Timestamps are epoch milliseconds and amounts are in minor units. Not thread-safe.
+ */
+public final class SlidingWindowCounter {
+
+    private final long bucketMillis;
+    private final long[] slots;
+    private final long[] counts;
+    private final long[] amounts;
+
+    public SlidingWindowCounter(Duration window, int buckets) {
+        if (buckets <= 0 || window.toMillis() % buckets != 0) {
+            throw new IllegalArgumentException("Window " + window + " does not split into " + buckets + " buckets");
+        }
+        this.bucketMillis = window.toMillis() / buckets;
+        this.slots = new long[buckets];
+        this.counts = new long[buckets];
+        this.amounts = new long[buckets];
+    }
+
+    /**
+     * Adds an event at {@code at}. An event that has already left the window is ignored.
+     */
+    public void add(long at, long amount) {
+        add(at, 1, amount);
+    }
+
+    /**
+     * Adds {@code count} events at {@code at} that together come to {@code amount}.
+     */
+    public void add(long at, long count, long amount) {
+        long slot = at / bucketMillis;
+        int index = index(slot);
+        if (slots[index] != slot) {
+            if (slots[index] > slot) {
+                return;
+            }
+            slots[index] = slot;
+            counts[index] = 0;
+            amounts[index] = 0;
+        }
+        counts[index] += count;
+        amounts[index] += amount;
+    }
+
+    /**
+     * Takes back an event added at {@code at}, unless it has already left the window.
+     */
+    public void remove(long at, long amount) {
+        remove(at, 1, amount);
+    }
+
+    /**
+     * Takes back {@code count} events added together at {@code at}, unless they have already left
+     * the window.
+     */
+    public void remove(long at, long count, long amount) {
+        long slot = at / bucketMillis;
+        int index = index(slot);
+        if (slots[index] == slot) {
+            counts[index] -= count;
+            amounts[index] -= amount;
+        }
+    }
+
+    public long count(long now) {
+        long oldest = oldestSlot(now);
+        long count = 0;
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] >= oldest) {
+                count += counts[i];
+            }
+        }
+        return count;
+    }
+
+    public long amount(long now) {
+        long oldest = oldestSlot(now);
+        long amount = 0;
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] >= oldest) {
+                amount += amounts[i];
+            }
+        }
+        return amount;
+    }
+
+    /**
+     * Milliseconds until the oldest event still in the window leaves it, or 0 when it is empty.
+     */
+    public long millisUntilNextExpiry(long now) {
+        long oldest = oldestSlot(now);
+        long first = Long.MAX_VALUE;
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] >= oldest && counts[i] > 0) {
+                first = Math.min(first, slots[i]);
+            }
+        }
+        return first == Long.MAX_VALUE ? 0 : (first + slots.length) * bucketMillis - now;
+    }
+
+    private long oldestSlot(long now) {
+        return now / bucketMillis - slots.length + 1;
+    }
+
+    private int index(long slot) {
+        return (int) (slot % slots.length);
+    }
+}
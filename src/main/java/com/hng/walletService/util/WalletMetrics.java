@@ -0,0 +1,70 @@
+package com.hng.walletService.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Times wallet hot paths with percentile-histogram timers tagged by outcome.
+ * Timers are registered once per (name, outcome, exception) and cached, so the per-call cost
+ * is two nanoTime reads and a lock-free histogram update.
+ */
+@Component
+public class WalletMetrics {
+
+    public static final String SUCCESS = "success";
+    public static final String FAILURE = "failure";
+
+    private static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public WalletMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T time(String name, Supplier<T> operation) {
+        long start = System.nanoTime();
+        try {
+            T result = operation.get();
+            record(name, SUCCESS, NONE, System.nanoTime() - start);
+            return result;
+        } catch (RuntimeException e) {
+            record(name, FAILURE, e.getClass().getSimpleName(), System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    public void time(String name, Runnable operation) {
+        time(name, () -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    public void record(String name, String outcome, long durationNanos) {
+        record(name, outcome, NONE, durationNanos);
+    }
+
+    private void record(String name, String outcome, String exception, long durationNanos) {
+        timers.computeIfAbsent(new TimerKey(name, outcome, exception), this::register)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer register(TimerKey key) {
+        return Timer.builder(key.name())
+                .tag("outcome", key.outcome())
+                .tag("exception", key.exception())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private record TimerKey(String name, String outcome, String exception) {
+    }
+}
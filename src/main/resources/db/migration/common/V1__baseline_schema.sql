@@ -0,0 +1,75 @@
+-- The schema as Hibernate's ddl-auto=update created it before migrations took over. Databases that
+-- already have it are baselined at this version and never run this script.
+
+CREATE TABLE users (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email      VARCHAR(255) NOT NULL UNIQUE,
+    name       VARCHAR(255) NOT NULL,
+    google_id  VARCHAR(255) UNIQUE,
+    picture    VARCHAR(255),
+    is_active  BOOLEAN,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6)
+);
+
+CREATE TABLE wallets (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id       BIGINT         NOT NULL UNIQUE REFERENCES users (id),
+    wallet_number VARCHAR(13)    NOT NULL UNIQUE,
+    balance       NUMERIC(19, 2) NOT NULL,
+    is_active     BOOLEAN        NOT NULL,
+    created_at    TIMESTAMP(6)   NOT NULL,
+    updated_at    TIMESTAMP(6)   NOT NULL,
+    version       BIGINT
+);
+
+CREATE INDEX idx_wallet_user_id ON wallets (user_id);
+CREATE INDEX idx_wallet_number ON wallets (wallet_number);
+
+CREATE TABLE transactions (
+    id                      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    wallet_id               BIGINT         NOT NULL REFERENCES wallets (id),
+    reference               VARCHAR(100)   NOT NULL UNIQUE,
+    type                    VARCHAR(20)    NOT NULL CHECK (type IN ('DEPOSIT', 'TRANSFER', 'WITHDRAWAL')),
+    amount                  NUMERIC(19, 2) NOT NULL,
+    status                  VARCHAR(20)    NOT NULL CHECK (status IN ('PENDING', 'SUCCESS', 'FAILED', 'ABANDONED')),
+    recipient_wallet_number VARCHAR(13),
+    sender_wallet_number    VARCHAR(13),
+    description             VARCHAR(500),
+    paystack_reference      VARCHAR(100) UNIQUE,
+    authorization_url       VARCHAR(500),
+    previous_balance        NUMERIC(19, 2),
+    new_balance             NUMERIC(19, 2),
+    metadata                TEXT,
+    created_at              TIMESTAMP(6)   NOT NULL,
+    updated_at              TIMESTAMP(6)   NOT NULL
+);
+
+CREATE INDEX idx_transaction_reference ON transactions (reference);
+CREATE INDEX idx_transaction_wallet_id ON transactions (wallet_id);
+CREATE INDEX idx_transaction_paystack_ref ON transactions (paystack_reference);
+CREATE INDEX idx_transaction_status ON transactions (status);
+CREATE INDEX idx_transaction_type ON transactions (type);
+CREATE INDEX idx_transaction_created_at ON transactions (created_at);
+
+CREATE TABLE api_keys (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id      BIGINT       NOT NULL REFERENCES users (id),
+    name         VARCHAR(255) NOT NULL,
+    key_hash     VARCHAR(255) NOT NULL UNIQUE,
+    key_prefix   VARCHAR(255) NOT NULL,
+    expires_at   TIMESTAMP(6) NOT NULL,
+    is_active    BOOLEAN,
+    is_revoked   BOOLEAN,
+    last_used_at TIMESTAMP(6),
+    created_at   TIMESTAMP(6),
+    updated_at   TIMESTAMP(6)
+);
+
+CREATE INDEX idx_key_hash ON api_keys (key_hash);
+CREATE INDEX idx_user_id ON api_keys (user_id);
+
+CREATE TABLE api_key_permissions (
+    api_key_id BIGINT NOT NULL REFERENCES api_keys (id),
+    permission VARCHAR(255)
+);
@@ -0,0 +1,31 @@
+-- Future-dated and recurring transfers, run by ScheduledTransferRunner.
+--
+-- next_run_at is the occurrence being worked on and attempt_at when it is next tried; they differ
+-- only while a failed run is backing off. A runner claims a due row by setting claim_token and
+-- claimed_until, and a claim that outlives claimed_until is free to be taken by another node.
+
+CREATE TABLE scheduled_transfers (
+    id                      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id                 BIGINT         NOT NULL REFERENCES users (id),
+    recipient_wallet_number VARCHAR(13)    NOT NULL,
+    amount                  NUMERIC(19, 2) NOT NULL,
+    frequency               VARCHAR(10)    NOT NULL CHECK (frequency IN ('ONCE', 'DAILY', 'WEEKLY', 'MONTHLY')),
+    status                  VARCHAR(10)    NOT NULL CHECK (status IN ('ACTIVE', 'COMPLETED', 'FAILED', 'CANCELLED')),
+    first_run_at            TIMESTAMP(6)   NOT NULL,
+    next_run_at             TIMESTAMP(6)   NOT NULL,
+    attempt_at              TIMESTAMP(6)   NOT NULL,
+    max_runs                INTEGER,
+    runs                    INTEGER        NOT NULL,
+    attempts                INTEGER        NOT NULL,
+    last_reference          VARCHAR(100),
+    last_error              VARCHAR(500),
+    claim_token             VARCHAR(36),
+    claimed_until           TIMESTAMP(6),
+    created_at              TIMESTAMP(6)   NOT NULL,
+    updated_at              TIMESTAMP(6)   NOT NULL,
+    version                 BIGINT
+);
+
+-- The claim query walks ACTIVE rows in attempt_at order
+CREATE INDEX idx_scheduled_transfers_due ON scheduled_transfers (status, attempt_at);
+CREATE INDEX idx_scheduled_transfers_user ON scheduled_transfers (user_id, created_at);
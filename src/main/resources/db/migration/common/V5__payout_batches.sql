@@ -0,0 +1,44 @@
+-- Bulk payout files, run by PayoutPipeline.
+--
+-- A batch moves RECEIVED -> VALIDATED -> RESERVED -> COMPLETED, or to FAILED when the merchant
+-- cannot cover it. Each item moves PENDING -> VALID -> SUCCESS or FAILED, or to INVALID when its
+-- line or its wallet is rejected. Every transition is a conditional update, so a batch picked up
+-- again after a restart carries on from where it stopped.
+
+CREATE TABLE payout_batches (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id         BIGINT         NOT NULL REFERENCES users (id),
+    wallet_id       BIGINT         NOT NULL REFERENCES wallets (id),
+    file_name       VARCHAR(255),
+    status          VARCHAR(10)    NOT NULL CHECK (status IN ('RECEIVED', 'VALIDATED', 'RESERVED', 'COMPLETED', 'FAILED')),
+    total_items     INTEGER        NOT NULL,
+    invalid_items   INTEGER        NOT NULL,
+    succeeded_items INTEGER        NOT NULL,
+    failed_items    INTEGER        NOT NULL,
+    reserved_amount NUMERIC(19, 2),
+    refunded_amount NUMERIC(19, 2),
+    error           VARCHAR(500),
+    created_at      TIMESTAMP(6)   NOT NULL,
+    updated_at      TIMESTAMP(6)   NOT NULL,
+    completed_at    TIMESTAMP(6)
+);
+
+CREATE INDEX idx_payout_batches_user ON payout_batches (user_id, created_at);
+-- Finds unfinished batches that nothing has touched for a while
+CREATE INDEX idx_payout_batches_open ON payout_batches (status, updated_at);
+
+CREATE TABLE payout_items (
+    id                      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    batch_id                BIGINT         NOT NULL REFERENCES payout_batches (id),
+    line_number             INTEGER        NOT NULL,
+    recipient_wallet_number VARCHAR(32),
+    amount                  NUMERIC(19, 2),
+    client_reference        VARCHAR(100),
+    status                  VARCHAR(10)    NOT NULL CHECK (status IN ('PENDING', 'INVALID', 'VALID', 'SUCCESS', 'FAILED')),
+    error                   VARCHAR(255),
+    transaction_reference   VARCHAR(100),
+    UNIQUE (batch_id, line_number)
+);
+
+-- Validation and the apply stage read one batch's items by status, grouped by recipient
+CREATE INDEX idx_payout_items_apply ON payout_items (batch_id, status, recipient_wallet_number, line_number);
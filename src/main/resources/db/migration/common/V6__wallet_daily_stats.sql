@@ -0,0 +1,15 @@
+-- Per-wallet daily totals, kept up to date by WalletStatsRecorder in the transaction of every
+-- credit and debit, so statements and /wallet/stats never aggregate transactions. A day a wallet
+-- did not move has no row. Days before the table existed are filled in by WalletStatsBackfill.
+
+CREATE TABLE wallet_daily_stats (
+    wallet_id       BIGINT         NOT NULL REFERENCES wallets (id),
+    stats_date      DATE           NOT NULL,
+    inflow          NUMERIC(19, 2) NOT NULL,
+    outflow         NUMERIC(19, 2) NOT NULL,
+    credit_count    INTEGER        NOT NULL,
+    debit_count     INTEGER        NOT NULL,
+    opening_balance NUMERIC(19, 2) NOT NULL,
+    closing_balance NUMERIC(19, 2) NOT NULL,
+    PRIMARY KEY (wallet_id, stats_date)
+);
@@ -0,0 +1,6 @@
+-- The tier a wallet's velocity limits are taken from (wallet.velocity.tiers.* in the application
+-- properties). Every existing wallet starts on STANDARD; with a constant default PostgreSQL adds
+-- the column without rewriting the table.
+
+ALTER TABLE wallets ADD COLUMN tier VARCHAR(20) DEFAULT 'STANDARD' NOT NULL
+    CHECK (tier IN ('STANDARD', 'VERIFIED', 'BUSINESS'));
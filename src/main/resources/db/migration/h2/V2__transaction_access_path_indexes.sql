@@ -0,0 +1,15 @@
+-- H2 version of postgresql/V2. H2 has no partial indexes, so the pending index leads with
+-- status instead of filtering on it.
+
+CREATE INDEX idx_transactions_wallet_created ON transactions (wallet_id, created_at DESC, id);
+CREATE INDEX idx_transactions_pending ON transactions (status, type, created_at, id);
+
+DROP INDEX IF EXISTS idx_transaction_wallet_id;
+DROP INDEX IF EXISTS idx_transaction_created_at;
+DROP INDEX IF EXISTS idx_transaction_status;
+DROP INDEX IF EXISTS idx_transaction_type;
+DROP INDEX IF EXISTS idx_transaction_reference;
+DROP INDEX IF EXISTS idx_transaction_paystack_ref;
+DROP INDEX IF EXISTS idx_wallet_user_id;
+DROP INDEX IF EXISTS idx_wallet_number;
+DROP INDEX IF EXISTS idx_key_hash;
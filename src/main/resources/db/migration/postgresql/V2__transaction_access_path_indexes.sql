@@ -0,0 +1,24 @@
+-- Every statement is CONCURRENTLY, so Flyway runs this script outside a transaction and
+-- transfers keep writing to the tables while the indexes build.
+
+-- Transaction history reads one wallet newest first. This index serves the filter, the sort
+-- and an id tiebreak for keyset paging from one range scan.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_wallet_created
+    ON transactions (wallet_id, created_at DESC, id);
+
+-- Reconciliation, expiry and the pending-deposit gauge only read PENDING rows. Those are a
+-- small slice of the table that settlements keep shrinking.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_pending
+    ON transactions (type, created_at, id) WHERE status = 'PENDING';
+
+-- Each of these is either a prefix of the indexes above, duplicates the index behind a UNIQUE
+-- constraint, or is too unselective for the planner to use.
+DROP INDEX CONCURRENTLY IF EXISTS idx_transaction_wallet_id;
+DROP INDEX CONCURRENTLY IF EXISTS idx_transaction_created_at;
+DROP INDEX CONCURRENTLY IF EXISTS idx_transaction_status;
+DROP INDEX CONCURRENTLY IF EXISTS idx_transaction_type;
+DROP INDEX CONCURRENTLY IF EXISTS idx_transaction_reference;
+DROP INDEX CONCURRENTLY IF EXISTS idx_transaction_paystack_ref;
+DROP INDEX CONCURRENTLY IF EXISTS idx_wallet_user_id;
+DROP INDEX CONCURRENTLY IF EXISTS idx_wallet_number;
+DROP INDEX CONCURRENTLY IF EXISTS idx_key_hash;
@@ -0,0 +1,121 @@
+-- Converts transactions into monthly range partitions on created_at, so history queries, index
+-- scans and vacuum only touch the months they need. TransactionPartitionService creates future
+-- months and archives old ones.
+--
+-- The rows are copied inside this migration's transaction and the table is locked until it
+-- commits, so run it in a maintenance window on a large ledger.
+
+-- A partitioned table's unique constraints must include the partition key. References stay
+-- globally unique through this side table, which a trigger keeps in step with transactions.
+-- Its rows outlive archived partitions, so an archived reference is never reused.
+CREATE TABLE transaction_keys (
+    transaction_id     BIGINT PRIMARY KEY,
+    created_at         TIMESTAMP(6) NOT NULL,
+    reference          VARCHAR(100) NOT NULL UNIQUE,
+    paystack_reference VARCHAR(100) UNIQUE
+);
+
+ALTER TABLE transactions RENAME TO transactions_unpartitioned;
+
+-- Identity columns on partitioned tables need PostgreSQL 17, so ids come from a plain sequence
+CREATE SEQUENCE transaction_id_seq;
+
+CREATE TABLE transactions (
+    id                      BIGINT         NOT NULL DEFAULT nextval('transaction_id_seq'),
+    wallet_id               BIGINT         NOT NULL,
+    reference               VARCHAR(100)   NOT NULL,
+    type                    VARCHAR(20)    NOT NULL CHECK (type IN ('DEPOSIT', 'TRANSFER', 'WITHDRAWAL')),
+    amount                  NUMERIC(19, 2) NOT NULL,
+    status                  VARCHAR(20)    NOT NULL CHECK (status IN ('PENDING', 'SUCCESS', 'FAILED', 'ABANDONED')),
+    recipient_wallet_number VARCHAR(13),
+    sender_wallet_number    VARCHAR(13),
+    description             VARCHAR(500),
+    paystack_reference      VARCHAR(100),
+    authorization_url       VARCHAR(500),
+    previous_balance        NUMERIC(19, 2),
+    new_balance             NUMERIC(19, 2),
+    metadata                TEXT,
+    created_at              TIMESTAMP(6)   NOT NULL,
+    updated_at              TIMESTAMP(6)   NOT NULL
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE transaction_id_seq OWNED BY transactions.id;
+
+-- Creates the partition holding the given month, named transactions_YYYY_MM, if it is missing
+CREATE FUNCTION ensure_transaction_partition(month DATE) RETURNS TEXT
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    month_start DATE := date_trunc('month', month);
+    partition   TEXT := format('transactions_%s', to_char(month_start, 'YYYY_MM'));
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF transactions FOR VALUES FROM (%L) TO (%L)',
+                   partition, month_start, month_start + INTERVAL '1 month');
+    RETURN partition;
+END
+$$;
+
+DO
+$$
+DECLARE
+    month DATE := date_trunc('month', coalesce((SELECT min(created_at) FROM transactions_unpartitioned), now()));
+BEGIN
+    WHILE month <= date_trunc('month', now()) + INTERVAL '3 months' LOOP
+        PERFORM ensure_transaction_partition(month);
+        month := month + INTERVAL '1 month';
+    END LOOP;
+END
+$$;
+
+INSERT INTO transactions (id, wallet_id, reference, type, amount, status, recipient_wallet_number,
+                          sender_wallet_number, description, paystack_reference, authorization_url,
+                          previous_balance, new_balance, metadata, created_at, updated_at)
+SELECT id, wallet_id, reference, type, amount, status, recipient_wallet_number,
+       sender_wallet_number, description, paystack_reference, authorization_url,
+       previous_balance, new_balance, metadata, created_at, updated_at
+FROM transactions_unpartitioned;
+
+INSERT INTO transaction_keys (transaction_id, created_at, reference, paystack_reference)
+SELECT id, created_at, reference, paystack_reference
+FROM transactions_unpartitioned;
+
+SELECT setval('transaction_id_seq', coalesce((SELECT max(id) FROM transactions), 0) + 1, false);
+
+DROP TABLE transactions_unpartitioned;
+
+-- Built after the copy, which is much faster than maintaining them row by row
+ALTER TABLE transactions ADD CONSTRAINT transactions_pkey PRIMARY KEY (id, created_at);
+ALTER TABLE transactions ADD CONSTRAINT transactions_wallet_id_fkey FOREIGN KEY (wallet_id) REFERENCES wallets (id);
+CREATE INDEX idx_transactions_wallet_created ON transactions (wallet_id, created_at DESC, id);
+CREATE INDEX idx_transactions_pending ON transactions (type, created_at, id) WHERE status = 'PENDING';
+-- Lookups by reference carry no date, so each partition needs its own index to probe
+CREATE INDEX idx_transactions_reference ON transactions (reference);
+CREATE INDEX idx_transactions_paystack_reference ON transactions (paystack_reference);
+
+CREATE FUNCTION sync_transaction_keys() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO transaction_keys (transaction_id, created_at, reference, paystack_reference)
+        VALUES (NEW.id, NEW.created_at, NEW.reference, NEW.paystack_reference);
+    ELSE
+        UPDATE transaction_keys
+        SET reference = NEW.reference, paystack_reference = NEW.paystack_reference
+        WHERE transaction_id = NEW.id;
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER transactions_keys_insert
+    AFTER INSERT ON transactions
+    FOR EACH ROW EXECUTE FUNCTION sync_transaction_keys();
+
+-- Hibernate writes every column on update, so only fire when a reference actually changed
+CREATE TRIGGER transactions_keys_update
+    AFTER UPDATE OF reference, paystack_reference ON transactions
+    FOR EACH ROW
+    WHEN (OLD.reference IS DISTINCT FROM NEW.reference
+        OR OLD.paystack_reference IS DISTINCT FROM NEW.paystack_reference)
+EXECUTE FUNCTION sync_transaction_keys();
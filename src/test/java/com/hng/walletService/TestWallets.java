@@ -0,0 +1,54 @@
+package com.hng.walletService;
+
+import com.hng.walletService.model.entity.UserEntity;
+import com.hng.walletService.model.entity.WalletEntity;
+import com.hng.walletService.model.enums.WalletTier;
+import com.hng.walletService.repository.UserRepository;
+import com.hng.walletService.repository.WalletRepository;
+import com.hng.walletService.service.WalletService;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Seeds a fresh user and wallet for a test. Pull it in with {@code @Import(TestWallets.class)}.
+ */
+@TestComponent
+public class TestWallets {
+
+    private static final AtomicInteger USER_IDS = new AtomicInteger();
+
+    private final UserRepository userRepository;
+    private final WalletRepository walletRepository;
+    private final WalletService walletService;
+
+    public TestWallets(UserRepository userRepository, WalletRepository walletRepository, WalletService walletService) {
+        this.userRepository = userRepository;
+        this.walletRepository = walletRepository;
+        this.walletService = walletService;
+    }
+
+    public WalletEntity seed(String balance) {
+        return seed(balance, WalletTier.STANDARD);
+    }
+
+    /**
+     * Saves a new user with a wallet holding {@code balance}; the returned wallet has its user set.
+     */
+    public WalletEntity seed(String balance, WalletTier tier) {
+        int id = USER_IDS.incrementAndGet();
+        UserEntity user = userRepository.save(UserEntity.builder()
+                .email("wallet" + id + "@test.local")
+                .name("Wallet " + id)
+                .googleId("wallet-" + id)
+                .isActive(true)
+                .build());
+        WalletEntity wallet = walletService.createWallet(user);
+        wallet.setBalance(new BigDecimal(balance));
+        wallet.setTier(tier);
+        WalletEntity saved = walletRepository.save(wallet);
+        saved.setUser(user);
+        return saved;
+    }
+}
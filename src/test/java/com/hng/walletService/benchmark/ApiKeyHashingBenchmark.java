@@ -0,0 +1,56 @@
+package com.hng.walletService.benchmark;
+
+import com.hng.walletService.service.ApiKeyService;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * API key generation and the SHA-256 hash computed on every API key request. The helpers are
+ * private, so they are reached through method handles, which the JIT inlines like direct calls.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApiKeyHashingBenchmark {
+
+    private static final MethodHandle HASH_API_KEY;
+    private static final MethodHandle GENERATE_API_KEY;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(ApiKeyService.class, MethodHandles.lookup());
+            HASH_API_KEY = lookup.findVirtual(ApiKeyService.class, "hashApiKey",
+                    MethodType.methodType(String.class, String.class));
+            GENERATE_API_KEY = lookup.findVirtual(ApiKeyService.class, "generateApiKey",
+                    MethodType.methodType(String.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private ApiKeyService apiKeyService;
+    private String apiKey;
+
+    @Setup
+    public void setUp() throws Throwable {
+        apiKeyService = new ApiKeyService(null, null);
+        apiKey = (String) GENERATE_API_KEY.invokeExact(apiKeyService);
+    }
+
+    @Benchmark
+    public String hashApiKey() throws Throwable {
+        return (String) HASH_API_KEY.invokeExact(apiKeyService, apiKey);
+    }
+
+    @Benchmark
+    public String generateApiKey() throws Throwable {
+        return (String) GENERATE_API_KEY.invokeExact(apiKeyService);
+    }
+}
@@ -0,0 +1,140 @@
+package com.hng.walletService.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the JMH benchmarks in this package and compares each score with the committed baseline.
+ * This is the entry point of the {@code benchmark} Maven profile:
+ * <pre>
+ * mvn -Pbenchmark verify
+ * mvn -Pbenchmark verify -Dbenchmark.include=JwtBenchmark
+ * mvn -Pbenchmark verify -Dbenchmark.update-baseline=true
+ * </pre>
+ * A score more than {@code benchmark.tolerance} worse than its baseline, with the two 99.9%
+ * confidence intervals not overlapping, fails the build. Baselines
+ * are only comparable on the machine that recorded them, so re-record them when the CI runner
+ * changes.
+ */
+public final class BenchmarkRunner {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String include = System.getProperty("benchmark.include", BenchmarkRunner.class.getPackageName() + ".*");
+        Path baselineFile = Path.of(System.getProperty("benchmark.baseline", "benchmarks/baseline.json"));
+        Path resultFile = Path.of(System.getProperty("benchmark.result", "target/jmh-result.json"));
+        double tolerance = Double.parseDouble(System.getProperty("benchmark.tolerance", "0.25"));
+        boolean updateBaseline = Boolean.getBoolean("benchmark.update-baseline");
+
+        Files.createDirectories(resultFile.toAbsolutePath().getParent());
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(include)
+                // Reports gc.alloc.rate.norm, the bytes each operation allocates, next to its score
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile.toString())
+                .build()).run();
+
+        Map<String, Baseline> current = results.stream().collect(Collectors.toMap(
+                BenchmarkRunner::key, BenchmarkRunner::toBaseline, (a, b) -> a, TreeMap::new));
+        if (!compareWithBaseline(current, baselineFile, tolerance, updateBaseline)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Prints each score against its baseline, or records the scores as the new baseline. Returns
+     * false if any score regressed by more than {@code tolerance}.
+     */
+    static boolean compareWithBaseline(Map<String, Baseline> current, Path baselineFile, double tolerance,
+                                       boolean updateBaseline) throws Exception {
+        Map<String, Baseline> baseline = readBaseline(baselineFile);
+
+        if (updateBaseline) {
+            baseline.putAll(current);
+            Files.createDirectories(baselineFile.toAbsolutePath().getParent());
+            MAPPER.writeValue(baselineFile.toFile(), baseline);
+            System.out.printf("Baseline updated with %d benchmarks: %s%n", current.size(), baselineFile);
+            return true;
+        }
+
+        List<String> regressions = new ArrayList<>();
+        System.out.printf("%n%-70s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        current.forEach((name, score) -> {
+            Baseline expected = baseline.get(name);
+            if (expected == null) {
+                System.out.printf("%-70s %14s %14.3f %9s  %s%n", name, "-", score.score(), "new", score.unit());
+                return;
+            }
+            double change = score.score() / expected.score() - 1;
+            // Throughput regresses when it drops, every other mode when the time grows
+            boolean regressed = Mode.Throughput.shortLabel().equals(score.mode())
+                    ? change < -tolerance && score.score() + score.error() < expected.score() - expected.error()
+                    : change > tolerance && score.score() - score.error() > expected.score() + expected.error();
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%%  %s%s%n", name, expected.score(), score.score(),
+                    change * 100, score.unit(), regressed ? "  REGRESSION" : "");
+            if (regressed) {
+                regressions.add(name);
+            }
+        });
+
+        if (!regressions.isEmpty()) {
+            System.out.printf("%n%d benchmark(s) regressed by more than %.0f%%: %s%n",
+                    regressions.size(), tolerance * 100, regressions);
+            return false;
+        }
+        return true;
+    }
+
+    private static String key(RunResult result) {
+        BenchmarkParams params = result.getParams();
+        String benchmark = params.getBenchmark();
+        String name = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+        if (params.getParamsKeys().isEmpty()) {
+            return name;
+        }
+        return name + params.getParamsKeys().stream()
+                .map(key -> key + "=" + params.getParam(key))
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private static Baseline toBaseline(RunResult result) {
+        Result<?> primary = result.getPrimaryResult();
+        double error = Double.isNaN(primary.getScoreError()) ? 0 : primary.getScoreError();
+        return new Baseline(result.getParams().getMode().shortLabel(), primary.getScore(), error,
+                primary.getScoreUnit());
+    }
+
+    private static Map<String, Baseline> readBaseline(Path file) throws Exception {
+        if (!Files.exists(file)) {
+            return new TreeMap<>();
+        }
+        return MAPPER.readValue(file.toFile(), new TypeReference<TreeMap<String, Baseline>>() {
+        });
+    }
+
+    record Baseline(String mode, double score, double error, String unit) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.hng.walletService.benchmark;
+
+import com.hng.walletService.service.TransactionService;
+import com.hng.walletService.service.WalletService;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transaction reference and wallet number generation. Both helpers are private and are reached
+ * through method handles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdentifierGenerationBenchmark {
+
+    private static final MethodHandle GENERATE_REFERENCE;
+    private static final MethodHandle GENERATE_WALLET_NUMBER;
+
+    static {
+        try {
+            GENERATE_REFERENCE = MethodHandles.privateLookupIn(TransactionService.class, MethodHandles.lookup())
+                    .findVirtual(TransactionService.class, "generateReference", MethodType.methodType(String.class));
+            GENERATE_WALLET_NUMBER = MethodHandles.privateLookupIn(WalletService.class, MethodHandles.lookup())
+                    .findVirtual(WalletService.class, "generateWalletNumber", MethodType.methodType(String.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private TransactionService transactionService;
+    private WalletService walletService;
+
+    @Setup
+    public void setUp() {
+        transactionService = new TransactionService(null, null, null, null, null, null);
+        walletService = new WalletService(null, null, null);
+    }
+
+    @Benchmark
+    public String generateReference() throws Throwable {
+        return (String) GENERATE_REFERENCE.invokeExact(transactionService);
+    }
+
+    @Benchmark
+    public String generateWalletNumber() throws Throwable {
+        return (String) GENERATE_WALLET_NUMBER.invokeExact(walletService);
+    }
+}
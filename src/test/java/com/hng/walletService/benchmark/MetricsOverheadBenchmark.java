@@ -0,0 +1,64 @@
+package com.hng.walletService.benchmark;
+
+import com.hng.walletService.util.WalletMetrics;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what {@link WalletMetrics#time} adds to a call, using a Prometheus registry with
+ * percentile histograms as in production. The timed operation is an HMAC over a webhook-sized
+ * body, which is cheaper than any of the instrumented paths (they all hit the database or
+ * Paystack), so the relative overhead here is an upper bound.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    private WalletMetrics walletMetrics;
+    private ThreadLocal<Mac> mac;
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        walletMetrics = new WalletMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+        mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance("HmacSHA512");
+                instance.init(new SecretKeySpec("sk_test_benchmark".getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+                return instance;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        body = "x".repeat(1024).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] uninstrumented() {
+        return mac.get().doFinal(body);
+    }
+
+    @Benchmark
+    public byte[] instrumented() {
+        return walletMetrics.time("wallet.benchmark", () -> mac.get().doFinal(body));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MetricsOverheadBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
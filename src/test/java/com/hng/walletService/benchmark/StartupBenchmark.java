@@ -0,0 +1,228 @@
+package com.hng.walletService.benchmark;
+
+import com.hng.walletService.WalletServiceApplication;
+import com.hng.walletService.benchmark.BenchmarkRunner.Baseline;
+import com.hng.walletService.model.entity.UserEntity;
+import com.hng.walletService.repository.UserRepository;
+import com.hng.walletService.service.WalletService;
+import com.hng.walletService.util.JwtUtil;
+import org.h2.tools.Server;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Measures how long the packaged application takes from process start to its first successful
+ * {@code GET /wallet/balance}, on a plain JVM, with Spring AOT and with AOT plus the AppCDS
+ * archive. This is the entry point of the {@code startup} Maven profile, which runs AOT
+ * processing, extracts the jar and records the archive from a training run first:
+ * <pre>
+ * mvn -Pstartup verify
+ * mvn -Pstartup verify -Dbenchmark.update-baseline=true
+ * </pre>
+ * The application runs against an H2 server in this process, so no database has to be
+ * installed; the H2 driver is appended to the jar's class path, as it is in the training run. The
+ * median of {@code startup.runs} starts is compared with {@code benchmarks/baseline.json} under
+ * the same rules as the JMH benchmarks.
+ */
+public final class StartupBenchmark {
+
+    private static final Duration START_TIMEOUT = Duration.ofMinutes(2);
+    private static final String H2_SETTINGS = "MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+    private static final Path H2_JAR = h2Jar();
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    private final Path appDir;
+    private final Path jar;
+    private final List<String> appArgs = new ArrayList<>();
+    private String jwt;
+
+    private StartupBenchmark(Path appDir, Path jar) {
+        this.appDir = appDir;
+        this.jar = jar;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path appDir = Path.of(System.getProperty("startup.dir", "target/startup")).toAbsolutePath();
+        Path jar = appDir.resolve(System.getProperty("startup.jar", "walletService-0.0.1-SNAPSHOT.jar"));
+        int runs = Integer.getInteger("startup.runs", 5);
+        Path baselineFile = Path.of(System.getProperty("benchmark.baseline", "benchmarks/baseline.json"));
+        double tolerance = Double.parseDouble(System.getProperty("benchmark.tolerance", "0.25"));
+        boolean updateBaseline = Boolean.getBoolean("benchmark.update-baseline");
+
+        Map<String, List<String>> modes = new LinkedHashMap<>();
+        modes.put("jvm", List.of());
+        modes.put("aot", List.of("-Dspring.aot.enabled=true"));
+        modes.put("aot+cds", List.of("-Dspring.aot.enabled=true",
+                "-XX:SharedArchiveFile=" + appDir.resolve("application.jsa"), "-Xlog:cds=off"));
+
+        StartupBenchmark benchmark = new StartupBenchmark(appDir, jar);
+        Path dbDir = appDir.resolve("db");
+        FileSystemUtils.deleteRecursively(dbDir);
+        benchmark.seed(dbDir);
+
+        Server database = Server.createTcpServer("-tcpPort", String.valueOf(freePort()), "-baseDir", dbDir.toString())
+                .start();
+        Map<String, Baseline> current = new TreeMap<>();
+        try {
+            benchmark.appArgs.add("--spring.datasource.url=jdbc:h2:tcp://127.0.0.1:" + database.getPort()
+                    + "/wallet;" + H2_SETTINGS);
+            // Untimed, so the first measured mode does not pay for a cold page cache
+            benchmark.timeToFirstBalance("warmup", List.of());
+            for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+                long[] millis = new long[runs];
+                for (int i = 0; i < runs; i++) {
+                    millis[i] = benchmark.timeToFirstBalance(mode.getKey() + "-" + i, mode.getValue());
+                }
+                System.out.printf("%-8s %s ms%n", mode.getKey(), Arrays.toString(millis));
+                current.put("StartupBenchmark.timeToFirstBalance[mode=" + mode.getKey() + "]", summarize(millis));
+            }
+        } finally {
+            database.stop();
+        }
+
+        if (!BenchmarkRunner.compareWithBaseline(current, baselineFile, tolerance, updateBaseline)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Migrates a fresh file database and creates a user with a wallet in it, keeping a token for
+     * that user.
+     */
+    private void seed(Path dbDir) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(WalletServiceApplication.class)
+                .profiles("embedded")
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:file:" + dbDir.resolve("wallet") + ";" + H2_SETTINGS,
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=sa")) {
+            UserEntity user = context.getBean(UserRepository.class).save(UserEntity.builder()
+                    .email("startup@benchmark.local")
+                    .name("Startup Benchmark")
+                    .googleId("startup-benchmark")
+                    .isActive(true)
+                    .build());
+            context.getBean(WalletService.class).createWallet(user);
+            jwt = context.getBean(JwtUtil.class).generateToken(user.getEmail());
+
+            String secret = context.getEnvironment().getRequiredProperty("jwt.secret");
+            appArgs.addAll(List.of(
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=sa",
+                    "--spring.datasource.driver-class-name=org.h2.Driver",
+                    "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                    "--spring.jpa.show-sql=false",
+                    "--jwt.secret=" + secret,
+                    "--spring.security.oauth2.client.registration.google.client-id=startup",
+                    "--spring.security.oauth2.client.registration.google.client-secret=startup",
+                    "--paystack.secret.key=sk_test_startup",
+                    "--paystack.public.key=pk_test_startup",
+                    "--deposit.reconciliation.enabled=false",
+                    "--deposit.expiry.enabled=false",
+                    "--transactions.partitioning.enabled=false",
+                    "--logging.level.root=WARN",
+                    "--logging.level.com.hng.walletService=WARN",
+                    "--logging.level.org.springframework.security=WARN"));
+        }
+    }
+
+    /**
+     * Starts the extracted jar and returns the milliseconds until {@code /wallet/balance} answers
+     * 200. The process output goes to {@code <startup.dir>/logs/<run>.log}.
+     */
+    private long timeToFirstBalance(String run, List<String> jvmOptions) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(jar + File.pathSeparator + H2_JAR);
+        command.add(WalletServiceApplication.class.getName());
+        command.addAll(appArgs);
+        command.add("--server.port=" + port);
+
+        Path log = appDir.resolve("logs").resolve(run + ".log");
+        Files.createDirectories(log.getParent());
+        HttpRequest balance = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/wallet/balance"))
+                .header("Authorization", "Bearer " + jwt)
+                .timeout(Duration.ofSeconds(5))
+                .build();
+
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(appDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            while (System.nanoTime() - started < START_TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue() + ", see " + log);
+                }
+                try {
+                    int status = client.send(balance, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    if (status == 200) {
+                        return Duration.ofNanos(System.nanoTime() - started).toMillis();
+                    }
+                    throw new IllegalStateException("/wallet/balance answered " + status + ", see " + log);
+                } catch (IOException notListeningYet) {
+                    Thread.sleep(10);
+                }
+            }
+            throw new IllegalStateException("Application did not answer within " + START_TIMEOUT + ", see " + log);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    /**
+     * The median start, with the median absolute deviation as its error.
+     */
+    private static Baseline summarize(long[] millis) {
+        double median = median(Arrays.stream(millis).asDoubleStream().toArray());
+        double deviation = median(Arrays.stream(millis).mapToDouble(ms -> Math.abs(ms - median)).toArray());
+        return new Baseline("ss", median, deviation, "ms");
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+
+    private static Path h2Jar() {
+        try {
+            return Path.of(Server.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
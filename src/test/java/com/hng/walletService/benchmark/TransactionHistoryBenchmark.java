@@ -0,0 +1,93 @@
+package com.hng.walletService.benchmark;
+
+import com.hng.walletService.WalletServiceApplication;
+import com.hng.walletService.model.dto.response.TransactionResponse;
+import com.hng.walletService.model.entity.TransactionEntity;
+import com.hng.walletService.model.entity.UserEntity;
+import com.hng.walletService.model.entity.WalletEntity;
+import com.hng.walletService.model.enums.TransactionStatus;
+import com.hng.walletService.model.enums.TransactionType;
+import com.hng.walletService.repository.TransactionRepository;
+import com.hng.walletService.repository.UserRepository;
+import com.hng.walletService.service.TransactionService;
+import com.hng.walletService.service.WalletService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The service side of {@code GET /wallet/transactions} against the embedded H2 database: wallet
+ * lookup, the bounded history query and the mapping to responses. The call runs inside a
+ * transaction that is either read-only, as in the application, or read-write, where Hibernate
+ * keeps a dirty-checking snapshot of every loaded row and flushes before commit. The
+ * {@code benchmark} profile runs JMH's GC profiler, so {@code gc.alloc.rate.norm} in the output
+ * is the bytes allocated per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionHistoryBenchmark {
+
+    @Param({"20", "200"})
+    private int rows;
+
+    @Param({"true", "false"})
+    private boolean readOnly;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transaction;
+    private TransactionService transactionService;
+    private UserEntity user;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(WalletServiceApplication.class)
+                .profiles("embedded")
+                .run("--server.port=0", "--logging.level.root=WARN");
+        transactionService = context.getBean(TransactionService.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transaction.setReadOnly(readOnly);
+
+        user = context.getBean(UserRepository.class).save(UserEntity.builder()
+                .email("history@benchmark.local")
+                .name("History Benchmark")
+                .googleId("history-benchmark")
+                .isActive(true)
+                .build());
+        WalletEntity wallet = context.getBean(WalletService.class).createWallet(user);
+        List<TransactionEntity> transactions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            transactions.add(TransactionEntity.builder()
+                    .wallet(wallet)
+                    .reference("TXN-HISTORY-" + i)
+                    .type(i % 2 == 0 ? TransactionType.DEPOSIT : TransactionType.TRANSFER)
+                    .status(TransactionStatus.SUCCESS)
+                    .amount(new BigDecimal("1050.50").add(BigDecimal.valueOf(i)))
+                    .recipientWalletNumber(i % 2 == 0 ? null : "4012345678901")
+                    .senderWalletNumber(i % 2 == 0 ? null : wallet.getWalletNumber())
+                    .description("Benchmark transaction " + i)
+                    .build());
+        }
+        context.getBean(TransactionRepository.class).saveAll(transactions);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TransactionResponse> history() {
+        return transaction.execute(status -> transactionService.getTransactionHistory(user, null, null));
+    }
+}
@@ -0,0 +1,55 @@
+package com.hng.walletService.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hng.walletService.config.JacksonConfig;
+import com.hng.walletService.model.dto.response.TransactionResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the {@code GET /wallet/transactions} body with the application's
+ * {@link ObjectMapper} configuration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionSerializationBenchmark {
+
+    @Param({"20", "200"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<TransactionResponse> transactions;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new JacksonConfig().objectMapper();
+        transactions = new ArrayList<>(size);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            transactions.add(TransactionResponse.builder()
+                    .type(i % 2 == 0 ? "deposit" : "transfer")
+                    .amount(new BigDecimal("1050.50").add(BigDecimal.valueOf(i)))
+                    .status("success")
+                    .reference("TXN-" + String.format("%016X", i))
+                    .description("Transfer to wallet")
+                    .recipientWalletNumber("4012345678901")
+                    .senderWalletNumber("4098765432109")
+                    .createdAt(now.minusMinutes(i))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeTransactions() throws Exception {
+        return objectMapper.writeValueAsBytes(transactions);
+    }
+}
@@ -0,0 +1,45 @@
+package com.hng.walletService.benchmark;
+
+import com.hng.walletService.model.entity.WalletEntity;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance arithmetic on {@link WalletEntity}. The wallet is reset every iteration so the
+ * balance stays in the range a real wallet would hold.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WalletEntityBenchmark {
+
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000000000.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("1050.50");
+
+    private WalletEntity wallet;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        wallet = WalletEntity.builder()
+                .walletNumber("4012345678901")
+                .balance(OPENING_BALANCE)
+                .build();
+    }
+
+    @Benchmark
+    public BigDecimal credit() {
+        wallet.credit(AMOUNT);
+        return wallet.getBalance();
+    }
+
+    @Benchmark
+    public BigDecimal debit() {
+        wallet.debit(AMOUNT);
+        return wallet.getBalance();
+    }
+}
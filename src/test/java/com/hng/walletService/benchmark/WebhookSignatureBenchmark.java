@@ -0,0 +1,94 @@
+package com.hng.walletService.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hng.walletService.model.dto.paystack.PaystackWebhookPayload;
+import com.hng.walletService.service.PaystackService;
+import com.hng.walletService.util.LatencyRecorder;
+import com.hng.walletService.util.WalletMetrics;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the previous webhook path (String body, new Mac per call, hex string compare,
+ * full databind) with the single-buffer path in {@link PaystackService}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WebhookSignatureBenchmark {
+
+    private static final String SECRET = "sk_test_benchmark_secret";
+
+    private PaystackService paystackService;
+    private ObjectMapper objectMapper;
+    private byte[] body;
+    private String bodyString;
+    private String signature;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        paystackService = new PaystackService(WebClient.builder(), objectMapper,
+                CircuitBreaker.ofDefaults("paystack"), Bulkhead.ofDefaults("paystack"),
+                new WalletMetrics(new SimpleMeterRegistry()), new LatencyRecorder());
+        ReflectionTestUtils.setField(paystackService, "secretKey", SECRET);
+
+        bodyString = """
+                {"event":"charge.success","data":{"id":302961,"domain":"live","status":"success",
+                "reference":"TXN-3F9A1C2B7D4E8F60","amount":1050050,"message":null,"gateway_response":"Approved",
+                "paid_at":"2024-08-22T09:15:02.000Z","created_at":"2024-08-22T09:14:24.000Z","channel":"card",
+                "currency":"NGN","ip_address":"102.89.23.11","metadata":{"custom_fields":[]},
+                "customer":{"id":1,"first_name":null,"last_name":null,"email":"user@example.com","customer_code":"CUS_xnxdt6s1zg1f4nx"},
+                "authorization":{"authorization_code":"AUTH_8dfhjjdt","bin":"539999","last4":"8877","exp_month":"08",
+                "exp_year":"2028","card_type":"mastercard DEBIT","bank":"Guaranty Trust Bank","country_code":"NG","reusable":true}}}""";
+        body = bodyString.getBytes(StandardCharsets.UTF_8);
+
+        Mac mac = Mac.getInstance("HmacSHA512");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+        signature = HexFormat.of().formatHex(mac.doFinal(body));
+    }
+
+    @Benchmark
+    public PaystackWebhookPayload legacyPath() throws Exception {
+        byte[] copy = bodyString.getBytes(StandardCharsets.UTF_8);
+        Mac mac = Mac.getInstance("HmacSHA512");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+        String computed = HexFormat.of().formatHex(mac.doFinal(copy));
+        if (!computed.equals(signature)) {
+            throw new IllegalStateException("Signature mismatch");
+        }
+        return objectMapper.readValue(bodyString, PaystackWebhookPayload.class);
+    }
+
+    @Benchmark
+    public PaystackWebhookPayload singleBufferPath() throws Exception {
+        if (!paystackService.verifyWebhookSignature(body, signature)) {
+            throw new IllegalStateException("Signature mismatch");
+        }
+        return paystackService.parseWebhookPayload(body);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WebhookSignatureBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,74 @@
+package com.hng.walletService.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ConnectionPoolRoutingDataSourceTest {
+
+    private final ConnectionPoolRoutingDataSource routing = new ConnectionPoolRoutingDataSource(pools());
+
+    @AfterEach
+    void clearThreadState() {
+        ConnectionPoolRoutingDataSource.restore(null);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void routesByTransactionType() {
+        // Spring Data runs derived finders without a transaction
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(ConnectionPool.READ);
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(ConnectionPool.LEDGER);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(ConnectionPool.READ);
+    }
+
+    @Test
+    void anExplicitSelectionWinsUntilRestored() {
+        ConnectionPool outer = ConnectionPoolRoutingDataSource.select(ConnectionPool.LEDGER);
+        ConnectionPool inner = ConnectionPoolRoutingDataSource.select(ConnectionPool.JOBS);
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(ConnectionPool.JOBS);
+
+        ConnectionPoolRoutingDataSource.restore(inner);
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(ConnectionPool.LEDGER);
+
+        ConnectionPoolRoutingDataSource.restore(outer);
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(ConnectionPool.READ);
+    }
+
+    @Test
+    void carriesTheSelectionToAnotherThread() {
+        AtomicReference<ConnectionPool> seen = new AtomicReference<>();
+        ConnectionPoolRoutingDataSource.select(ConnectionPool.JOBS);
+        Runnable task = ConnectionPoolRoutingDataSource.onSelectedPool(
+                () -> seen.set(ConnectionPoolRoutingDataSource.currentPool()));
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture.runAsync(task, executor).join();
+        }
+
+        assertThat(seen).hasValue(ConnectionPool.JOBS);
+    }
+
+    private static Map<ConnectionPool, DataSource> pools() {
+        Map<ConnectionPool, DataSource> pools = new EnumMap<>(ConnectionPool.class);
+        for (ConnectionPool pool : ConnectionPool.values()) {
+            pools.put(pool, mock(DataSource.class));
+        }
+        return pools;
+    }
+}
@@ -0,0 +1,136 @@
+package com.hng.walletService.config;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TailSamplingSpanProcessorTest {
+
+    private final InMemorySpanExporter exporter = InMemorySpanExporter.create();
+    private final AtomicLong clock = new AtomicLong();
+    private TailSamplingSpanProcessor processor;
+    private Tracer tracer;
+
+    @BeforeEach
+    void setUp() {
+        useBaselineProbability(0.0);
+    }
+
+    @Test
+    void dropsFastSuccessfulTraces() {
+        trace(Duration.ofMillis(20), false);
+
+        assertThat(exporter.getFinishedSpanItems()).isEmpty();
+        assertThat(processor.bufferedTraces()).isZero();
+    }
+
+    @Test
+    void keepsEverySpanOfAFailedTrace() {
+        trace(Duration.ofMillis(20), true);
+
+        assertThat(exporter.getFinishedSpanItems())
+                .extracting(SpanData::getName)
+                .containsExactly("TransactionRepository#findByReference", "TransactionService#transfer", "http post /wallet/transfer");
+    }
+
+    @Test
+    void keepsSlowTraces() {
+        trace(Duration.ofSeconds(2), false);
+
+        assertThat(exporter.getFinishedSpanItems()).hasSize(3);
+        assertThat(exporter.getFinishedSpanItems()).extracting(SpanData::getTraceId).containsOnly(
+                exporter.getFinishedSpanItems().getFirst().getTraceId());
+    }
+
+    @Test
+    void keepsABaselineShareOfOtherTraces() {
+        useBaselineProbability(1.0);
+
+        trace(Duration.ofMillis(20), false);
+
+        assertThat(exporter.getFinishedSpanItems()).hasSize(3);
+    }
+
+    @Test
+    void spansEndingAfterAKeptRootFollowItOut() {
+        useBaselineProbability(1.0);
+        Instant start = Instant.now();
+        Span root = tracer.spanBuilder("http get /wallet/events").setStartTimestamp(start).startSpan();
+        Span continuation = tracer.spanBuilder("WalletEventBus#publish").setParent(Context.root().with(root))
+                .setStartTimestamp(start).startSpan();
+        root.end(start.plusMillis(5));
+        continuation.end(start.plusMillis(20));
+
+        assertThat(exporter.getFinishedSpanItems()).extracting(SpanData::getName)
+                .containsExactly("http get /wallet/events", "WalletEventBus#publish");
+
+        // Forgotten once it is old; only the kept trace that triggered the sweep is remembered
+        clock.addAndGet(Duration.ofSeconds(61).toNanos());
+        trace(Duration.ofMillis(20), false);
+        assertThat(processor.bufferedTraces()).isEqualTo(1);
+    }
+
+    @Test
+    void buffersOfRootsThatNeverEndAreSweptOut() {
+        Instant start = Instant.now();
+        Span root = tracer.spanBuilder("http get /wallet/events").setStartTimestamp(start).startSpan();
+        Context rootContext = Context.root().with(root);
+        tracer.spanBuilder("WalletEventBus#publish").setParent(rootContext).setStartTimestamp(start).startSpan()
+                .end(start.plusMillis(1));
+        Span failed = tracer.spanBuilder("TransactionRepository#findByReference").setParent(rootContext)
+                .setStartTimestamp(start).startSpan();
+        failed.setStatus(StatusCode.ERROR, "lock timeout");
+        failed.end(start.plusMillis(2));
+        tracer.spanBuilder("WalletEventBus#publish").setParent(Context.root().with(tracer.spanBuilder("orphan")
+                .startSpan())).startSpan().end();
+        assertThat(processor.bufferedTraces()).isEqualTo(2);
+
+        clock.addAndGet(Duration.ofSeconds(61).toNanos());
+        trace(Duration.ofMillis(20), false);
+
+        assertThat(processor.bufferedTraces()).isZero();
+        // Only the trace with a failed span is exported, without waiting any longer for its root
+        assertThat(exporter.getFinishedSpanItems()).extracting(SpanData::getName)
+                .containsExactly("WalletEventBus#publish", "TransactionRepository#findByReference");
+    }
+
+    private void useBaselineProbability(double baselineProbability) {
+        processor = new TailSamplingSpanProcessor(SimpleSpanProcessor.create(exporter),
+                Duration.ofMillis(500), baselineProbability, 100, Duration.ofSeconds(60), clock::get);
+        tracer = SdkTracerProvider.builder()
+                .addSpanProcessor(processor)
+                .build()
+                .get("test");
+    }
+
+    private void trace(Duration rootDuration, boolean failChild) {
+        Instant start = Instant.now();
+        Span root = tracer.spanBuilder("http post /wallet/transfer").setStartTimestamp(start).startSpan();
+        Context rootContext = Context.root().with(root);
+
+        Span service = tracer.spanBuilder("TransactionService#transfer").setParent(rootContext)
+                .setStartTimestamp(start).startSpan();
+        Span repository = tracer.spanBuilder("TransactionRepository#findByReference")
+                .setParent(rootContext.with(service)).setStartTimestamp(start).startSpan();
+        if (failChild) {
+            repository.setStatus(StatusCode.ERROR, "lock timeout");
+        }
+        repository.end(start.plusMillis(5));
+        service.end(start.plusMillis(10));
+        root.end(start.plusNanos(TimeUnit.MILLISECONDS.toNanos(rootDuration.toMillis())));
+    }
+}
@@ -0,0 +1,70 @@
+package com.hng.walletService.controller;
+
+import com.hng.walletService.TestWallets;
+import com.hng.walletService.model.dto.request.CreateApiKeyRequest;
+import com.hng.walletService.model.entity.UserEntity;
+import com.hng.walletService.service.ApiKeyService;
+import com.hng.walletService.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that actuator endpoints beyond health answer only the operator account, not customers.
+ */
+@AutoConfigureMockMvc
+@ActiveProfiles("embedded")
+@Import(TestWallets.class)
+@SpringBootTest(properties = {
+        "wallet.operator.username=" + ManagementEndpointSecurityTest.OPERATOR,
+        "wallet.operator.password=" + ManagementEndpointSecurityTest.OPERATOR_PASSWORD})
+class ManagementEndpointSecurityTest {
+
+    static final String OPERATOR = "scraper";
+    static final String OPERATOR_PASSWORD = "scrape-secret";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TestWallets testWallets;
+    @Autowired
+    private ApiKeyService apiKeyService;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void healthIsOpen() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+    }
+
+    @Test
+    void metricsAnswerOnlyTheOperator() throws Exception {
+        UserEntity user = testWallets.seed("0.00").getUser();
+        String apiKey = apiKeyService.createApiKey(user, CreateApiKeyRequest.builder()
+                .name("scraper")
+                .permissions(Set.of("read"))
+                .expiry("1D")
+                .build()).getApiKey();
+
+        mockMvc.perform(get("/actuator/metrics"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/metrics").header("Authorization", "Bearer " + jwtUtil.generateToken(user.getEmail())))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/metrics").header("x-api-key", apiKey))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/metrics").with(httpBasic(OPERATOR, "wrong")))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/metrics").with(httpBasic(OPERATOR, OPERATOR_PASSWORD)))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,363 @@
+package com.hng.walletService.controller;
+
+import com.hng.walletService.TestWallets;
+import com.hng.walletService.model.dto.request.CreateApiKeyRequest;
+import com.hng.walletService.model.entity.TransactionEntity;
+import com.hng.walletService.model.entity.UserEntity;
+import com.hng.walletService.model.entity.WalletEntity;
+import com.hng.walletService.model.enums.TransactionStatus;
+import com.hng.walletService.model.enums.TransactionType;
+import com.hng.walletService.repository.TransactionRepository;
+import com.hng.walletService.service.ApiKeyService;
+import com.hng.walletService.util.JwtUtil;
+import com.sun.net.httpserver.HttpServer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the number of SQL statements each endpoint issues, authentication included.
+ * <p>
+ * Every statement executed on the request thread is recorded by a listener on the datasource-proxy
+ * wrapper that datasource-micrometer puts around the pool, and each endpoint is held to an exact
+ * budget. A failing assertion lists the statements that ran; if the change was intended (a query
+ * removed or a join added on purpose), update the budget in the same commit. Velocity limits, off
+ * in the embedded profile, are back on as in production.
+ */
+@AutoConfigureMockMvc
+@ActiveProfiles("embedded")
+@Import(TestWallets.class)
+@SpringBootTest(properties = {
+        "paystack.secret.key=" + QueryBudgetTest.PAYSTACK_SECRET,
+        "wallet.velocity.enabled=true"})
+class QueryBudgetTest {
+
+    static final String PAYSTACK_SECRET = "sk_test_budget";
+    private static final Pattern REFERENCE = Pattern.compile("\"reference\"\\s*:\\s*\"([^\"]+)\"");
+    private static final AtomicInteger REFERENCES = new AtomicInteger();
+
+    private static HttpServer paystackStub;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TestWallets testWallets;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private ApiKeyService apiKeyService;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private StatementRecorder statements;
+
+    @TestConfiguration
+    static class QueryCountingConfig {
+
+        // datasource-micrometer already proxies the pool and registers every listener bean with it
+        @Bean
+        StatementRecorder statementRecorder() {
+            return new StatementRecorder();
+        }
+    }
+
+    /**
+     * Records the SQL of each statement executed on the current thread. A JDBC batch counts once,
+     * as one round trip.
+     */
+    static class StatementRecorder implements QueryExecutionListener {
+
+        private final ThreadLocal<List<String>> recorded = ThreadLocal.withInitial(ArrayList::new);
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            recorded.get().add(queryInfoList.get(0).getQuery());
+        }
+
+        void reset() {
+            recorded.get().clear();
+        }
+
+        List<String> statements() {
+            return List.copyOf(recorded.get());
+        }
+    }
+
+    record Caller(UserEntity user, WalletEntity wallet, String apiKey, String jwt) {
+    }
+
+    @BeforeAll
+    static void startPaystackStub() throws IOException {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        paystackStub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        paystackStub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        paystackStub.createContext("/transaction/initialize", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            Matcher matcher = REFERENCE.matcher(body);
+            String reference = matcher.find() ? matcher.group(1) : "TXN-UNKNOWN";
+            byte[] response = ("{\"status\":true,\"data\":{\"authorization_url\":\"https://checkout.paystack.test/"
+                    + reference + "\",\"access_code\":\"ac\",\"reference\":\"" + reference + "\"}}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        paystackStub.start();
+    }
+
+    @AfterAll
+    static void stopPaystackStub() {
+        paystackStub.stop(0);
+    }
+
+    @DynamicPropertySource
+    static void paystackProperties(DynamicPropertyRegistry registry) {
+        registry.add("paystack.base.url", () -> "http://127.0.0.1:" + paystackStub.getAddress().getPort());
+    }
+
+    @Test
+    void balanceWithJwt() throws Exception {
+        Caller caller = seedCaller();
+
+        assertBudget("GET /wallet/balance (jwt)", 3, get("/wallet/balance")
+                .header("Authorization", "Bearer " + caller.jwt()));
+    }
+
+    @Test
+    void balanceWithApiKey() throws Exception {
+        Caller caller = seedCaller();
+
+        // The key lookup, which fetches its user and permissions in the same join, and the
+        // last-used update run before the controller
+        assertBudget("GET /wallet/balance (api key)", 4, get("/wallet/balance")
+                .header("x-api-key", caller.apiKey()));
+    }
+
+    @Test
+    void transactionHistoryDoesNotGrowWithTheNumberOfRows() throws Exception {
+        Caller caller = seedCaller();
+        seedDeposits(caller.wallet(), 1);
+
+        assertBudget("GET /wallet/transactions (1 row)", 5, get("/wallet/transactions")
+                .header("Authorization", "Bearer " + caller.jwt()));
+
+        seedDeposits(caller.wallet(), 20);
+
+        assertBudget("GET /wallet/transactions (21 rows)", 5, get("/wallet/transactions")
+                .header("Authorization", "Bearer " + caller.jwt()));
+    }
+
+    @Test
+    void unchangedTransactionHistoryIsNotReloaded() throws Exception {
+        Caller caller = seedCaller();
+        seedDeposits(caller.wallet(), 5);
+        String etag = etag(get("/wallet/transactions").header("Authorization", "Bearer " + caller.jwt()));
+
+        // Only the version aggregate runs; the rows are neither loaded nor serialized
+        assertBudget("GET /wallet/transactions (If-None-Match)", 3, get("/wallet/transactions")
+                .header("Authorization", "Bearer " + caller.jwt())
+                .header("If-None-Match", etag), 304);
+
+        seedDeposits(caller.wallet(), 1);
+
+        assertBudget("GET /wallet/transactions (If-None-Match, new row)", 5, get("/wallet/transactions")
+                .header("Authorization", "Bearer " + caller.jwt())
+                .header("If-None-Match", etag));
+    }
+
+    @Test
+    void unchangedBalanceIsNotResent() throws Exception {
+        Caller caller = seedCaller();
+        String etag = etag(get("/wallet/balance").header("Authorization", "Bearer " + caller.jwt()));
+
+        assertBudget("GET /wallet/balance (If-None-Match)", 3, get("/wallet/balance")
+                .header("Authorization", "Bearer " + caller.jwt())
+                .header("If-None-Match", etag), 304);
+    }
+
+    @Test
+    void transfer() throws Exception {
+        Caller sender = seedCaller();
+        Caller recipient = seedCaller();
+
+        // Both wallets' first movement of the day: one batched UPDATE of wallet_daily_stats that
+        // misses, then one batched INSERT. The sender's first transfer on this node also loads its
+        // recent transfers for the velocity limits; later ones are checked in memory.
+        assertBudget("POST /wallet/transfer (api key)", 12, post("/wallet/transfer")
+                .header("x-api-key", sender.apiKey())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"wallet_number\":\"" + recipient.wallet().getWalletNumber() + "\",\"amount\":100}"));
+    }
+
+    @Test
+    void deposit() throws Exception {
+        Caller caller = seedCaller();
+
+        // Includes loading the wallet's recent deposits for the velocity limits, once per node
+        assertBudget("POST /wallet/deposit (jwt)", 6, post("/wallet/deposit")
+                .header("Authorization", "Bearer " + caller.jwt())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\":500}"), 201);
+    }
+
+    @Test
+    void webhookSettlesADeposit() throws Exception {
+        Caller caller = seedCaller();
+        String reference = seedDeposits(caller.wallet(), 1).get(0);
+        byte[] body = ("{\"event\":\"charge.success\",\"data\":{\"reference\":\"" + reference
+                + "\",\"status\":\"success\",\"amount\":50000}}").getBytes(StandardCharsets.UTF_8);
+
+        // Includes the UPDATE and INSERT of the wallet's first daily stats row
+        assertBudget("POST /wallet/paystack/webhook", 6, post("/wallet/paystack/webhook")
+                .header("x-paystack-signature", sign(body))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
+
+    @Test
+    void depositStatus() throws Exception {
+        Caller caller = seedCaller();
+        String reference = seedDeposits(caller.wallet(), 1).get(0);
+
+        assertBudget("GET /wallet/deposit/{reference}/status", 2, get("/wallet/deposit/" + reference + "/status")
+                .header("Authorization", "Bearer " + caller.jwt()));
+    }
+
+    @Test
+    void depositStatusWaitIsAnsweredByTheWebhookWithoutPolling() throws Exception {
+        Caller caller = seedCaller();
+        String reference = seedDeposits(caller.wallet(), 1).get(0);
+
+        statements.reset();
+        MvcResult waiting = mockMvc.perform(get("/wallet/deposit/" + reference + "/status")
+                        .param("wait", "30s")
+                        .header("Authorization", "Bearer " + caller.jwt()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(statements.statements()).as("statements before the request parks").hasSize(2);
+
+        byte[] body = ("{\"event\":\"charge.success\",\"data\":{\"reference\":\"" + reference
+                + "\",\"status\":\"success\",\"amount\":50000}}").getBytes(StandardCharsets.UTF_8);
+        mockMvc.perform(post("/wallet/paystack/webhook")
+                        .header("x-paystack-signature", sign(body))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk());
+
+        statements.reset();
+        mockMvc.perform(asyncDispatch(waiting))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("success"));
+        assertThat(statements.statements()).as("statements when the webhook wakes the request").isEmpty();
+    }
+
+    @Test
+    void listApiKeys() throws Exception {
+        Caller caller = seedCaller();
+
+        assertBudget("GET /keys/list (jwt)", 3, get("/keys/list")
+                .header("Authorization", "Bearer " + caller.jwt()));
+    }
+
+    private String etag(RequestBuilder request) throws Exception {
+        String etag = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).isNotBlank();
+        return etag;
+    }
+
+    private void assertBudget(String endpoint, int budget, RequestBuilder request) throws Exception {
+        assertBudget(endpoint, budget, request, 200);
+    }
+
+    private void assertBudget(String endpoint, int budget, RequestBuilder request, int expectedStatus)
+            throws Exception {
+        statements.reset();
+        mockMvc.perform(request).andExpect(status().is(expectedStatus));
+        List<String> executed = statements.statements();
+
+        assertThat(executed)
+                .as("%s issued %d statements against a budget of %d:%n  %s", endpoint, executed.size(), budget,
+                        String.join(System.lineSeparator() + "  ", executed))
+                .hasSize(budget);
+    }
+
+    private Caller seedCaller() {
+        WalletEntity wallet = testWallets.seed("100000.00");
+        UserEntity user = wallet.getUser();
+
+        String apiKey = apiKeyService.createApiKey(user, CreateApiKeyRequest.builder()
+                .name("budget")
+                .permissions(Set.of("read", "deposit", "transfer"))
+                .expiry("1D")
+                .build()).getApiKey();
+        return new Caller(user, wallet, apiKey, jwtUtil.generateToken(user.getEmail()));
+    }
+
+    private List<String> seedDeposits(WalletEntity wallet, int count) {
+        List<TransactionEntity> deposits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String reference = "TXN-BUDGET-" + REFERENCES.incrementAndGet();
+            deposits.add(TransactionEntity.builder()
+                    .wallet(wallet)
+                    .reference(reference)
+                    .paystackReference(reference)
+                    .type(TransactionType.DEPOSIT)
+                    .status(TransactionStatus.PENDING)
+                    .amount(new BigDecimal("500.00"))
+                    .build());
+        }
+        return transactionRepository.saveAll(deposits).stream().map(TransactionEntity::getReference).toList();
+    }
+
+    private static String sign(byte[] body) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA512");
+        mac.init(new SecretKeySpec(PAYSTACK_SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+        return HexFormat.of().formatHex(mac.doFinal(body));
+    }
+}
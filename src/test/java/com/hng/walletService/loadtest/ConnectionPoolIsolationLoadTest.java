@@ -0,0 +1,289 @@
+package com.hng.walletService.loadtest;
+
+import com.hng.walletService.TestWallets;
+import com.hng.walletService.config.ConnectionPool;
+import com.hng.walletService.config.ConnectionPools;
+import com.hng.walletService.model.entity.TransactionEntity;
+import com.hng.walletService.model.entity.WalletEntity;
+import com.hng.walletService.model.enums.TransactionStatus;
+import com.hng.walletService.model.enums.TransactionType;
+import com.hng.walletService.repository.TransactionRepository;
+import com.hng.walletService.service.WalletService;
+import com.hng.walletService.util.JwtUtil;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Shows that transfers keep their latency SLA while a storm of history reads saturates the read
+ * pool.
+ * <p>
+ * The read pool is shrunk to {@value #READ_POOL_SIZE} connections and {@code loadtest.readers}
+ * clients fetch transaction histories in a loop, while one client issues a transfer every
+ * {@value #TRANSFER_INTERVAL_MS}ms. Each history query holds its connection for
+ * {@code loadtest.history-query-time}, standing in for a large table on a real database without
+ * burning CPU in the test. Hikari's pool statistics are sampled throughout to prove that the reads
+ * queued for connections while the ledger pool never did. Run with
+ * {@code mvn -Pload-test test -Dtest=ConnectionPoolIsolationLoadTest}.
+ */
+@Tag("load")
+@ActiveProfiles("embedded")
+@Import(TestWallets.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "wallet.datasource.pools.read.maximum-pool-size=" + ConnectionPoolIsolationLoadTest.READ_POOL_SIZE,
+        "wallet.datasource.pools.read.connection-timeout=2000"
+})
+class ConnectionPoolIsolationLoadTest {
+
+    static final int READ_POOL_SIZE = 2;
+    private static final int TRANSFER_INTERVAL_MS = 50;
+    private static final int READERS = Integer.getInteger("loadtest.readers", 100);
+    private static final int READER_WALLETS = 20;
+    private static final int ROWS_PER_WALLET = 20;
+    private static final Duration HISTORY_QUERY_TIME =
+            Duration.parse(System.getProperty("loadtest.history-query-time", "PT0.05S"));
+    private static final Duration DURATION = Duration.parse(System.getProperty("loadtest.duration", "PT20S"));
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration TRANSFER_SLA = Duration.parse(System.getProperty("loadtest.transfer-sla", "PT0.25S"));
+
+    @Autowired
+    private TestWallets testWallets;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private WalletService walletService;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private ConnectionPools connectionPools;
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @TestConfiguration
+    static class SlowHistoryConfig {
+
+        @Bean
+        QueryExecutionListener slowHistoryQueries() {
+            return new QueryExecutionListener() {
+                @Override
+                public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                    String sql = queryInfoList.get(0).getQuery().toLowerCase(Locale.ROOT);
+                    if (sql.startsWith("select") && sql.contains(" from transactions ") && sql.contains("order by")) {
+                        try {
+                            Thread.sleep(HISTORY_QUERY_TIME);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }
+
+                @Override
+                public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                }
+            };
+        }
+    }
+
+    record Caller(String jwt, String walletNumber) {
+    }
+
+    static class Stats {
+        private final Histogram transfers = new ConcurrentHistogram(TimeUnit.SECONDS.toNanos(60), 3);
+        private final Histogram reads = new ConcurrentHistogram(TimeUnit.SECONDS.toNanos(60), 3);
+        private final LongAdder transferErrors = new LongAdder();
+        private final LongAdder readErrors = new LongAdder();
+        private final AtomicInteger readPoolPeakWaiting = new AtomicInteger();
+        private final AtomicInteger ledgerPoolPeakWaiting = new AtomicInteger();
+        private final AtomicInteger ledgerPoolPeakActive = new AtomicInteger();
+    }
+
+    @Test
+    void transfersMeetTheirSlaWhileReadsSaturateTheReadPool() throws Exception {
+        List<Caller> readers = seedReaders();
+        Caller sender = seedCaller("10000000.00");
+        Caller recipient = seedCaller("0.00");
+
+        drive(readers, sender, recipient, WARMUP, new Stats());
+        Stats stats = new Stats();
+        drive(readers, sender, recipient, DURATION, stats);
+
+        String report = report(stats);
+        System.out.println(report);
+        Path reportFile = Path.of("target", "pool-isolation-report.txt");
+        Files.createDirectories(reportFile.getParent());
+        Files.writeString(reportFile, report);
+
+        assertThat(stats.readPoolPeakWaiting.get()).as("reads waiting on the read pool").isPositive();
+        assertThat(stats.ledgerPoolPeakWaiting.get()).as("requests waiting on the ledger pool").isZero();
+        assertThat(stats.transferErrors.sum()).as("transfer errors").isZero();
+        assertThat(stats.transfers.getTotalCount()).isPositive();
+        assertThat(Duration.ofNanos(stats.transfers.getValueAtPercentile(99))).as("transfer p99")
+                .isLessThanOrEqualTo(TRANSFER_SLA);
+    }
+
+    private void drive(List<Caller> readers, Caller sender, Caller recipient, Duration duration, Stats stats) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        HikariPoolMXBean readPool = connectionPools.get(ConnectionPool.READ).getHikariPoolMXBean();
+        HikariPoolMXBean ledgerPool = connectionPools.get(ConnectionPool.LEDGER).getHikariPoolMXBean();
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        // A platform thread, so sampling is not starved by the clients' virtual threads
+        Thread sampler = Thread.ofPlatform().daemon().start(() -> {
+            while (running.get()) {
+                stats.readPoolPeakWaiting.accumulateAndGet(readPool.getThreadsAwaitingConnection(), Math::max);
+                stats.ledgerPoolPeakWaiting.accumulateAndGet(ledgerPool.getThreadsAwaitingConnection(), Math::max);
+                stats.ledgerPoolPeakActive.accumulateAndGet(ledgerPool.getActiveConnections(), Math::max);
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+
+            for (int i = 0; i < READERS; i++) {
+                executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        Caller reader = readers.get(random.nextInt(readers.size()));
+                        HttpRequest request = HttpRequest.newBuilder(uri("/wallet/transactions"))
+                                .header("Authorization", "Bearer " + reader.jwt())
+                                .GET()
+                                .build();
+                        send(request, stats.reads, stats.readErrors);
+                    }
+                    return null;
+                });
+            }
+
+            executor.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    long next = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TRANSFER_INTERVAL_MS);
+                    HttpRequest request = HttpRequest.newBuilder(uri("/wallet/transfer"))
+                            .header("Authorization", "Bearer " + sender.jwt())
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(
+                                    "{\"wallet_number\":\"" + recipient.walletNumber() + "\",\"amount\":10}"))
+                            .build();
+                    send(request, stats.transfers, stats.transferErrors);
+                    long remaining = next - System.nanoTime();
+                    if (remaining > 0) {
+                        Thread.sleep(Duration.ofNanos(remaining));
+                    }
+                }
+                return null;
+            });
+        } finally {
+            running.set(false);
+            sampler.interrupt();
+        }
+    }
+
+    private void send(HttpRequest request, Histogram latencies, LongAdder errors) {
+        long start = System.nanoTime();
+        int status;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            status = -1;
+        }
+        latencies.recordValue(System.nanoTime() - start);
+        if (status != 200) {
+            errors.increment();
+        }
+    }
+
+    private List<Caller> seedReaders() {
+        List<Caller> readers = new ArrayList<>(READER_WALLETS);
+        for (int i = 0; i < READER_WALLETS; i++) {
+            Caller reader = seedCaller("0.00");
+            WalletEntity wallet = walletService.getWalletByWalletNumber(reader.walletNumber());
+            List<TransactionEntity> rows = new ArrayList<>(ROWS_PER_WALLET);
+            for (int row = 0; row < ROWS_PER_WALLET; row++) {
+                String reference = "TXN-STORM-" + reader.walletNumber() + "-" + row;
+                rows.add(TransactionEntity.builder()
+                        .wallet(wallet)
+                        .reference(reference)
+                        .paystackReference(reference)
+                        .type(TransactionType.DEPOSIT)
+                        .status(TransactionStatus.SUCCESS)
+                        .amount(new BigDecimal("500.00"))
+                        .description("Wallet deposit")
+                        .build());
+            }
+            transactionRepository.saveAll(rows);
+            readers.add(reader);
+        }
+        return readers;
+    }
+
+    private Caller seedCaller(String balance) {
+        WalletEntity wallet = testWallets.seed(balance);
+        return new Caller(jwtUtil.generateToken(wallet.getUser().getEmail()), wallet.getWalletNumber());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + port + path);
+    }
+
+    private static String report(Stats stats) {
+        StringBuilder report = new StringBuilder(String.format(
+                "%nPool isolation: %d readers on a %d-connection read pool, %dms history queries, "
+                        + "one transfer every %dms, %ds%n"
+                        + "%-10s %9s %8s %9s %9s %9s%n",
+                READERS, READ_POOL_SIZE, HISTORY_QUERY_TIME.toMillis(), TRANSFER_INTERVAL_MS, DURATION.toSeconds(),
+                "endpoint", "requests", "errors", "p50 ms", "p99 ms", "max ms"));
+        report.append(line("transfer", stats.transfers, stats.transferErrors));
+        report.append(line("history", stats.reads, stats.readErrors));
+        report.append(String.format("read pool peak waiting %d, ledger pool peak waiting %d, peak active %d%n",
+                stats.readPoolPeakWaiting.get(), stats.ledgerPoolPeakWaiting.get(), stats.ledgerPoolPeakActive.get()));
+        return report.toString();
+    }
+
+    private static String line(String name, Histogram histogram, LongAdder errors) {
+        return String.format("%-10s %9d %8d %9.2f %9.2f %9.2f%n", name, histogram.getTotalCount(), errors.sum(),
+                histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(99) / 1e6,
+                histogram.getMaxValue() / 1e6);
+    }
+}
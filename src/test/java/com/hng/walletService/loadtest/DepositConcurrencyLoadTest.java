@@ -0,0 +1,197 @@
+package com.hng.walletService.loadtest;
+
+import com.hng.walletService.TestWallets;
+import com.hng.walletService.WalletServiceApplication;
+import com.hng.walletService.model.entity.UserEntity;
+import com.hng.walletService.util.JwtUtil;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares how many deposits can wait on a slow Paystack at once with Tomcat on platform threads
+ * and on virtual threads.
+ * <p>
+ * The application is started twice on embedded H2, once per thread mode, against a stub whose
+ * initialize call takes {@code loadtest.paystack-delay}. Every deposit is fired at once and the stub
+ * reports the peak number of initialize calls it held concurrently. The Paystack bulkhead and the
+ * connection pool are sized above the client count so that only the request threads limit
+ * concurrency. Run with {@code mvn -Pload-test test -Dtest=DepositConcurrencyLoadTest}.
+ */
+@Tag("load")
+class DepositConcurrencyLoadTest {
+
+    private static final int DEPOSITS = Integer.getInteger("loadtest.deposits", 400);
+    private static final int WARMUP_DEPOSITS = 100;
+    private static final Duration PAYSTACK_DELAY =
+            Duration.parse(System.getProperty("loadtest.paystack-delay", "PT10S"));
+    private static final Pattern REFERENCE = Pattern.compile("\"reference\"\\s*:\\s*\"([^\"]+)\"");
+
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger peakInFlight = new AtomicInteger();
+    private static HttpServer paystackStub;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    record Result(String mode, int completed, int errors, int peakInFlight, Duration elapsed) {
+    }
+
+    @BeforeAll
+    static void startPaystackStub() throws IOException {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        paystackStub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), DEPOSITS);
+        paystackStub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        paystackStub.createContext("/transaction/initialize", exchange -> {
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                Matcher matcher = REFERENCE.matcher(body);
+                String reference = matcher.find() ? matcher.group(1) : "TXN-UNKNOWN";
+                Thread.sleep(PAYSTACK_DELAY);
+                byte[] response = ("{\"status\":true,\"data\":{\"authorization_url\":\"https://checkout.paystack.test/"
+                        + reference + "\",\"access_code\":\"ac\",\"reference\":\"" + reference + "\"}}")
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, response.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(response);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+        paystackStub.start();
+    }
+
+    @AfterAll
+    static void stopPaystackStub() {
+        paystackStub.stop(0);
+    }
+
+    @Test
+    void virtualThreadsHoldMoreDepositsInFlightThanTheTomcatPool() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        String report = String.format("%nDeposit concurrency: %d deposits, Paystack delay %dms%n%-10s %10s %8s %10s %10s%n",
+                DEPOSITS, PAYSTACK_DELAY.toMillis(), "mode", "completed", "errors", "peak", "elapsed ms");
+        for (Result result : List.of(platform, virtual)) {
+            report += String.format("%-10s %10d %8d %10d %10d%n", result.mode(), result.completed(), result.errors(),
+                    result.peakInFlight(), result.elapsed().toMillis());
+        }
+        System.out.println(report);
+        Path reportFile = Path.of("target", "deposit-concurrency-report.txt");
+        Files.createDirectories(reportFile.getParent());
+        Files.writeString(reportFile, report);
+
+        assertThat(platform.errors()).isZero();
+        assertThat(virtual.errors()).isZero();
+        // Tomcat's default pool is 200 platform threads; virtual threads are bounded only by the load
+        assertThat(platform.peakInFlight()).isLessThanOrEqualTo(200);
+        assertThat(virtual.peakInFlight()).isGreaterThan(platform.peakInFlight());
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        inFlight.set(0);
+        peakInFlight.set(0);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(WalletServiceApplication.class, TestWallets.class)
+                .profiles("embedded")
+                // Command-line arguments, so they win over application.properties
+                .run(
+                        "--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=jdbc:h2:mem:deposits-" + mode
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                        // The deposit holds its connection across the Paystack call
+                        "--wallet.datasource.pools.ledger.maximum-pool-size=" + (DEPOSITS + 20),
+                        "--wallet.datasource.pools.ledger.minimum-idle=10",
+                        "--wallet.datasource.pools.ledger.connection-timeout=60000",
+                        "--paystack.base.url=http://127.0.0.1:" + paystackStub.getAddress().getPort(),
+                        "--paystack.timeout=60s",
+                        "--paystack.bulkhead.max-concurrent-calls=" + (DEPOSITS * 2),
+                        "--paystack.circuit-breaker.slow-call-duration=60s")) {
+            int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+            String jwt = seedUser(context);
+
+            // Warm the JIT and the connection pools so the measured burst is not dominated by startup
+            burst(port, jwt, WARMUP_DEPOSITS);
+            peakInFlight.set(0);
+
+            long started = System.nanoTime();
+            int[] outcome = burst(port, jwt, DEPOSITS);
+            return new Result(mode, outcome[0], outcome[1], peakInFlight.get(),
+                    Duration.ofNanos(System.nanoTime() - started));
+        }
+    }
+
+    /**
+     * Fires {@code count} deposits at once and waits for all of them; returns {completed, errors}.
+     */
+    private int[] burst(int port, String jwt, int count) {
+        int completed = 0;
+        int errors = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Integer>> responses = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/wallet/deposit"))
+                        .header("Authorization", "Bearer " + jwt)
+                        .header("Content-Type", "application/json")
+                        .timeout(Duration.ofMinutes(2))
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"amount\":500}"))
+                        .build();
+                responses.add(executor.submit(() ->
+                        client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode()));
+            }
+            for (Future<Integer> response : responses) {
+                try {
+                    if (response.get() == 201) {
+                        completed++;
+                    } else {
+                        errors++;
+                    }
+                } catch (Exception e) {
+                    errors++;
+                }
+            }
+        }
+        return new int[]{completed, errors};
+    }
+
+    private static String seedUser(ConfigurableApplicationContext context) {
+        UserEntity user = context.getBean(TestWallets.class).seed("0.00").getUser();
+        return context.getBean(JwtUtil.class).generateToken(user.getEmail());
+    }
+}
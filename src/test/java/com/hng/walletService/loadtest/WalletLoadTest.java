@@ -0,0 +1,360 @@
+package com.hng.walletService.loadtest;
+
+import com.hng.walletService.TestWallets;
+import com.hng.walletService.model.dto.request.CreateApiKeyRequest;
+import com.hng.walletService.model.entity.TransactionEntity;
+import com.hng.walletService.model.entity.UserEntity;
+import com.hng.walletService.model.entity.WalletEntity;
+import com.hng.walletService.model.enums.TransactionStatus;
+import com.hng.walletService.model.enums.TransactionType;
+import com.hng.walletService.repository.TransactionRepository;
+import com.hng.walletService.service.ApiKeyService;
+import com.hng.walletService.service.WalletService;
+import com.hng.walletService.util.JwtUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Full-stack load test: boots the application on H2 (PostgreSQL mode) with Paystack replaced by a
+ * local stub, seeds users, wallets, API keys and pending deposits, then drives a weighted mix of
+ * calls from virtual-thread clients and reports throughput and p50/p99/p99.9 latency per endpoint.
+ * <p>
+ * Excluded from the default build; run with {@code mvn -Pload-test test}. Sizing is controlled with
+ * {@code -Dloadtest.users}, {@code -Dloadtest.clients} and {@code -Dloadtest.duration} (ISO-8601).
+ */
+@Tag("load")
+@ActiveProfiles("embedded")
+@Import(TestWallets.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class WalletLoadTest {
+
+    private static final int USERS = Integer.getInteger("loadtest.users", 200);
+    private static final int CLIENTS = Integer.getInteger("loadtest.clients", 64);
+    private static final Duration DURATION = Duration.parse(System.getProperty("loadtest.duration", "PT20S"));
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final int PENDING_DEPOSITS_PER_USER = 50;
+    private static final String PAYSTACK_SECRET = "sk_test_load";
+    private static final Pattern REFERENCE = Pattern.compile("\"reference\"\\s*:\\s*\"([^\"]+)\"");
+
+    private static HttpServer paystackStub;
+
+    @Autowired
+    private TestWallets testWallets;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private WalletService walletService;
+    @Autowired
+    private ApiKeyService apiKeyService;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    enum Endpoint {
+        TRANSFER(30), BALANCE(30), HISTORY(20), WEBHOOK(15), DEPOSIT(5);
+
+        private final int weight;
+
+        Endpoint(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    record Client(String header, String value, String walletNumber) {
+    }
+
+    @BeforeAll
+    static void startPaystackStub() throws IOException {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        paystackStub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        paystackStub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        paystackStub.createContext("/transaction/initialize", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            Matcher matcher = REFERENCE.matcher(body);
+            String reference = matcher.find() ? matcher.group(1) : "TXN-UNKNOWN";
+            respond(exchange, "{\"status\":true,\"message\":\"Authorization URL created\",\"data\":{"
+                    + "\"authorization_url\":\"https://checkout.paystack.test/" + reference + "\","
+                    + "\"access_code\":\"ac_load\",\"reference\":\"" + reference + "\"}}");
+        });
+        paystackStub.createContext("/transaction/verify/", exchange -> {
+            String reference = exchange.getRequestURI().getPath().substring("/transaction/verify/".length());
+            respond(exchange, "{\"status\":true,\"data\":{\"reference\":\"" + reference
+                    + "\",\"status\":\"success\",\"amount\":50000}}");
+        });
+        paystackStub.start();
+    }
+
+    @AfterAll
+    static void stopPaystackStub() {
+        paystackStub.stop(0);
+    }
+
+    @DynamicPropertySource
+    static void paystackProperties(DynamicPropertyRegistry registry) {
+        registry.add("paystack.base.url", () -> "http://127.0.0.1:" + paystackStub.getAddress().getPort());
+    }
+
+    @Test
+    void mixedWorkload() throws Exception {
+        List<Client> clients = seedUsers();
+        ConcurrentLinkedQueue<String> pendingDeposits = seedPendingDeposits(clients);
+
+        Map<Endpoint, Histogram> latencies = new EnumMap<>(Endpoint.class);
+        Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            latencies.put(endpoint, new ConcurrentHistogram(TimeUnit.SECONDS.toNanos(60), 3));
+            errors.put(endpoint, new LongAdder());
+        }
+
+        // Warm up the JIT, pools and caches, then measure from a clean slate
+        drive(clients, pendingDeposits, WARMUP, latencies, errors);
+        latencies.values().forEach(Histogram::reset);
+        errors.values().forEach(LongAdder::reset);
+
+        long started = System.nanoTime();
+        drive(clients, pendingDeposits, DURATION, latencies, errors);
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        String report = report(latencies, errors, seconds);
+        System.out.println(report);
+        Path reportFile = Path.of("target", "load-test-report.txt");
+        Files.createDirectories(reportFile.getParent());
+        Files.writeString(reportFile, report);
+
+        for (Endpoint endpoint : Endpoint.values()) {
+            long total = latencies.get(endpoint).getTotalCount();
+            assertThat(total).as("%s requests", endpoint).isPositive();
+            assertThat(errors.get(endpoint).sum()).as("%s errors", endpoint).isLessThan(total);
+        }
+    }
+
+    private void drive(List<Client> clients, ConcurrentLinkedQueue<String> pendingDeposits, Duration duration,
+                       Map<Endpoint, Histogram> latencies, Map<Endpoint, LongAdder> errors) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTS; i++) {
+                executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        Endpoint endpoint = pick(random);
+                        Client caller = clients.get(random.nextInt(clients.size()));
+                        HttpRequest request = request(endpoint, caller, clients, pendingDeposits, random);
+                        if (request == null) {
+                            continue;
+                        }
+                        long start = System.nanoTime();
+                        int status;
+                        try {
+                            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            status = -1;
+                        }
+                        latencies.get(endpoint).recordValue(System.nanoTime() - start);
+                        if (status < 200 || status >= 300) {
+                            errors.get(endpoint).increment();
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+    }
+
+    private HttpRequest request(Endpoint endpoint, Client caller, List<Client> clients,
+                                ConcurrentLinkedQueue<String> pendingDeposits, ThreadLocalRandom random) {
+        return switch (endpoint) {
+            case TRANSFER -> {
+                Client recipient = clients.get(random.nextInt(clients.size()));
+                if (recipient == caller) {
+                    yield null;
+                }
+                String body = "{\"wallet_number\":\"" + recipient.walletNumber() + "\",\"amount\":"
+                        + (10 + random.nextInt(90)) + "}";
+                yield authenticated("/wallet/transfer", caller)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+            }
+            case BALANCE -> authenticated("/wallet/balance", caller).GET().build();
+            case HISTORY -> authenticated("/wallet/transactions", caller).GET().build();
+            case DEPOSIT -> authenticated("/wallet/deposit", caller)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"amount\":500}"))
+                    .build();
+            case WEBHOOK -> {
+                String reference = pendingDeposits.poll();
+                if (reference == null) {
+                    yield null;
+                }
+                byte[] body = ("{\"event\":\"charge.success\",\"data\":{\"reference\":\"" + reference
+                        + "\",\"status\":\"success\",\"amount\":50000}}").getBytes(StandardCharsets.UTF_8);
+                yield HttpRequest.newBuilder(uri("/wallet/paystack/webhook"))
+                        .header("Content-Type", "application/json")
+                        .header("x-paystack-signature", sign(body))
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                        .build();
+            }
+        };
+    }
+
+    private List<Client> seedUsers() {
+        List<Client> clients = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            WalletEntity wallet = testWallets.seed("10000000.00");
+            UserEntity user = wallet.getUser();
+
+            // Half the callers authenticate with an API key, half with a JWT
+            if (i % 2 == 0) {
+                String apiKey = apiKeyService.createApiKey(user, CreateApiKeyRequest.builder()
+                        .name("load")
+                        .permissions(Set.of("read", "deposit", "transfer"))
+                        .expiry("1D")
+                        .build()).getApiKey();
+                clients.add(new Client("x-api-key", apiKey, wallet.getWalletNumber()));
+            } else {
+                clients.add(new Client("Authorization", "Bearer " + jwtUtil.generateToken(user.getEmail()),
+                        wallet.getWalletNumber()));
+            }
+        }
+        return clients;
+    }
+
+    private ConcurrentLinkedQueue<String> seedPendingDeposits(List<Client> clients) {
+        List<String> references = new ArrayList<>();
+        List<TransactionEntity> batch = new ArrayList<>();
+        for (Client client : clients) {
+            WalletEntity wallet = walletService.getWalletByWalletNumber(client.walletNumber());
+            for (int i = 0; i < PENDING_DEPOSITS_PER_USER; i++) {
+                String reference = "TXN-LOAD-" + client.walletNumber() + "-" + i;
+                batch.add(TransactionEntity.builder()
+                        .wallet(wallet)
+                        .reference(reference)
+                        .paystackReference(reference)
+                        .type(TransactionType.DEPOSIT)
+                        .status(TransactionStatus.PENDING)
+                        .amount(new BigDecimal("500.00"))
+                        .build());
+                references.add(reference);
+            }
+        }
+        transactionRepository.saveAll(batch);
+        // Spread webhooks across wallets instead of settling one wallet's deposits back to back
+        Collections.shuffle(references);
+        return new ConcurrentLinkedQueue<>(references);
+    }
+
+    private static Endpoint pick(ThreadLocalRandom random) {
+        int roll = random.nextInt(100);
+        for (Endpoint endpoint : Endpoint.values()) {
+            roll -= endpoint.weight;
+            if (roll < 0) {
+                return endpoint;
+            }
+        }
+        return Endpoint.BALANCE;
+    }
+
+    private HttpRequest.Builder authenticated(String path, Client caller) {
+        return HttpRequest.newBuilder(uri(path)).header(caller.header(), caller.value());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + port + path);
+    }
+
+    private static String sign(byte[] body) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA512");
+            mac.init(new SecretKeySpec(PAYSTACK_SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+            return HexFormat.of().formatHex(mac.doFinal(body));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String report(Map<Endpoint, Histogram> latencies, Map<Endpoint, LongAdder> errors,
+                                 double seconds) {
+        StringBuilder report = new StringBuilder(String.format(
+                "%nLoad test: %d users, %d clients, %.1fs%n%-10s %9s %8s %10s %9s %9s %9s %9s%n",
+                USERS, CLIENTS, seconds, "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms",
+                "p99.9 ms", "max ms"));
+        for (Endpoint endpoint : Endpoint.values()) {
+            Histogram histogram = latencies.get(endpoint);
+            report.append(String.format("%-10s %9d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    endpoint.name().toLowerCase(),
+                    histogram.getTotalCount(),
+                    errors.get(endpoint).sum(),
+                    histogram.getTotalCount() / seconds,
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue())));
+        }
+        return report.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static void respond(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
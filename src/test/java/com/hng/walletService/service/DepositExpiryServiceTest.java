@@ -0,0 +1,82 @@
+package com.hng.walletService.service;
+
+import com.hng.walletService.model.enums.TransactionStatus;
+import com.hng.walletService.model.enums.TransactionType;
+import com.hng.walletService.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DepositExpiryServiceTest {
+
+    private final List<Long> pendingIds = new ArrayList<>();
+    private final List<Integer> chunkSizes = new ArrayList<>();
+
+    private TransactionRepository transactionRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private DepositExpiryService expiryService;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository = mock(TransactionRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        expiryService = new DepositExpiryService(transactionRepository, meterRegistry);
+        ReflectionTestUtils.setField(expiryService, "chunkSize", 500);
+
+        when(transactionRepository.findIdsCreatedBefore(eq(TransactionType.DEPOSIT), eq(TransactionStatus.PENDING), any(), any()))
+                .thenAnswer(invocation -> {
+                    Pageable pageable = invocation.getArgument(3);
+                    return List.copyOf(pendingIds.subList(0, Math.min(pageable.getPageSize(), pendingIds.size())));
+                });
+        when(transactionRepository.updateStatusIfPending(anyList(), eq(TransactionStatus.ABANDONED)))
+                .thenAnswer(invocation -> {
+                    List<Long> ids = invocation.getArgument(0);
+                    chunkSizes.add(ids.size());
+                    pendingIds.removeAll(ids);
+                    return ids.size();
+                });
+    }
+
+    @Test
+    void sweepsStaleDepositsInChunkedSetBasedUpdates() {
+        LongStream.rangeClosed(1, 2_300).forEach(pendingIds::add);
+
+        int swept = expiryService.expireStaleDeposits();
+
+        assertThat(swept).isEqualTo(2_300);
+        assertThat(pendingIds).isEmpty();
+        assertThat(chunkSizes).containsExactly(500, 500, 500, 500, 300);
+        assertThat(meterRegistry.get("wallet.deposits.expired").counter().count()).isEqualTo(2_300);
+        assertThat(meterRegistry.get("wallet.deposits.expiry.run.rows").summary().totalAmount()).isEqualTo(2_300);
+        assertThat(meterRegistry.get("wallet.deposits.expiry.run").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("wallet.deposits.expiry.run").timer().totalTime(TimeUnit.NANOSECONDS)).isPositive();
+    }
+
+    @Test
+    void stopsAtTheChunkCapSoOneRunStaysBounded() {
+        LongStream.rangeClosed(1, 2_300).forEach(pendingIds::add);
+        ReflectionTestUtils.setField(expiryService, "maxChunksPerRun", 2);
+
+        assertThat(expiryService.expireStaleDeposits()).isEqualTo(1_000);
+        assertThat(pendingIds).hasSize(1_300);
+    }
+
+    @Test
+    void emptyRunIssuesNoUpdates() {
+        assertThat(expiryService.expireStaleDeposits()).isZero();
+
+        verify(transactionRepository, never()).updateStatusIfPending(anyList(), any());
+        assertThat(meterRegistry.get("wallet.deposits.expiry.run").timer().count()).isEqualTo(1);
+    }
+}
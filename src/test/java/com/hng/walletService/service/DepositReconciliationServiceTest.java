@@ -0,0 +1,203 @@
+package com.hng.walletService.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hng.walletService.model.entity.TransactionEntity;
+import com.hng.walletService.model.enums.TransactionStatus;
+import com.hng.walletService.model.enums.TransactionType;
+import com.hng.walletService.repository.TransactionRepository;
+import com.hng.walletService.util.LatencyRecorder;
+import com.hng.walletService.util.WalletMetrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class DepositReconciliationServiceTest {
+
+    private static final int REFERENCE_COUNT = 10_000;
+    private static final int MAX_CONCURRENCY = 16;
+
+    private final Map<Long, TransactionEntity> rows = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger verifyCalls = new AtomicInteger();
+
+    private HttpServer paystackStub;
+    private TransactionService transactionService;
+    private DepositReconciliationService reconciliationService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        LocalDateTime base = LocalDateTime.now().minusDays(3);
+        for (long id = 1; id <= REFERENCE_COUNT; id++) {
+            rows.put(id, TransactionEntity.builder()
+                    .id(id)
+                    .reference(reference(id))
+                    .paystackReference(reference(id))
+                    .type(TransactionType.DEPOSIT)
+                    .status(TransactionStatus.PENDING)
+                    .amount(new BigDecimal("500.00"))
+                    // Several rows share a timestamp so the id tie-breaker in the cursor is exercised
+                    .createdAt(base.plusSeconds(id / 3))
+                    .build());
+        }
+
+        // Avoid Nagle/delayed-ACK stalls between the stub's header and body writes
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        paystackStub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        paystackStub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        paystackStub.createContext("/transaction/verify/", this::handleVerify);
+        paystackStub.start();
+
+        PaystackService paystackService = new PaystackService(WebClient.builder(), new ObjectMapper(),
+                CircuitBreaker.ofDefaults("paystack"), Bulkhead.ofDefaults("paystack"),
+                new WalletMetrics(new SimpleMeterRegistry()), new LatencyRecorder());
+        ReflectionTestUtils.setField(paystackService, "secretKey", "sk_test_stub");
+        ReflectionTestUtils.setField(paystackService, "baseUrl",
+                "http://127.0.0.1:" + paystackStub.getAddress().getPort());
+        paystackService.init();
+
+        TransactionRepository transactionRepository = mock(TransactionRepository.class);
+        when(transactionRepository.findStalePage(any(), any(), any(), any(), anyLong(), any()))
+                .thenAnswer(invocation -> stalePage(
+                        invocation.getArgument(2),
+                        invocation.getArgument(3),
+                        invocation.getArgument(4),
+                        invocation.getArgument(5)));
+        when(transactionRepository.updateStatusIfPending(anyLong(), any()))
+                .thenAnswer(invocation -> updateIfPending(invocation.getArgument(0), invocation.getArgument(1)));
+
+        transactionService = mock(TransactionService.class);
+        doAnswer(invocation -> {
+            String reference = invocation.getArgument(0);
+            rows.values().stream()
+                    .filter(row -> row.getPaystackReference().equals(reference))
+                    .forEach(TransactionEntity::markAsSuccess);
+            return null;
+        }).when(transactionService).processSuccessfulDeposit(any(), any());
+
+        reconciliationService = new DepositReconciliationService(transactionRepository, transactionService, paystackService);
+        ReflectionTestUtils.setField(reconciliationService, "staleAfter", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(reconciliationService, "abandonAfter", Duration.ofHours(24));
+        ReflectionTestUtils.setField(reconciliationService, "pageSize", 250);
+        ReflectionTestUtils.setField(reconciliationService, "maxConcurrency", MAX_CONCURRENCY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        paystackStub.stop(0);
+    }
+
+    @Test
+    void reconcilesEveryStaleReferenceWithBoundedConcurrency() {
+        DepositReconciliationService.ReconciliationResult result = reconciliationService.reconcilePendingDeposits();
+
+        assertThat(result.scanned()).isEqualTo(REFERENCE_COUNT);
+        assertThat(result.errors()).isZero();
+        assertThat(result.succeeded()).isEqualTo(REFERENCE_COUNT / 4);
+        assertThat(result.failed()).isEqualTo(REFERENCE_COUNT / 4);
+        assertThat(result.abandoned()).isEqualTo(REFERENCE_COUNT / 4);
+        assertThat(result.stillPending()).isEqualTo(REFERENCE_COUNT / 4);
+
+        assertThat(verifyCalls.get()).isEqualTo(REFERENCE_COUNT);
+        assertThat(maxInFlight.get()).isBetween(2, MAX_CONCURRENCY);
+        verify(transactionService, times(REFERENCE_COUNT / 4)).processSuccessfulDeposit(any(), any());
+    }
+
+    @Test
+    void rerunOnlyRevisitsRowsThatAreStillPending() {
+        reconciliationService.reconcilePendingDeposits();
+        verifyCalls.set(0);
+
+        DepositReconciliationService.ReconciliationResult rerun = reconciliationService.reconcilePendingDeposits();
+
+        assertThat(rerun.scanned()).isEqualTo(REFERENCE_COUNT / 4);
+        assertThat(rerun.succeeded()).isZero();
+        assertThat(rerun.stillPending()).isEqualTo(REFERENCE_COUNT / 4);
+        assertThat(verifyCalls.get()).isEqualTo(REFERENCE_COUNT / 4);
+        verify(transactionService, times(REFERENCE_COUNT / 4)).processSuccessfulDeposit(any(), any());
+    }
+
+    private List<TransactionEntity> stalePage(LocalDateTime cutoff, LocalDateTime afterCreatedAt,
+                                              Long afterId, Pageable pageable) {
+        return rows.values().stream()
+                .filter(TransactionEntity::isPending)
+                .filter(row -> row.getCreatedAt().isBefore(cutoff))
+                .filter(row -> row.getCreatedAt().isAfter(afterCreatedAt)
+                        || (row.getCreatedAt().isEqual(afterCreatedAt) && row.getId() > afterId))
+                .sorted(Comparator.comparing(TransactionEntity::getCreatedAt).thenComparing(TransactionEntity::getId))
+                .limit(pageable.getPageSize())
+                .toList();
+    }
+
+    private int updateIfPending(Long id, TransactionStatus status) {
+        TransactionEntity row = rows.get(id);
+        synchronized (row) {
+            if (!row.isPending()) {
+                return 0;
+            }
+            row.setStatus(status);
+            return 1;
+        }
+    }
+
+    private void handleVerify(HttpExchange exchange) throws IOException {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        verifyCalls.incrementAndGet();
+        try {
+            Thread.sleep(1);
+            String reference = exchange.getRequestURI().getPath().substring("/transaction/verify/".length());
+            long id = Long.parseLong(reference.substring("TXN-".length()));
+            String status = switch ((int) (id % 4)) {
+                case 0 -> "success";
+                case 1 -> "failed";
+                case 2 -> "abandoned";
+                default -> "ongoing";
+            };
+
+            byte[] body = ("{\"status\":true,\"message\":\"Verification successful\",\"data\":{\"reference\":\""
+                    + reference + "\",\"status\":\"" + status + "\",\"amount\":50000}}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private static String reference(long id) {
+        return "TXN-" + id;
+    }
+}
@@ -0,0 +1,155 @@
+package com.hng.walletService.service;
+
+import com.hng.walletService.model.dto.paystack.PaystackVerifyResponse;
+import com.hng.walletService.model.dto.response.DepositStatusResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PaymentVerificationServiceTest {
+
+    private static final String REFERENCE = "TXN-0123456789ABCDEF";
+
+    private PaystackService paystackService;
+    private TransactionService transactionService;
+    private PaymentVerificationService verificationService;
+
+    @BeforeEach
+    void setUp() {
+        paystackService = mock(PaystackService.class);
+        transactionService = mock(TransactionService.class);
+        verificationService = new PaymentVerificationService(paystackService, transactionService);
+        ReflectionTestUtils.setField(verificationService, "resultTtl", Duration.ofSeconds(10));
+    }
+
+    @Test
+    void concurrentCallsForOneReferenceShareASingleVerification() throws Exception {
+        CountDownLatch paystackEntered = new CountDownLatch(1);
+        CountDownLatch releasePaystack = new CountDownLatch(1);
+        when(paystackService.verifyTransaction(REFERENCE)).thenAnswer(invocation -> {
+            paystackEntered.countDown();
+            releasePaystack.await(5, TimeUnit.SECONDS);
+            return verifyResponse("success");
+        });
+        when(transactionService.getDepositStatus(REFERENCE)).thenReturn(status("success"));
+
+        List<Future<DepositStatusResponse>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            results.add(executor.submit(() -> verificationService.verifyPayment(REFERENCE)));
+            assertThat(paystackEntered.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 0; i < 20; i++) {
+                results.add(executor.submit(() -> verificationService.verifyPayment(REFERENCE)));
+            }
+            // Let the followers reach the in-flight future before the leader finishes
+            Thread.sleep(100);
+            releasePaystack.countDown();
+
+            for (Future<DepositStatusResponse> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo("success");
+            }
+        }
+
+        verify(paystackService, times(1)).verifyTransaction(REFERENCE);
+        verify(transactionService, times(1)).processSuccessfulDeposit(eq(REFERENCE), eq(new BigDecimal("500.00")));
+    }
+
+    @Test
+    void terminalResultsAreServedFromCacheUntilTheyExpire() {
+        when(paystackService.verifyTransaction(any())).thenReturn(verifyResponse("failed"));
+        when(transactionService.getDepositStatus(any())).thenReturn(status("failed"));
+
+        verificationService.verifyPayment(REFERENCE);
+        verificationService.verifyPayment(REFERENCE);
+        verify(paystackService, times(1)).verifyTransaction(REFERENCE);
+
+        ReflectionTestUtils.setField(verificationService, "resultTtl", Duration.ZERO);
+        verificationService.verifyPayment("TXN-OTHER");
+        verificationService.verifyPayment("TXN-OTHER");
+        verify(paystackService, times(2)).verifyTransaction("TXN-OTHER");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void aLeaderReusesAResultCachedJustBeforeItTookOver() {
+        when(paystackService.verifyTransaction(REFERENCE)).thenReturn(verifyResponse("success"));
+        when(transactionService.getDepositStatus(REFERENCE)).thenReturn(status("success"));
+        verificationService.verifyPayment(REFERENCE);
+
+        // The first lookup misses, as it does when the previous leader caches its result right after it
+        Map<String, Object> cached = (Map<String, Object>) ReflectionTestUtils.getField(verificationService, "terminalResults");
+        AtomicBoolean missed = new AtomicBoolean();
+        ReflectionTestUtils.setField(verificationService, "terminalResults", new ConcurrentHashMap<>(cached) {
+            @Override
+            public Object get(Object key) {
+                return missed.compareAndSet(false, true) ? null : super.get(key);
+            }
+        });
+
+        assertThat(verificationService.verifyPayment(REFERENCE).getStatus()).isEqualTo("success");
+        assertThat(missed).isTrue();
+        verify(paystackService, times(1)).verifyTransaction(REFERENCE);
+    }
+
+    @Test
+    void pendingResultsAreNotCached() {
+        when(paystackService.verifyTransaction(REFERENCE)).thenReturn(verifyResponse("ongoing"));
+        when(transactionService.getDepositStatus(REFERENCE)).thenReturn(status("pending"));
+
+        verificationService.verifyPayment(REFERENCE);
+        verificationService.verifyPayment(REFERENCE);
+
+        verify(paystackService, times(2)).verifyTransaction(REFERENCE);
+        verify(transactionService, never()).processSuccessfulDeposit(any(), any());
+    }
+
+    @Test
+    void failuresAreNotCachedAndTheNextCallRetries() {
+        when(paystackService.verifyTransaction(REFERENCE))
+                .thenThrow(new RuntimeException("Failed to verify payment"))
+                .thenReturn(verifyResponse("success"));
+        when(transactionService.getDepositStatus(REFERENCE)).thenReturn(status("success"));
+
+        assertThatThrownBy(() -> verificationService.verifyPayment(REFERENCE))
+                .hasMessage("Failed to verify payment");
+        assertThat(verificationService.verifyPayment(REFERENCE).getStatus()).isEqualTo("success");
+    }
+
+    private static PaystackVerifyResponse verifyResponse(String status) {
+        PaystackVerifyResponse.PaystackVerifyData data = new PaystackVerifyResponse.PaystackVerifyData();
+        data.setReference(REFERENCE);
+        data.setStatus(status);
+        data.setAmount(50_000L);
+
+        PaystackVerifyResponse response = new PaystackVerifyResponse();
+        response.setStatus(true);
+        response.setData(data);
+        return response;
+    }
+
+    private static DepositStatusResponse status(String status) {
+        return DepositStatusResponse.builder()
+                .reference(REFERENCE)
+                .status(status)
+                .amount(new BigDecimal("500.00"))
+                .build();
+    }
+}
@@ -0,0 +1,155 @@
+package com.hng.walletService.service;
+
+import com.hng.walletService.TestWallets;
+import com.hng.walletService.exception.InvalidRequestException;
+import com.hng.walletService.exception.ResourceNotFoundException;
+import com.hng.walletService.model.dto.response.PayoutBatchResponse;
+import com.hng.walletService.model.entity.TransactionEntity;
+import com.hng.walletService.model.entity.WalletEntity;
+import com.hng.walletService.repository.TransactionRepository;
+import com.hng.walletService.repository.WalletRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ActiveProfiles("embedded")
+@Import(TestWallets.class)
+// Velocity limits, off in the embedded profile, are on with the tier limits as shipped
+@SpringBootTest(properties = {"payouts.chunk-size=7", "payouts.page-size=20", "payouts.insert-batch-size=16",
+        "wallet.velocity.enabled=true"})
+class PayoutPipelineTest {
+
+    @Autowired
+    private PayoutService payoutService;
+    @Autowired
+    private PayoutPipeline payoutPipeline;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private WalletRepository walletRepository;
+    @Autowired
+    private TestWallets testWallets;
+
+    @Test
+    void paysOutAFileAndReportsEveryLine() throws Exception {
+        WalletEntity merchant = testWallets.seed("100000.00");
+        List<WalletEntity> recipients = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            recipients.add(testWallets.seed("0.00"));
+        }
+
+        StringBuilder file = new StringBuilder("wallet_number,amount,reference\n");
+        for (int i = 0; i < 100; i++) {
+            // Amounts grow down the file, so a recipient's credits in file order have rising amounts
+            file.append(recipients.get(i % 5).getWalletNumber()).append(',').append(10 + i).append(",ref-").append(i).append('\n');
+        }
+        file.append(recipients.getFirst().getWalletNumber()).append(",9.99\n");
+        file.append("0000000000000,50\n");
+        file.append(merchant.getWalletNumber()).append(",50\n");
+
+        PayoutBatchResponse received = upload(merchant, file.toString());
+        assertThat(received.getStatus()).isEqualTo("received");
+        assertThat(received.getTotalItems()).isEqualTo(103);
+        assertThat(received.getInvalidItems()).isEqualTo(1);
+
+        payoutPipeline.submit(received.getId()).get();
+
+        PayoutBatchResponse batch = payoutService.getBatch(received.getId(), merchant.getUser());
+        assertThat(batch.getStatus()).isEqualTo("completed");
+        assertThat(batch.getSucceededItems()).isEqualTo(100);
+        assertThat(batch.getInvalidItems()).isEqualTo(3);
+        assertThat(batch.getPendingItems()).isZero();
+        // 10 + 11 + ... + 109
+        assertThat(batch.getReservedAmount()).isEqualByComparingTo("5950.00");
+        assertThat(batch.getRefundedAmount()).isEqualByComparingTo("0.00");
+        assertThat(balance(merchant)).isEqualByComparingTo("94050.00");
+        assertThat(balance(recipients.getFirst())).isEqualByComparingTo("1150.00");
+
+        // Each recipient was credited in file order
+        BigDecimal previous = BigDecimal.ZERO;
+        for (int line = 2; line <= 101; line += 5) {
+            TransactionEntity credit = transactionRepository
+                    .findByReference("PAYOUT-" + batch.getId() + "-" + line + "-CREDIT").orElseThrow();
+            assertThat(credit.getPreviousBalance()).isEqualByComparingTo(previous);
+            previous = credit.getNewBalance();
+        }
+        assertThat(transactionRepository.findByReference("PAYOUT-" + batch.getId() + "-2-DEBIT")).isPresent();
+
+        StringWriter results = new StringWriter();
+        payoutService.writeResults(batch.getId(), merchant.getUser(), results);
+        List<String> lines = results.toString().lines().toList();
+        assertThat(lines).hasSize(104);
+        assertThat(lines.get(1)).startsWith("2," + recipients.getFirst().getWalletNumber() + ",10.00,ref-0,success,,PAYOUT-");
+        assertThat(lines.get(101)).endsWith(",invalid,Minimum transfer amount is 10,");
+        assertThat(lines.get(102)).endsWith(",invalid,Wallet not found or not active,");
+        assertThat(lines.get(103)).endsWith(",invalid,Cannot transfer to your own wallet,");
+    }
+
+    @Test
+    void largeFilesFitTheShippedVelocityLimits() throws Exception {
+        WalletEntity merchant = testWallets.seed("100000.00");
+        WalletEntity recipient = testWallets.seed("0.00");
+
+        PayoutBatchResponse received = upload(merchant, (recipient.getWalletNumber() + ",10\n").repeat(500));
+        payoutPipeline.submit(received.getId()).get();
+
+        PayoutBatchResponse batch = payoutService.getBatch(received.getId(), merchant.getUser());
+        assertThat(batch.getStatus()).isEqualTo("completed");
+        assertThat(batch.getSucceededItems()).isEqualTo(500);
+        assertThat(balance(merchant)).isEqualByComparingTo("95000.00");
+    }
+
+    @Test
+    void batchTheWalletCannotCoverFailsAsAWhole() throws Exception {
+        WalletEntity merchant = testWallets.seed("50.00");
+        WalletEntity recipient = testWallets.seed("0.00");
+        String file = recipient.getWalletNumber() + ",40\n" + recipient.getWalletNumber() + ",40\n";
+
+        PayoutBatchResponse received = upload(merchant, file);
+        payoutPipeline.submit(received.getId()).get();
+
+        PayoutBatchResponse batch = payoutService.getBatch(received.getId(), merchant.getUser());
+        assertThat(batch.getStatus()).isEqualTo("failed");
+        assertThat(batch.getError()).isEqualTo("Insufficient balance");
+        assertThat(batch.getFailedItems()).isEqualTo(2);
+        assertThat(balance(merchant)).isEqualByComparingTo("50.00");
+        assertThat(balance(recipient)).isEqualByComparingTo("0.00");
+    }
+
+    @Test
+    void filesAndBatchesThatCannotBeServedAreRejected() throws Exception {
+        WalletEntity merchant = testWallets.seed("100.00");
+        WalletEntity stranger = testWallets.seed("0.00");
+
+        assertThatThrownBy(() -> upload(merchant, "wallet_number,amount\n"))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("Payout file has no payouts");
+
+        PayoutBatchResponse received = upload(merchant, stranger.getWalletNumber() + ",10\n");
+        assertThatThrownBy(() -> payoutService.getBatch(received.getId(), stranger.getUser()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> payoutService.getBatch(-1L, merchant.getUser()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private PayoutBatchResponse upload(WalletEntity merchant, String file) throws Exception {
+        return payoutService.upload(merchant.getUser(), "payouts.csv",
+                new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private BigDecimal balance(WalletEntity wallet) {
+        return walletRepository.findById(wallet.getId()).orElseThrow().getBalance();
+    }
+}
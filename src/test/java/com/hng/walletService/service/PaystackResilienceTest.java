@@ -0,0 +1,185 @@
+package com.hng.walletService.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hng.walletService.config.PaystackResilienceConfig;
+import com.hng.walletService.exception.PaystackUnavailableException;
+import com.hng.walletService.util.LatencyRecorder;
+import com.hng.walletService.util.WalletMetrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PaystackResilienceTest {
+
+    private static final int MINIMUM_CALLS = 4;
+    private static final int MAX_CONCURRENT_CALLS = 2;
+
+    private final PaystackResilienceConfig resilienceConfig = new PaystackResilienceConfig();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private HttpServer paystackStub;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private CircuitBreaker circuitBreaker;
+    private PaystackService paystackService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        paystackStub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        paystackStub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        paystackStub.createContext("/transaction/verify/", this::handleVerify);
+        paystackStub.start();
+
+        circuitBreakerRegistry = resilienceConfig.circuitBreakerRegistry(
+                50f, Duration.ofSeconds(5), Duration.ofSeconds(30), MINIMUM_CALLS, Duration.ofSeconds(30), 1);
+        BulkheadRegistry bulkheadRegistry = resilienceConfig.bulkheadRegistry(MAX_CONCURRENT_CALLS, Duration.ZERO);
+        circuitBreaker = resilienceConfig.paystackCircuitBreaker(circuitBreakerRegistry);
+        Bulkhead bulkhead = resilienceConfig.paystackBulkhead(bulkheadRegistry);
+
+        paystackService = new PaystackService(WebClient.builder(), new ObjectMapper(), circuitBreaker, bulkhead,
+                new WalletMetrics(new SimpleMeterRegistry()), new LatencyRecorder());
+        ReflectionTestUtils.setField(paystackService, "secretKey", "sk_test_stub");
+        ReflectionTestUtils.setField(paystackService, "baseUrl",
+                "http://127.0.0.1:" + paystackStub.getAddress().getPort());
+        ReflectionTestUtils.setField(paystackService, "timeout", Duration.ofMillis(200));
+        paystackService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        paystackStub.stop(0);
+    }
+
+    @Test
+    void timeoutsOpenTheCircuitAndLaterCallsFailFast() {
+        for (int i = 0; i < MINIMUM_CALLS; i++) {
+            assertThatThrownBy(() -> paystackService.verifyTransaction("slow"))
+                    .isNotInstanceOf(PaystackUnavailableException.class)
+                    .hasMessage("Failed to verify payment");
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> paystackService.verifyTransaction("slow"))
+                .isInstanceOf(PaystackUnavailableException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofMillis(100));
+        assertThat(requests.get()).isEqualTo(MINIMUM_CALLS);
+    }
+
+    @Test
+    void unknownReferencesDoNotOpenTheCircuit() {
+        // A cold client can exceed the short timeout and count as a failure; only 4xx is under test here
+        ReflectionTestUtils.setField(paystackService, "timeout", Duration.ofSeconds(5));
+        for (int i = 0; i < MINIMUM_CALLS * 3; i++) {
+            assertThatThrownBy(() -> paystackService.verifyTransaction("missing"))
+                    .isNotInstanceOf(PaystackUnavailableException.class);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondTheConcurrencyCap() throws Exception {
+        var executor = Executors.newVirtualThreadPerTaskExecutor();
+        var held = new CompletableFuture<?>[MAX_CONCURRENT_CALLS];
+        ReflectionTestUtils.setField(paystackService, "timeout", Duration.ofSeconds(5));
+        for (int i = 0; i < MAX_CONCURRENT_CALLS; i++) {
+            held[i] = CompletableFuture.runAsync(() -> paystackService.verifyTransaction("held"), executor);
+        }
+        awaitInFlight(MAX_CONCURRENT_CALLS);
+
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> paystackService.verifyTransaction("held"))
+                .isInstanceOf(PaystackUnavailableException.class)
+                .hasMessageContaining("concurrent");
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofMillis(100));
+
+        release.countDown();
+        CompletableFuture.allOf(held).get(5, TimeUnit.SECONDS);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        executor.close();
+    }
+
+    @Test
+    void breakerStateIsExportedAsMetrics() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        resilienceConfig.paystackCircuitBreakerMetrics(circuitBreakerRegistry, meterRegistry);
+
+        circuitBreaker.transitionToOpenState();
+
+        double open = meterRegistry.get("resilience4j.circuitbreaker.state")
+                .tag("name", PaystackResilienceConfig.PAYSTACK)
+                .tag("state", "open")
+                .gauge()
+                .value();
+        assertThat(open).isEqualTo(1.0);
+    }
+
+    private void awaitInFlight(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (inFlight.get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(inFlight.get()).isEqualTo(expected);
+    }
+
+    private void handleVerify(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        inFlight.incrementAndGet();
+        try {
+            String reference = exchange.getRequestURI().getPath().substring("/transaction/verify/".length());
+            switch (reference) {
+                case "slow" -> release.await(2, TimeUnit.SECONDS);
+                case "held" -> release.await(5, TimeUnit.SECONDS);
+                case "missing" -> {
+                    respond(exchange, 400, "{\"status\":false,\"message\":\"Transaction reference not found\"}");
+                    return;
+                }
+                default -> {
+                }
+            }
+            respond(exchange, 200, "{\"status\":true,\"data\":{\"reference\":\"" + reference + "\",\"status\":\"success\",\"amount\":10000}}");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // Client already gave up on a timed-out request
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.hng.walletService.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hng.walletService.model.dto.paystack.PaystackWebhookPayload;
+import com.hng.walletService.util.LatencyRecorder;
+import com.hng.walletService.util.WalletMetrics;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaystackServiceTest {
+
+    private static final String SECRET = "sk_test_webhook_secret";
+
+    private static final String PAYLOAD = """
+            {"event":"charge.success","data":{"id":302961,"domain":"live","status":"success",
+            "reference":"TXN-ABC123","amount":1050050,"metadata":{"custom_fields":[{"a":1}]},
+            "customer":{"email":"user@example.com","customer_code":"CUS_1"}}}""";
+
+    private PaystackService paystackService;
+
+    @BeforeEach
+    void setUp() {
+        paystackService = new PaystackService(WebClient.builder(), new ObjectMapper(),
+                CircuitBreaker.ofDefaults("paystack"), Bulkhead.ofDefaults("paystack"),
+                new WalletMetrics(new SimpleMeterRegistry()), new LatencyRecorder());
+        ReflectionTestUtils.setField(paystackService, "secretKey", SECRET);
+    }
+
+    @Test
+    void acceptsValidSignatureOverRawBytes() throws Exception {
+        byte[] body = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+
+        assertThat(paystackService.verifyWebhookSignature(body, sign(body))).isTrue();
+        assertThat(paystackService.verifyWebhookSignature(body, sign(body).toUpperCase())).isTrue();
+        // Repeated calls reuse the per-thread Mac and must not carry state over
+        assertThat(paystackService.verifyWebhookSignature(body, sign(body))).isTrue();
+    }
+
+    @Test
+    void rejectsTamperedOrMalformedSignatures() throws Exception {
+        byte[] body = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+        byte[] tampered = PAYLOAD.replace("1050050", "9050050").getBytes(StandardCharsets.UTF_8);
+
+        assertThat(paystackService.verifyWebhookSignature(tampered, sign(body))).isFalse();
+        assertThat(paystackService.verifyWebhookSignature(body, "not-hex")).isFalse();
+        assertThat(paystackService.verifyWebhookSignature(body, sign(body).substring(2))).isFalse();
+        assertThat(paystackService.verifyWebhookSignature(body, null)).isFalse();
+    }
+
+    @Test
+    void parsesOnlyTheFieldsTheHandlerNeeds() throws Exception {
+        PaystackWebhookPayload payload = paystackService.parseWebhookPayload(PAYLOAD.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(payload.getEvent()).isEqualTo("charge.success");
+        assertThat(payload.getData().getReference()).isEqualTo("TXN-ABC123");
+        assertThat(payload.getData().getStatus()).isEqualTo("success");
+        assertThat(payload.getData().getAmount()).isEqualTo(1050050L);
+        assertThat(payload.getData().getCustomer()).isNull();
+    }
+
+    private static String sign(byte[] body) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA512");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+        return HexFormat.of().formatHex(mac.doFinal(body));
+    }
+}
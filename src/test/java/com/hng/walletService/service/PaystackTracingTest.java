@@ -0,0 +1,111 @@
+package com.hng.walletService.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hng.walletService.util.LatencyRecorder;
+import com.hng.walletService.util.WalletMetrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.handler.DefaultTracingObservationHandler;
+import io.micrometer.tracing.handler.PropagatingSenderTracingObservationHandler;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelPropagator;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaystackTracingTest {
+
+    private final InMemorySpanExporter exporter = InMemorySpanExporter.create();
+    private final AtomicReference<String> receivedTraceparent = new AtomicReference<>();
+
+    private HttpServer paystackStub;
+    private ObservationRegistry observationRegistry;
+    private PaystackService paystackService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        paystackStub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        paystackStub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        paystackStub.createContext("/transaction/verify/", this::handleVerify);
+        paystackStub.start();
+
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build();
+        io.opentelemetry.api.trace.Tracer otelTracer = tracerProvider.get("wallet-test");
+        OtelTracer tracer = new OtelTracer(otelTracer, new OtelCurrentTraceContext(), event -> {
+        });
+        OtelPropagator propagator = new OtelPropagator(
+                ContextPropagators.create(W3CTraceContextPropagator.getInstance()), otelTracer);
+
+        observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(
+                new ObservationHandler.FirstMatchingCompositeObservationHandler(
+                        new PropagatingSenderTracingObservationHandler<>(tracer, propagator),
+                        new DefaultTracingObservationHandler(tracer)));
+
+        paystackService = new PaystackService(WebClient.builder().observationRegistry(observationRegistry),
+                new ObjectMapper(), CircuitBreaker.ofDefaults("paystack"), Bulkhead.ofDefaults("paystack"),
+                new WalletMetrics(new SimpleMeterRegistry()), new LatencyRecorder());
+        ReflectionTestUtils.setField(paystackService, "secretKey", "sk_test_stub");
+        ReflectionTestUtils.setField(paystackService, "baseUrl",
+                "http://127.0.0.1:" + paystackStub.getAddress().getPort());
+        paystackService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        paystackStub.stop(0);
+    }
+
+    @Test
+    void paystackCallsAreClientSpansOfTheCallerAndPropagateTheTrace() {
+        Observation.createNotStarted("wallet.deposit.verify", observationRegistry)
+                .observe(() -> paystackService.verifyTransaction("TXN-TRACE"));
+
+        assertThat(exporter.getFinishedSpanItems()).hasSize(2);
+        SpanData client = exporter.getFinishedSpanItems().getFirst();
+        SpanData parent = exporter.getFinishedSpanItems().getLast();
+
+        assertThat(client.getParentSpanId()).isEqualTo(parent.getSpanId());
+        assertThat(client.getAttributes().asMap().toString()).contains("/transaction/verify/");
+        assertThat(receivedTraceparent.get())
+                .isEqualTo("00-" + client.getTraceId() + "-" + client.getSpanId() + "-01");
+    }
+
+    private void handleVerify(HttpExchange exchange) throws IOException {
+        receivedTraceparent.set(exchange.getRequestHeaders().getFirst("traceparent"));
+        byte[] body = "{\"status\":true,\"data\":{\"reference\":\"TXN-TRACE\",\"status\":\"success\",\"amount\":10000}}"
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
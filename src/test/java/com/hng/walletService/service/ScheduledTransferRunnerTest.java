@@ -0,0 +1,140 @@
+package com.hng.walletService.service;
+
+import com.hng.walletService.TestWallets;
+import com.hng.walletService.model.entity.ScheduledTransferEntity;
+import com.hng.walletService.model.entity.WalletEntity;
+import com.hng.walletService.model.enums.ScheduledTransferStatus;
+import com.hng.walletService.model.enums.TransferFrequency;
+import com.hng.walletService.repository.ScheduledTransferRepository;
+import com.hng.walletService.repository.WalletRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@ActiveProfiles("embedded")
+@Import(TestWallets.class)
+@SpringBootTest(properties = "scheduled-transfers.jitter=0s")
+class ScheduledTransferRunnerTest {
+
+    @Autowired
+    private ScheduledTransferRunner runner;
+    @Autowired
+    private ScheduledTransferRepository scheduledTransferRepository;
+    @Autowired
+    private WalletRepository walletRepository;
+    @Autowired
+    private TestWallets testWallets;
+
+    @Test
+    void dueTransferRunsAndMovesOnToTheNextOccurrence() {
+        WalletEntity sender = testWallets.seed("1000.00");
+        WalletEntity recipient = testWallets.seed("0.00");
+        LocalDateTime firstRunAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusMinutes(1);
+        Long id = seedSchedule(sender, recipient, TransferFrequency.DAILY, firstRunAt);
+
+        runner.claimDue();
+
+        ScheduledTransferEntity scheduled = awaitSchedule(id, s -> s.getRuns() == 1);
+        assertThat(scheduled.getStatus()).isEqualTo(ScheduledTransferStatus.ACTIVE);
+        assertThat(scheduled.getNextRunAt()).isEqualTo(firstRunAt.plusDays(1));
+        assertThat(scheduled.getAttemptAt()).isEqualTo(scheduled.getNextRunAt());
+        assertThat(scheduled.getClaimToken()).isNull();
+        assertThat(scheduled.getLastReference()).isNotBlank();
+        assertThat(balance(sender)).isEqualByComparingTo("750.00");
+        assertThat(balance(recipient)).isEqualByComparingTo("250.00");
+    }
+
+    @Test
+    void failedRunIsRetriedLater() {
+        WalletEntity sender = testWallets.seed("0.00");
+        WalletEntity recipient = testWallets.seed("0.00");
+        Long id = seedSchedule(sender, recipient, TransferFrequency.ONCE, LocalDateTime.now().minusMinutes(1));
+
+        runner.claimDue();
+
+        ScheduledTransferEntity scheduled = awaitSchedule(id, s -> s.getAttempts() == 1);
+        assertThat(scheduled.getStatus()).isEqualTo(ScheduledTransferStatus.ACTIVE);
+        assertThat(scheduled.getRuns()).isZero();
+        assertThat(scheduled.getLastError()).isEqualTo("Insufficient balance");
+        assertThat(scheduled.getAttemptAt()).isAfter(LocalDateTime.now());
+        assertThat(scheduled.getClaimToken()).isNull();
+    }
+
+    @Test
+    void concurrentClaimersRunEachTransferOnce() {
+        WalletEntity sender = testWallets.seed("100000.00");
+        WalletEntity recipient = testWallets.seed("0.00");
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(seedSchedule(sender, recipient, TransferFrequency.ONCE, LocalDateTime.now().minusMinutes(1)));
+        }
+
+        CompletableFuture.allOf(
+                CompletableFuture.runAsync(runner::claimDue),
+                CompletableFuture.runAsync(runner::claimDue),
+                CompletableFuture.runAsync(runner::claimDue)).join();
+
+        ids.forEach(id -> assertThat(awaitSchedule(id, s -> !s.isActive()).getStatus())
+                .isEqualTo(ScheduledTransferStatus.COMPLETED));
+        assertThat(balance(recipient)).isEqualByComparingTo("5000.00");
+    }
+
+    @Test
+    void monthlyTransferKeepsItsDayOfMonth() {
+        LocalDateTime january31 = LocalDateTime.of(2027, 1, 31, 9, 0);
+        ScheduledTransferEntity scheduled = ScheduledTransferEntity.builder()
+                .frequency(TransferFrequency.MONTHLY)
+                .firstRunAt(january31)
+                .nextRunAt(january31)
+                .attemptAt(january31)
+                .build();
+
+        scheduled.recordRun("TXN-1", january31.plusMinutes(1));
+        assertThat(scheduled.getNextRunAt()).isEqualTo(LocalDateTime.of(2027, 2, 28, 9, 0));
+
+        scheduled.recordRun("TXN-2", LocalDateTime.of(2027, 2, 28, 9, 1));
+        assertThat(scheduled.getNextRunAt()).isEqualTo(LocalDateTime.of(2027, 3, 31, 9, 0));
+
+        // Runs missed while nothing was running are skipped
+        scheduled.recordRun("TXN-3", LocalDateTime.of(2027, 6, 15, 0, 0));
+        assertThat(scheduled.getNextRunAt()).isEqualTo(LocalDateTime.of(2027, 6, 30, 9, 0));
+    }
+
+    private ScheduledTransferEntity awaitSchedule(Long id, Predicate<ScheduledTransferEntity> done) {
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> done.test(scheduledTransferRepository.findById(id).orElseThrow()));
+        return scheduledTransferRepository.findById(id).orElseThrow();
+    }
+
+    private BigDecimal balance(WalletEntity wallet) {
+        return walletRepository.findById(wallet.getId()).orElseThrow().getBalance();
+    }
+
+    private Long seedSchedule(WalletEntity sender, WalletEntity recipient, TransferFrequency frequency,
+                              LocalDateTime runAt) {
+        return scheduledTransferRepository.save(ScheduledTransferEntity.builder()
+                .user(sender.getUser())
+                .recipientWalletNumber(recipient.getWalletNumber())
+                .amount(new BigDecimal("250.00"))
+                .frequency(frequency)
+                .firstRunAt(runAt)
+                .nextRunAt(runAt)
+                .attemptAt(runAt)
+                .maxRuns(frequency == TransferFrequency.ONCE ? 1 : null)
+                .build()).getId();
+    }
+}
@@ -0,0 +1,177 @@
+package com.hng.walletService.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs migration V3 and {@link TransactionPartitionService} against a real PostgreSQL, which the
+ * embedded H2 profile cannot stand in for.
+ * <p>
+ * Run with {@code mvn -Ppostgres-test test}. The database comes from {@code test.postgres.url},
+ * {@code test.postgres.username} and {@code test.postgres.password}; the test works in its own
+ * {@value #SCHEMA} schema, which it drops before and after the run, but partition maintenance
+ * looks at every schema, so point it at a database nothing else uses.
+ */
+@Tag("postgres")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TransactionPartitioningTest {
+
+    private static final String SCHEMA = "partitioning_test";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private static final YearMonth CURRENT = YearMonth.now();
+    private static final YearMonth ARCHIVED = CURRENT.minusMonths(30);
+    private static final YearMonth CLOSED = CURRENT.minusMonths(1);
+
+    private static DriverManagerDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    static Path archiveDirectory;
+
+    @BeforeAll
+    static void migrateALedgerWithHistory() {
+        String url = System.getProperty("test.postgres.url", "jdbc:postgresql://localhost:5432/wallet_test");
+        dataSource = new DriverManagerDataSource(url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA,
+                System.getProperty("test.postgres.username", "postgres"),
+                System.getProperty("test.postgres.password", ""));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+
+        // The unpartitioned table as V2 leaves it, with rows for V3 to carry over
+        flyway("2").migrate();
+        jdbcTemplate.update("INSERT INTO users (email, name, is_active) VALUES ('ledger@test.local', 'Ledger', true)");
+        jdbcTemplate.update("""
+                INSERT INTO wallets (user_id, wallet_number, balance, is_active, created_at, updated_at)
+                SELECT id, '1000000000001', 0, true, now(), now() FROM users""");
+        insertTransaction("TXN-ARCHIVED-1", ARCHIVED.atDay(3).atStartOfDay());
+        insertTransaction("TXN-ARCHIVED-2", ARCHIVED.atEndOfMonth().atTime(23, 59));
+        insertTransaction("TXN-CLOSED", CLOSED.atDay(15).atStartOfDay());
+        insertTransaction("TXN-CURRENT", CURRENT.atDay(1).atStartOfDay());
+
+        flyway(null).migrate();
+    }
+
+    @AfterAll
+    static void dropSchema() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+
+    @Test
+    @Order(1)
+    void v3PartitionsTheExistingLedgerByMonth() {
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT relkind::text FROM pg_class WHERE oid = 'transactions'::regclass", String.class))
+                .isEqualTo("p");
+        assertThat(partitions()).contains(partition(ARCHIVED), partition(ARCHIVED.plusMonths(1)),
+                partition(CLOSED), partition(CURRENT), partition(CURRENT.plusMonths(3)));
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM " + partition(ARCHIVED), Long.class))
+                .isEqualTo(2);
+        assertThat(jdbcTemplate.queryForList("SELECT reference FROM transaction_keys ORDER BY reference", String.class))
+                .containsExactly("TXN-ARCHIVED-1", "TXN-ARCHIVED-2", "TXN-CLOSED", "TXN-CURRENT");
+
+        // New rows continue the old ids
+        long maxId = jdbcTemplate.queryForObject("SELECT max(id) FROM transactions", Long.class);
+        insertTransaction("TXN-AFTER-V3", LocalDateTime.now());
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT id FROM transactions WHERE reference = 'TXN-AFTER-V3'", Long.class)).isGreaterThan(maxId);
+    }
+
+    @Test
+    @Order(2)
+    void maintenanceArchivesOldMonthsAndTheirReferencesStayTaken() throws IOException {
+        TransactionPartitionService service = new TransactionPartitionService(jdbcTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "monthsAhead", 6);
+        ReflectionTestUtils.setField(service, "archiveEnabled", true);
+        ReflectionTestUtils.setField(service, "archiveAfterMonths", 24);
+        ReflectionTestUtils.setField(service, "archiveDirectory", archiveDirectory);
+
+        assertThat(service.maintain(CURRENT)).isTrue();
+
+        // Months more than after-months back are archived, the ones after them keep their partitions
+        assertThat(partitions())
+                .contains(partition(CURRENT.plusMonths(6)), partition(CLOSED), partition(CURRENT.minusMonths(23)))
+                .doesNotContain(partition(ARCHIVED), partition(CURRENT.minusMonths(24)));
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass(?)::text", String.class,
+                partition(CLOSED) + "_created_at_brin")).isNotNull();
+
+        Path file = archiveDirectory.resolve(partition(ARCHIVED) + ".csv.gz");
+        assertThat(readArchive(file)).hasSize(3).first().asString().startsWith("id,wallet_id,reference");
+        assertThat(service.archivedMonths()).contains(ARCHIVED, CURRENT.minusMonths(24))
+                .doesNotContain(CURRENT.minusMonths(23));
+
+        assertThat(service.restore(ARCHIVED)).isEqualTo(2);
+        String restored = "transactions_archive_" + ARCHIVED.format(SUFFIX);
+        assertThat(jdbcTemplate.queryForList("SELECT reference FROM " + restored + " ORDER BY reference", String.class))
+                .containsExactly("TXN-ARCHIVED-1", "TXN-ARCHIVED-2");
+        service.release(ARCHIVED);
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass(?)::text", String.class, restored)).isNull();
+
+        // The archived rows are gone from transactions, but transaction_keys still holds their references
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM transactions WHERE reference = 'TXN-ARCHIVED-1'", Long.class)).isZero();
+        assertThatThrownBy(() -> insertTransaction("TXN-ARCHIVED-1", LocalDateTime.now()))
+                .isInstanceOf(DuplicateKeyException.class)
+                .hasMessageContaining("transaction_keys");
+    }
+
+    private static Flyway flyway(String target) {
+        var configuration = Flyway.configure()
+                .dataSource(dataSource)
+                .schemas(SCHEMA)
+                .locations("classpath:db/migration/common", "classpath:db/migration/postgresql")
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"));
+        return (target == null ? configuration : configuration.target(target)).load();
+    }
+
+    private static void insertTransaction(String reference, LocalDateTime createdAt) {
+        jdbcTemplate.update("""
+                INSERT INTO transactions (wallet_id, reference, type, amount, status, created_at, updated_at)
+                SELECT id, ?, 'DEPOSIT', 500.00, 'SUCCESS', ?, ? FROM wallets""", reference, createdAt, createdAt);
+    }
+
+    private static List<String> partitions() {
+        return jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'transactions'::regclass ORDER BY c.relname""", String.class);
+    }
+
+    private static String partition(YearMonth month) {
+        return "transactions_" + month.format(SUFFIX);
+    }
+
+    private static List<String> readArchive(Path file) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        }
+    }
+}
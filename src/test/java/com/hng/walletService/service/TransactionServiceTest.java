@@ -0,0 +1,94 @@
+package com.hng.walletService.service;
+
+import com.hng.walletService.model.dto.response.DepositStatusResponse;
+import com.hng.walletService.model.entity.TransactionEntity;
+import com.hng.walletService.model.entity.WalletEntity;
+import com.hng.walletService.model.enums.TransactionStatus;
+import com.hng.walletService.model.enums.TransactionType;
+import com.hng.walletService.repository.TransactionRepository;
+import com.hng.walletService.util.WalletMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TransactionServiceTest {
+
+    private static final String REFERENCE = "TXN-LATEWEBHOOK0001";
+
+    private TransactionRepository transactionRepository;
+    private WalletService walletService;
+    private ApplicationEventPublisher eventPublisher;
+    private TransactionService transactionService;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository = mock(TransactionRepository.class);
+        walletService = mock(WalletService.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        transactionService = new TransactionService(transactionRepository, walletService, mock(PaystackService.class),
+                new WalletMetrics(new SimpleMeterRegistry()), eventPublisher, mock(VelocityLimiter.class));
+
+        doAnswer(invocation -> {
+            WalletEntity wallet = invocation.getArgument(0);
+            wallet.credit(invocation.getArgument(1));
+            return null;
+        }).when(walletService).creditWallet(any(), any());
+    }
+
+    @Test
+    void lateWebhookStillCreditsAnAbandonedDeposit() {
+        WalletEntity wallet = wallet(new BigDecimal("100.00"));
+        TransactionEntity deposit = deposit(wallet, TransactionStatus.ABANDONED);
+        when(transactionRepository.findByPaystackReference(REFERENCE)).thenReturn(Optional.of(deposit));
+
+        transactionService.processSuccessfulDeposit(REFERENCE, new BigDecimal("250.00"));
+
+        assertThat(deposit.getStatus()).isEqualTo(TransactionStatus.SUCCESS);
+        assertThat(wallet.getBalance()).isEqualByComparingTo("350.00");
+        assertThat(deposit.getPreviousBalance()).isEqualByComparingTo("100.00");
+        assertThat(deposit.getNewBalance()).isEqualByComparingTo("350.00");
+        verify(eventPublisher).publishEvent(new WalletEventBus.WalletEvent(1L, "deposit",
+                new DepositStatusResponse(REFERENCE, "success", new BigDecimal("250.00"))));
+    }
+
+    @Test
+    void replayedWebhookDoesNotCreditTwice() {
+        WalletEntity wallet = wallet(new BigDecimal("100.00"));
+        TransactionEntity deposit = deposit(wallet, TransactionStatus.SUCCESS);
+        when(transactionRepository.findByPaystackReference(REFERENCE)).thenReturn(Optional.of(deposit));
+
+        transactionService.processSuccessfulDeposit(REFERENCE, new BigDecimal("250.00"));
+
+        verify(walletService, never()).creditWallet(any(), any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+        assertThat(wallet.getBalance()).isEqualByComparingTo("100.00");
+    }
+
+    private static WalletEntity wallet(BigDecimal balance) {
+        return WalletEntity.builder()
+                .id(1L)
+                .walletNumber("1234567890123")
+                .balance(balance)
+                .build();
+    }
+
+    private static TransactionEntity deposit(WalletEntity wallet, TransactionStatus status) {
+        return TransactionEntity.builder()
+                .id(10L)
+                .wallet(wallet)
+                .reference(REFERENCE)
+                .paystackReference(REFERENCE)
+                .type(TransactionType.DEPOSIT)
+                .amount(new BigDecimal("250.00"))
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,161 @@
+package com.hng.walletService.service;
+
+import com.hng.walletService.TestWallets;
+import com.hng.walletService.exception.VelocityLimitExceededException;
+import com.hng.walletService.model.dto.request.TransferRequest;
+import com.hng.walletService.model.dto.response.PayoutBatchResponse;
+import com.hng.walletService.model.entity.TransactionEntity;
+import com.hng.walletService.model.entity.WalletEntity;
+import com.hng.walletService.model.enums.TransactionStatus;
+import com.hng.walletService.model.enums.TransactionType;
+import com.hng.walletService.model.enums.WalletTier;
+import com.hng.walletService.repository.TransactionRepository;
+import com.hng.walletService.repository.WalletRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ActiveProfiles("embedded")
+@Import(TestWallets.class)
+@SpringBootTest(properties = {
+        "wallet.velocity.enabled=true",
+        "wallet.velocity.tiers.standard.transfer.minute.count=3",
+        "wallet.velocity.tiers.standard.transfer.hour.amount=1000",
+        "wallet.velocity.tiers.business.transfer.minute.count=5",
+        "wallet.velocity.tiers.standard.payout.hour.amount=100"})
+class VelocityLimiterTest {
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private PayoutService payoutService;
+    @Autowired
+    private PayoutPipeline payoutPipeline;
+    @Autowired
+    private WalletRepository walletRepository;
+    @Autowired
+    private TestWallets testWallets;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void transfersOverTheTierLimitAreRefused() {
+        WalletEntity sender = testWallets.seed("5000.00", WalletTier.STANDARD);
+        WalletEntity recipient = testWallets.seed("0.00", WalletTier.STANDARD);
+
+        for (int i = 0; i < 3; i++) {
+            transfer(sender, recipient, "10.00");
+        }
+        assertThatThrownBy(() -> transfer(sender, recipient, "10.00"))
+                .isInstanceOfSatisfying(VelocityLimitExceededException.class, e -> {
+                    assertThat(e).hasMessage("Transfer limit for this minute reached");
+                    assertThat(e.getRetryAfter()).isBetween(Duration.ofSeconds(1), Duration.ofMinutes(1));
+                });
+        assertThat(balance(sender)).isEqualByComparingTo("4970.00");
+
+        // Business wallets are held to their own tier's limits
+        WalletEntity business = testWallets.seed("5000.00", WalletTier.BUSINESS);
+        for (int i = 0; i < 5; i++) {
+            transfer(business, recipient, "500.00");
+        }
+        assertThatThrownBy(() -> transfer(business, recipient, "500.00"))
+                .isInstanceOf(VelocityLimitExceededException.class)
+                .hasMessage("Transfer limit for this minute reached");
+        assertThat(balance(business)).isEqualByComparingTo("2500.00");
+    }
+
+    @Test
+    void countersStartFromTheLedgerAndForgetRolledBackTransfers() throws Exception {
+        WalletEntity sender = testWallets.seed("5000.00", WalletTier.STANDARD);
+        WalletEntity recipient = testWallets.seed("0.00", WalletTier.STANDARD);
+        LocalDateTime tenMinutesAgo = LocalDateTime.now().minusMinutes(10);
+        transactionRepository.insertAll(List.of(
+                sent(sender, recipient, "TXN-", "900.00", tenMinutesAgo),
+                // Payout lines count against the payout limits; failed transfers do not count
+                sent(sender, recipient, "PAYOUT-", "500.00", tenMinutesAgo)));
+        TransactionEntity failed = sent(sender, recipient, "TXN-", "900.00", tenMinutesAgo);
+        failed.setStatus(TransactionStatus.FAILED);
+        transactionRepository.insertAll(List.of(failed));
+
+        assertThatThrownBy(() -> transfer(sender, recipient, "200.00"))
+                .isInstanceOf(VelocityLimitExceededException.class)
+                .hasMessage("Transfer limit for this hour reached");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            transfer(sender, recipient, "100.00");
+            status.setRollbackOnly();
+        });
+        transfer(sender, recipient, "100.00");
+        assertThat(balance(sender)).isEqualByComparingTo("4900.00");
+        assertThat(payout(sender, recipient, 1).getError()).isEqualTo("Payout limit for this hour reached");
+    }
+
+    @Test
+    void payoutsAreHeldToTheirOwnLimits() throws Exception {
+        WalletEntity merchant = testWallets.seed("5000.00", WalletTier.STANDARD);
+        WalletEntity recipient = testWallets.seed("0.00", WalletTier.STANDARD);
+
+        // More lines than the transfer limit allows in a minute, and the transfers are still there
+        assertThat(payout(merchant, recipient, 5).getStatus()).isEqualTo("completed");
+        for (int i = 0; i < 3; i++) {
+            transfer(merchant, recipient, "10.00");
+        }
+        assertThatThrownBy(() -> transfer(merchant, recipient, "10.00"))
+                .isInstanceOf(VelocityLimitExceededException.class);
+
+        PayoutBatchResponse overAmount = payout(merchant, recipient, 6);
+        assertThat(overAmount.getStatus()).isEqualTo("failed");
+        assertThat(overAmount.getError()).isEqualTo("Payout limit for this hour reached");
+        assertThat(balance(merchant)).isEqualByComparingTo("4920.00");
+    }
+
+    private PayoutBatchResponse payout(WalletEntity merchant, WalletEntity recipient, int lines) throws Exception {
+        String file = (recipient.getWalletNumber() + ",10\n").repeat(lines);
+        PayoutBatchResponse received = payoutService.upload(merchant.getUser(), "payouts.csv",
+                new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8)));
+        payoutPipeline.submit(received.getId()).get();
+        return payoutService.getBatch(received.getId(), merchant.getUser());
+    }
+
+    private void transfer(WalletEntity sender, WalletEntity recipient, String amount) {
+        transactionService.transfer(sender.getUser(), TransferRequest.builder()
+                .walletNumber(recipient.getWalletNumber())
+                .amount(new BigDecimal(amount))
+                .build());
+    }
+
+    private static TransactionEntity sent(WalletEntity sender, WalletEntity recipient, String prefix, String amount,
+                                          LocalDateTime at) {
+        return TransactionEntity.builder()
+                .wallet(sender)
+                .reference(prefix + UUID.randomUUID() + "-DEBIT")
+                .type(TransactionType.TRANSFER)
+                .amount(new BigDecimal(amount))
+                .status(TransactionStatus.SUCCESS)
+                .recipientWalletNumber(recipient.getWalletNumber())
+                .createdAt(at)
+                .updatedAt(at)
+                .build();
+    }
+
+    private BigDecimal balance(WalletEntity wallet) {
+        return walletRepository.findById(wallet.getId()).orElseThrow().getBalance();
+    }
+}
@@ -0,0 +1,64 @@
+package com.hng.walletService.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WalletEventBusTest {
+
+    private WalletEventBus bus;
+
+    @BeforeEach
+    void setUp() {
+        bus = new WalletEventBus(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(bus, "maxConnectionsPerWallet", 2);
+        ReflectionTestUtils.setField(bus, "bufferSize", 2);
+    }
+
+    @Test
+    void deliversOnlyTheSubscribersOwnWallet() {
+        Flux<WalletEventBus.WalletEvent> events = bus.subscribe(1L).orElseThrow();
+
+        StepVerifier.create(events)
+                .then(() -> {
+                    bus.publish(new WalletEventBus.WalletEvent(2L, "balance", "other wallet"));
+                    bus.publish(new WalletEventBus.WalletEvent(1L, "balance", "own wallet"));
+                })
+                .assertNext(event -> assertThat(event.data()).isEqualTo("own wallet"))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void limitsSubscribersPerWalletAndFreesTheSlotOnCancel() {
+        Flux<WalletEventBus.WalletEvent> first = bus.subscribe(1L).orElseThrow();
+        bus.subscribe(1L).orElseThrow().subscribe().dispose();
+        first.subscribe();
+
+        assertThat(bus.subscribe(1L)).isPresent();
+        assertThat(bus.subscribe(1L)).isEmpty();
+        assertThat(bus.subscribe(2L)).isPresent();
+    }
+
+    @Test
+    void slowSubscriberKeepsTheNewestEvents() {
+        Flux<WalletEventBus.WalletEvent> events = bus.subscribe(1L).orElseThrow();
+
+        StepVerifier.create(events, 0)
+                .then(() -> {
+                    for (int i = 1; i <= 5; i++) {
+                        bus.publish(new WalletEventBus.WalletEvent(1L, "balance", i));
+                    }
+                })
+                .thenRequest(2)
+                .assertNext(event -> assertThat(event.data()).isEqualTo(4))
+                .assertNext(event -> assertThat(event.data()).isEqualTo(5))
+                .thenCancel()
+                .verify();
+    }
+}
@@ -0,0 +1,174 @@
+package com.hng.walletService.service;
+
+import com.hng.walletService.TestWallets;
+import com.hng.walletService.exception.InvalidRequestException;
+import com.hng.walletService.model.dto.request.TransferRequest;
+import com.hng.walletService.model.dto.response.PayoutBatchResponse;
+import com.hng.walletService.model.dto.response.WalletStatsResponse;
+import com.hng.walletService.model.entity.TransactionEntity;
+import com.hng.walletService.model.entity.WalletEntity;
+import com.hng.walletService.model.enums.TransactionStatus;
+import com.hng.walletService.model.enums.TransactionType;
+import com.hng.walletService.repository.TransactionRepository;
+import com.hng.walletService.repository.WalletDailyStatsRepository;
+import com.hng.walletService.repository.WalletDailyStatsRepository.DailyStats;
+import com.hng.walletService.repository.WalletRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ActiveProfiles("embedded")
+@Import(TestWallets.class)
+@SpringBootTest
+class WalletStatsTest {
+
+    @Autowired
+    private WalletStatsService walletStatsService;
+    @Autowired
+    private WalletStatsBackfill walletStatsBackfill;
+    @Autowired
+    private WalletDailyStatsRepository walletDailyStatsRepository;
+    @Autowired
+    private PayoutService payoutService;
+    @Autowired
+    private PayoutPipeline payoutPipeline;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private WalletRepository walletRepository;
+    @Autowired
+    private TestWallets testWallets;
+
+    @Test
+    void transfersAreRolledUpWithTheirTransaction() {
+        WalletEntity sender = testWallets.seed("1000.00");
+        WalletEntity recipient = testWallets.seed("0.00");
+        LocalDate today = LocalDate.now();
+
+        transfer(sender, recipient, "100.00");
+        transfer(sender, recipient, "250.00");
+        assertThatThrownBy(() -> transfer(sender, recipient, "5000.00")).hasMessage("Insufficient balance");
+
+        WalletStatsResponse sent = walletStatsService.getStats(sender.getUser(), today, today);
+        assertThat(sent.getOutflow()).isEqualByComparingTo("350.00");
+        assertThat(sent.getInflow()).isEqualByComparingTo("0.00");
+        assertThat(sent.getDebitCount()).isEqualTo(2);
+        assertThat(sent.getOpeningBalance()).isEqualByComparingTo("1000.00");
+        assertThat(sent.getClosingBalance()).isEqualByComparingTo("650.00");
+
+        WalletStatsResponse received = walletStatsService.getStats(recipient.getUser(), today.minusDays(7), today);
+        assertThat(received.getInflow()).isEqualByComparingTo("350.00");
+        assertThat(received.getCreditCount()).isEqualTo(2);
+        assertThat(received.getDays()).hasSize(1);
+        assertThat(received.getDays().getFirst().getClosingBalance()).isEqualByComparingTo("350.00");
+    }
+
+    @Test
+    void rangesThatCannotBeAnsweredAreRejected() {
+        WalletEntity wallet = testWallets.seed("0.00");
+        LocalDate today = LocalDate.now();
+
+        assertThatThrownBy(() -> walletStatsService.getStats(wallet.getUser(), today, today.minusDays(1)))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("from must not be after to");
+        assertThatThrownBy(() -> walletStatsService.getStats(wallet.getUser(), today.minusYears(2), today))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    void backfillRebuildsPastDaysFromTheLedger() {
+        WalletEntity wallet = testWallets.seed("500.00");
+        LocalDate today = LocalDate.now();
+        transactionRepository.insertAll(List.of(
+                transaction(wallet, TransactionType.DEPOSIT, "300.00", null, null, today.minusDays(3)),
+                transaction(wallet, TransactionType.TRANSFER, "100.00", "1234567890123", null, today.minusDays(2)),
+                transaction(wallet, TransactionType.TRANSFER, "50.00", null, "1234567890123", today.minusDays(1)),
+                transaction(wallet, TransactionType.DEPOSIT, "250.00", null, null, today)));
+
+        walletStatsBackfill.run(today);
+
+        WalletStatsResponse stats = walletStatsService.getStats(wallet.getUser(), today.minusDays(3), today);
+        assertThat(stats.getDays()).hasSize(3);
+        assertThat(stats.getInflow()).isEqualByComparingTo("350.00");
+        assertThat(stats.getOutflow()).isEqualByComparingTo("100.00");
+        assertThat(stats.getOpeningBalance()).isEqualByComparingTo("0.00");
+        assertThat(stats.getClosingBalance()).isEqualByComparingTo("250.00");
+        assertThat(stats.getDays().get(1).getOpeningBalance()).isEqualByComparingTo("300.00");
+        assertThat(stats.getDays().get(1).getClosingBalance()).isEqualByComparingTo("200.00");
+
+        // A quiet range reports the balance the wallet was left at
+        WalletStatsResponse quiet = walletStatsService.getStats(wallet.getUser(), today.minusDays(30), today.minusDays(10));
+        assertThat(quiet.getDays()).isEmpty();
+        assertThat(quiet.getOpeningBalance()).isEqualByComparingTo("0.00");
+    }
+
+    @Test
+    void backfillLeavesRecordedDaysAlone() throws Exception {
+        WalletEntity merchant = testWallets.seed("1000.00");
+        WalletEntity recipient = testWallets.seed("0.00");
+        LocalDate today = LocalDate.now();
+        // Before the recorder was running
+        transactionRepository.insertAll(List.of(
+                transaction(merchant, TransactionType.DEPOSIT, "400.00", null, null, today.minusDays(2))));
+
+        transfer(merchant, recipient, "100.00");
+        String file = recipient.getWalletNumber() + ",20\n" + recipient.getWalletNumber() + ",30\n";
+        PayoutBatchResponse batch = payoutService.upload(merchant.getUser(), "payouts.csv",
+                new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8)));
+        payoutPipeline.submit(batch.getId()).get();
+
+        List<DailyStats> sent = walletDailyStatsRepository.findRange(merchant.getId(), today, today);
+        List<DailyStats> received = walletDailyStatsRepository.findRange(recipient.getId(), today, today);
+        // The transfer and the payout's reservation
+        assertThat(sent).singleElement().satisfies(day -> assertThat(day.debitCount()).isEqualTo(2));
+
+        // A day later, today is one of the past days the backfill covers
+        walletStatsBackfill.run(today.plusDays(1));
+
+        assertThat(walletDailyStatsRepository.findRange(merchant.getId(), today, today)).isEqualTo(sent);
+        assertThat(walletDailyStatsRepository.findRange(recipient.getId(), today, today)).isEqualTo(received);
+        List<DailyStats> merchantDays = walletDailyStatsRepository.findRange(merchant.getId(), today.minusDays(7), today);
+        assertThat(merchantDays).hasSize(2);
+        assertThat(merchantDays.getFirst().inflow()).isEqualByComparingTo("400.00");
+        assertThat(merchantDays.getFirst().openingBalance()).isEqualByComparingTo("600.00");
+        assertThat(merchantDays.getFirst().closingBalance()).isEqualByComparingTo("1000.00");
+    }
+
+    private void transfer(WalletEntity sender, WalletEntity recipient, String amount) {
+        transactionService.transfer(sender.getUser(), TransferRequest.builder()
+                .walletNumber(recipient.getWalletNumber())
+                .amount(new BigDecimal(amount))
+                .build());
+    }
+
+    private static TransactionEntity transaction(WalletEntity wallet, TransactionType type, String amount,
+                                                 String recipient, String sender, LocalDate date) {
+        LocalDateTime at = date.atTime(12, 0);
+        return TransactionEntity.builder()
+                .wallet(wallet)
+                .reference("STATS-" + UUID.randomUUID())
+                .type(type)
+                .amount(new BigDecimal(amount))
+                .status(TransactionStatus.SUCCESS)
+                .recipientWalletNumber(recipient)
+                .senderWalletNumber(sender)
+                .createdAt(at)
+                .updatedAt(at)
+                .build();
+    }
+}
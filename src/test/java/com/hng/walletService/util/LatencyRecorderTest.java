@@ -0,0 +1,58 @@
+package com.hng.walletService.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyRecorderTest {
+
+    private final LatencyRecorder latencyRecorder = new LatencyRecorder();
+
+    @Test
+    void summarizesTheIntervalInProgressUntilItRotates() {
+        for (int i = 0; i < 99; i++) {
+            latencyRecorder.record("WalletController#getBalance", TimeUnit.MILLISECONDS.toNanos(2));
+        }
+        latencyRecorder.record("WalletController#getBalance", TimeUnit.MILLISECONDS.toNanos(40));
+
+        LatencyRecorder.LatencySummary summary = latencyRecorder.snapshot().get("WalletController#getBalance");
+        assertThat(summary.previous()).isNull();
+        assertThat(summary.current().recorded().count()).isEqualTo(100);
+        assertThat(summary.current().recorded().p50()).isCloseTo(2.0, within(0.05));
+        assertThat(summary.current().recorded().max()).isCloseTo(40.0, within(0.5));
+
+        // Reading drains the recorder but keeps accumulating into the same interval
+        latencyRecorder.record("WalletController#getBalance", TimeUnit.MILLISECONDS.toNanos(2));
+        assertThat(latencyRecorder.snapshot().get("WalletController#getBalance").current().recorded().count())
+                .isEqualTo(101);
+
+        latencyRecorder.rotate();
+        latencyRecorder.record("WalletController#getBalance", TimeUnit.MILLISECONDS.toNanos(3));
+
+        summary = latencyRecorder.snapshot().get("WalletController#getBalance");
+        assertThat(summary.previous().recorded().count()).isEqualTo(101);
+        assertThat(summary.current().recorded().count()).isEqualTo(1);
+        assertThat(summary.current().start()).isEqualTo(summary.previous().end());
+    }
+
+    @Test
+    void correctsStallsForTheRequestsThatWouldHaveQueuedBehindThem() {
+        ReflectionTestUtils.setField(latencyRecorder, "expectedInterval", Duration.ofMillis(10));
+        for (int i = 0; i < 100; i++) {
+            latencyRecorder.record("paystack.verify", TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        latencyRecorder.record("paystack.verify", TimeUnit.SECONDS.toNanos(1));
+
+        LatencyRecorder.IntervalSummary interval = latencyRecorder.snapshot().get("paystack.verify").current();
+        // A one-second stall hides ~99 requests that would each have waited 10ms less than the last
+        assertThat(interval.recorded().count()).isEqualTo(101);
+        assertThat(interval.corrected().count()).isEqualTo(200);
+        assertThat(interval.recorded().p90()).isCloseTo(1.0, within(0.05));
+        assertThat(interval.corrected().p90()).isGreaterThan(700.0);
+    }
+}
@@ -0,0 +1,67 @@
+package com.hng.walletService.util;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SamplingTurboFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setRate(10);
+        filter.addLogger("com.hng.walletService.security");
+        filter.setContext(context);
+        filter.start();
+        context.addTurboFilter(filter);
+
+        appender.setContext(context);
+        appender.start();
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.DEBUG);
+        root.addAppender(appender);
+    }
+
+    @Test
+    void keepsOneInRateEventsFromSampledLoggers() {
+        Logger logger = context.getLogger("com.hng.walletService.security.JwtAuthenticationFilter");
+        for (int i = 0; i < 1_000; i++) {
+            logger.info("JWT subject: {}", "user@example.com");
+        }
+
+        assertThat(appender.list).hasSize(100);
+    }
+
+    @Test
+    void neverSamplesWarningsOrOtherLoggers() {
+        Logger sampled = context.getLogger("com.hng.walletService.security.ApiKeyAuthenticationFilter");
+        Logger business = context.getLogger("com.hng.walletService.service.TransactionService");
+        for (int i = 0; i < 50; i++) {
+            sampled.warn("Invalid API key");
+            business.info("Transfer completed");
+        }
+
+        assertThat(appender.list).hasSize(100);
+    }
+
+    @Test
+    void disabledLevelsDoNotAdvanceTheSample() {
+        Logger logger = context.getLogger("com.hng.walletService.security.JwtAuthenticationFilter");
+        logger.setLevel(Level.INFO);
+        for (int i = 0; i < 5; i++) {
+            logger.debug("dropped by level");
+        }
+        logger.info("first sampled event");
+
+        assertThat(appender.list).extracting(ILoggingEvent::getMessage).containsExactly("first sampled event");
+    }
+}
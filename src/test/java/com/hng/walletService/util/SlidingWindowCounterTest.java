@@ -0,0 +1,54 @@
+package com.hng.walletService.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowCounterTest {
+
+    private static final long MINUTE = 60_000;
+
+    private final SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMinutes(1), 12);
+
+    @Test
+    void eventsLeaveTheWindowABucketAtATime() {
+        long start = 1_000 * MINUTE;
+        counter.add(start, 100);
+        counter.add(start + 20_000, 250);
+
+        assertThat(counter.count(start + 30_000)).isEqualTo(2);
+        assertThat(counter.amount(start + 30_000)).isEqualTo(350);
+        assertThat(counter.millisUntilNextExpiry(start + 30_000)).isEqualTo(30_000);
+
+        // The first bucket has gone round the ring
+        assertThat(counter.count(start + MINUTE)).isEqualTo(1);
+        assertThat(counter.amount(start + MINUTE)).isEqualTo(250);
+        assertThat(counter.count(start + MINUTE + 20_000)).isZero();
+        assertThat(counter.millisUntilNextExpiry(start + MINUTE + 20_000)).isZero();
+
+        // A bucket reused for a later lap starts from empty
+        counter.add(start + MINUTE + 1_000, 10);
+        assertThat(counter.amount(start + MINUTE + 1_000)).isEqualTo(260);
+        assertThat(counter.amount(start + MINUTE + 20_000)).isEqualTo(10);
+    }
+
+    @Test
+    void removingTakesBackOnlyWhatIsStillInTheWindow() {
+        long start = 1_000 * MINUTE;
+        counter.add(start, 100);
+        counter.add(start + 1_000, 50);
+        counter.remove(start + 1_000, 50);
+        assertThat(counter.count(start + 2_000)).isEqualTo(1);
+        assertThat(counter.amount(start + 2_000)).isEqualTo(100);
+
+        counter.add(start + MINUTE, 70);
+        counter.remove(start, 100);
+        assertThat(counter.amount(start + MINUTE)).isEqualTo(70);
+
+        // Events from before the window are ignored
+        counter.add(start - MINUTE, 999);
+        assertThat(counter.count(start + MINUTE)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,42 @@
+package com.hng.walletService.util;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WalletMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WalletMetrics walletMetrics = new WalletMetrics(meterRegistry);
+
+    @Test
+    void timesSuccessfulAndFailedCallsUnderSeparateOutcomeTags() {
+        assertThat(walletMetrics.time("wallet.transfer", () -> "done")).isEqualTo("done");
+        walletMetrics.time("wallet.transfer", () -> "done");
+        assertThatThrownBy(() -> walletMetrics.time("wallet.transfer", () -> {
+            throw new IllegalStateException("Insufficient balance");
+        })).isInstanceOf(IllegalStateException.class);
+
+        Timer success = meterRegistry.get("wallet.transfer").tag("outcome", WalletMetrics.SUCCESS).timer();
+        Timer failure = meterRegistry.get("wallet.transfer")
+                .tag("outcome", WalletMetrics.FAILURE)
+                .tag("exception", "IllegalStateException")
+                .timer();
+        assertThat(success.count()).isEqualTo(2);
+        assertThat(failure.count()).isEqualTo(1);
+    }
+
+    @Test
+    void recordsExternallyMeasuredDurations() {
+        walletMetrics.record("wallet.auth.jwt", "rejected", 1_000_000);
+
+        Timer timer = meterRegistry.get("wallet.auth.jwt").tag("outcome", "rejected").timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(1.0);
+    }
+}